@@ -1,29 +1,34 @@
 package bank;
 
 import transaction.Transaction;
+import transaction.TransactionColumns;
 import utils.Budget;
 import utils.Category;
 import utils.Currency;
+import utils.Money;
 import utils.Month;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class Bank {
     private final int id;
     private final Currency currency;        // The currency this bank trades in
-    private float balance;                  // This user's balance in this bank account
+    private long balance;                   // This user's balance in this bank account, in minor units
     private float exchangeRate;             // The current exchange rate from this currency to USD
-    private ArrayList<Transaction> transactions;
+    private TransactionColumns transactions;
     private Map<Category, Map<Month, Budget>> budgets;
+    private Consumer<TransactionColumns> transactionLoader;
+    private long version;                   // Incremented whenever the balance or exchange rate changes
+    private long budgetVersion;             // Incremented whenever a budget is added or changed
 
-    public Bank(int id, Currency currency, float balance, float exchangeRate) {
+    public Bank(int id, Currency currency, long balance, float exchangeRate) {
         this.id = id;
         this.currency = currency;
         this.setBalance(balance);
         this.setExchangeRate(exchangeRate);
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionColumns();
         this.budgets = new HashMap<>(); {
         };
     }
@@ -36,7 +41,10 @@ public class Bank {
         return id;
     }
 
-    public float getBalance() {
+    /**
+     * Returns the balance in minor units of the bank's currency.
+     */
+    public long getBalance() {
         return balance;
     }
 
@@ -44,47 +52,129 @@ public class Bank {
         return exchangeRate;
     }
 
-    public ArrayList<Transaction> getTransactions() {
+    /**
+     * Returns the transactions of this bank, loading them first if they are loaded lazily.
+     */
+    public TransactionColumns getTransactions() {
+        if (transactionLoader != null) {
+            Consumer<TransactionColumns> loader = transactionLoader;
+            transactionLoader = null;
+            loader.accept(transactions);
+        }
         return transactions;
     }
 
+    /**
+     * Defers loading this bank's transactions until they are first requested.
+     *
+     * @param loader Adds the stored transactions to the list it is given.
+     */
+    public void setTransactionLoader(Consumer<TransactionColumns> loader) {
+        this.transactionLoader = loader;
+    }
+
+    /**
+     * Returns whether the transactions of this bank are in memory, rather than still waiting to be loaded.
+     */
+    public boolean isTransactionsLoaded() {
+        return transactionLoader == null;
+    }
+
+    /**
+     * Returns a counter that changes whenever the stored fields of this bank change,
+     * so callers can tell whether the bank has changed since they last saw it.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a counter that changes whenever a transaction is added to or removed from this bank.
+     * Loading the transactions lazily also changes it.
+     */
+    public int getTransactionVersion() {
+        return transactions.getModCount();
+    }
+
+    /**
+     * Returns a counter that changes whenever anything a summary of this bank shows may have changed:
+     * its transactions, its balance or exchange rate, or its budgets. Reading it does not load the
+     * transactions.
+     */
+    public long getModificationCount() {
+        return version + budgetVersion + transactions.getModCount();
+    }
+
+    /**
+     * Returns the total value of this bank's transactions of a category and currency in a month, read
+     * from the running totals its transactions keep as they are added and deleted. The transactions are
+     * loaded first if they are not yet; {@link storage.Storage#getSpending(Bank, Month, int, Category, Currency)}
+     * reads only the stored month instead.
+     *
+     * @param month    The month of the transactions.
+     * @param year     The year of the transactions, or {@link TransactionColumns#ANY_YEAR} for that month
+     *                 of every year.
+     * @param category The category of the transactions.
+     * @param currency The currency of the transactions.
+     * @return The total, in minor units of the currency.
+     */
+    public long getSpending(Month month, int year, Category category, Currency currency) {
+        return getTransactions().getSpendingTotals().getTotal(month, year, category, currency);
+    }
+
+    /**
+     * Returns the total value of this bank's transactions of a category and currency from the start of
+     * one month to the end of another, read from the same running totals.
+     *
+     * @return The total, in minor units of the currency.
+     */
+    public long getSpending(Month firstMonth, int firstYear, Month lastMonth, int lastYear,
+                            Category category, Currency currency) {
+        return getTransactions().getSpendingTotals().getTotal(firstMonth, firstYear, lastMonth, lastYear,
+                category, currency);
+    }
+
     public Map<Category, Map<Month, Budget>> getBudgets() {
         return budgets;
     }
 
     public void addTransactionToBank(Transaction transaction) {
-        this.transactions.add(transaction);
+        getTransactions().add(transaction);
     }
 
     public void addBudgetToBank(Budget budget) {
         budgets.computeIfAbsent(budget.getCategory(), k -> new HashMap<>())
                 .put(budget.getMonth(), budget);
+        budgetVersion++;
+    }
+
+    /**
+     * Records that the amount of one of this bank's budgets has changed.
+     */
+    public void markBudgetChanged() {
+        budgetVersion++;
     }
 
     public Transaction deleteTransactionFromBank(int index) {
-        if (index < 0 || index >= transactions.size()) {
+        if (index < 0 || index >= getTransactions().size()) {
             throw new IllegalArgumentException("Transaction index out of range");
         }
 
+        // Restore balance, capped at the maximum amount like setBalance, worked out before the removal
+        long newBalance = Math.min(this.balance + transactions.getValue(index), Money.MAX_AMOUNT);
         Transaction removed = transactions.remove(index);
-
-        // Restore balance
-        float newBalance = this.balance + removed.getValue();
         this.setBalance(newBalance);
 
         return removed;
     }
 
-    public void setBalance(float balance) {
-        System.out.println("Setting new balance of " + balance);
+    public void setBalance(long balance) {
+        System.out.println("Setting new balance of " + Money.toPlainString(balance));
         if (balance < 0) {
             throw new IllegalArgumentException("Balance cannot be negative.");
         }
-        if (balance > Float.MAX_VALUE){
-            this.balance = Float.MAX_VALUE;
-        } else {
-            this.balance = balance;
-        }
+        this.balance = Math.min(balance, Money.MAX_AMOUNT);
+        version++;
     }
 
     public void setExchangeRate(float exchangeRate) {
@@ -92,6 +182,7 @@ public class Bank {
             throw new IllegalArgumentException("Exchange Rate cannot be negative");
         }
         this.exchangeRate = exchangeRate;
+        version++;
     }
 
 
@@ -100,11 +191,11 @@ public class Bank {
     @Override
     public String toString() {
         return String.format(
-                "Bank Account %d in %s with balance %s%.2f and exchangeRate %.6f",
+                "Bank Account %d in %s with balance %s%s and exchangeRate %.6f",
                 id,
                 currency,
                 currency.getSymbol(),
-                balance,
+                Money.format(balance),
                 exchangeRate
         );
     }
@@ -4,6 +4,7 @@ import bank.Bank;
 import ui.FinanceException;
 import user.User;
 import utils.Currency;
+import utils.Money;
 
 import java.util.ArrayList;
 
@@ -11,7 +12,7 @@ import static ui.OutputManager.printMessage;
 
 public class AddBankCommand implements Command {
     private static final int REQUIRED_ARGUMENTS_LENGTH = 2;
-    private static final float MIN_VALUE = 0f;
+    private static final long MIN_VALUE = 0;
     private final ArrayList<String> arguments;
 
     public AddBankCommand(ArrayList<String> arguments) {
@@ -28,17 +29,17 @@ public class AddBankCommand implements Command {
         }
 
         // Parse balance
-        float balance;
+        long balance;
         try {
-            balance = Float.parseFloat(arguments.get(0));
+            balance = Money.parse(arguments.get(0));
             if (balance < MIN_VALUE) {
                 throw new FinanceException("Balance cannot be negative. You entered: " + arguments.get(0));
             }
-            if (balance > Float.MAX_VALUE){
-                throw new FinanceException("Max possible value of account " + Float.MAX_VALUE +
-                        " exceeded, you entered " + balance + ". Try with a lower number.");
-            }
         } catch (NumberFormatException e) {
+            if (arguments.get(0).matches("\\d+(\\.\\d+)?")) {
+                throw new FinanceException("Max possible value of account " + Money.format(Money.MAX_AMOUNT)
+                        + " exceeded, you entered " + arguments.get(0) + ". Try with a lower number.");
+            }
             throw new FinanceException("Balance must be a valid number. You entered: " + arguments.get(0));
         }
 
@@ -5,6 +5,7 @@ import ui.FinanceException;
 import user.User;
 import utils.Budget;
 import utils.Category;
+import utils.Money;
 import utils.Month;
 
 import java.util.ArrayList;
@@ -13,7 +14,7 @@ import static ui.OutputManager.printMessage;
 
 public class AddBudgetCommand implements Command {
     private static final int REQUIRED_ARGUMENTS_LENGTH = 3;
-    private static final float MIN_VALUE = 0f;
+    private static final long MIN_VALUE = 0;
     private final ArrayList<String> arguments;
 
     public AddBudgetCommand(ArrayList<String> arguments) {
@@ -43,7 +44,7 @@ public class AddBudgetCommand implements Command {
 
 
             String amountString = arguments.get(1);
-            float amount = Float.parseFloat(amountString);
+            long amount = Money.parse(amountString);
 
             if (amount < MIN_VALUE) {
                 throw new FinanceException("Amount cannot be negative: " + amountString);
@@ -60,9 +61,9 @@ public class AddBudgetCommand implements Command {
             Budget budget = new Budget(category, amount, currBank.getCurrency(), month, currBank);
             User.getCurrBank().addBudgetToBank(budget);
             ArrayList<Budget> allBudgets = User.getAllBudgets();
-            User.getStorage().saveBudgets(User.getAllBudgets());
-            User.getStorage().saveBanks(User.getBanks());
-            printMessage("Added budget of " + amount + " " + currency.getSymbol() +
+            User.getStorage().appendBudget(budget);
+            User.getStorage().appendBank(currBank);
+            printMessage("Added budget of " + Money.toPlainString(amount) + " " + currency.getSymbol() +
                     " for " + category + " in " + month);
 
         } catch (NumberFormatException e) {
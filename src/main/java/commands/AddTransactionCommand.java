@@ -1,12 +1,14 @@
 package commands;
 
 import bank.Bank;
+import transaction.TagDictionary;
 import transaction.Transaction;
 import ui.FinanceException;
 import user.User;
 import utils.Category;
 import utils.Currency;
 import utils.Date;
+import utils.Money;
 
 import java.util.ArrayList;
 
@@ -18,7 +20,7 @@ public class AddTransactionCommand implements Command {
         + "e.g. 'add food 4.50 10/4' or 'add 'groceries' food 4.50 10/4'";
     private static final int MIN_ALLOWED_ARGUMENTS_LENGTH = 3;
     private static final int MAX_ALLOWED_ARGUMENTS_LENGTH = 4;
-    private static final float MIN_VALUE = 0f;
+    private static final long MIN_VALUE = 0;
     private final ArrayList<String> arguments;
 
     public AddTransactionCommand(ArrayList<String> arguments) {
@@ -52,7 +54,7 @@ public class AddTransactionCommand implements Command {
         }
 
         try {
-            float value = Float.parseFloat(valueString);
+            long value = Money.parse(valueString);
 
             Category category = Category.toCategory(categoryString);
             if (category == null) {
@@ -75,18 +77,18 @@ public class AddTransactionCommand implements Command {
 
             if (value > currBank.getBalance()) {
                 throw new FinanceException("Insufficient funds. Your balance is "
-                        + currency.getSymbol() + currBank.getBalance());
+                        + currency.getSymbol() + Money.toPlainString(currBank.getBalance()));
             }
 
-            Transaction trans = new Transaction(value, category, date, currency, tag);
+            Transaction trans = new Transaction(value, category, date, currency, TagDictionary.intern(tag));
             currBank.addTransactionToBank(trans);
             currBank.setBalance(currBank.getBalance() - value);
-            User.getStorage().saveTransactions(User.getBanks());
-            User.getStorage().saveBanks(User.getBanks()); // save updated balance
+            User.getStorage().appendTransaction(currBank, trans);
+            User.getStorage().appendBank(currBank); // save updated balance
 
 
             String output = "Added Transaction: " + trans + "\n" +
-                    "Updated bank balance: " + currency.getSymbol() + String.format("%.2f", currBank.getBalance());
+                    "Updated bank balance: " + currency.getSymbol() + Money.format(currBank.getBalance());
             printMessage(output);
 
         } catch (FinanceException e) {
@@ -1,9 +1,11 @@
 package commands;
 
+import bank.Bank;
 import logger.AppLogger;
 import transaction.Transaction;
 import ui.FinanceException;
 import user.User;
+import utils.Money;
 
 import java.util.ArrayList;
 import java.util.logging.Logger;
@@ -47,18 +49,20 @@ public class DeleteTransactionCommand implements Command {
                 throw new FinanceException(" Sorry! Wrong format. Try delete <transaction_index>");
             }
             int index = Integer.parseInt(arguments.get(0));
-            Transaction deleted = User.getCurrBank().deleteTransactionFromBank(index - 1);
+            Bank currBank = User.getCurrBank();
+            Transaction deleted = currBank.deleteTransactionFromBank(index - 1);
 
             String output = "Deleted Transaction: " + deleted + "\n" +
                     "Updated bank balance: "
                     + User.getCurrBank().getCurrency().getSymbol()
-                    + String.format("%.2f", User.getCurrBank().getBalance());
+                    + Money.format(User.getCurrBank().getBalance());
 
             printMessage(output);
             logger.info("Transaction deleted successfully: " + deleted);
 
-            User.getStorage().saveTransactions(User.getBanks());
-            logger.info("Transactions saved to storage successfully.");
+            User.getStorage().appendTransactionDeletion(currBank, index - 1, deleted);
+            User.getStorage().appendBank(currBank); // save restored balance
+            logger.info("Transaction deletion saved to storage successfully.");
 
         } catch (NumberFormatException e) {
             throw new FinanceException("Invalid input. Please enter a numeric transaction index.");
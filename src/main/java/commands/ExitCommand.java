@@ -1,6 +1,7 @@
 package commands;
 
 import ui.FinanceException;
+import user.User;
 
 import static ui.OutputManager.printMessage;
 
@@ -8,6 +9,7 @@ public class ExitCommand implements Command {
 
     @Override
     public String execute() throws FinanceException {
+        User.getStorage().close();
         printMessage("Exiting program. Goodbye!");
         return null;
     }
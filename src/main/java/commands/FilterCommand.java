@@ -2,10 +2,13 @@ package commands;
 
 import logger.AppLogger;
 import transaction.Transaction;
+import transaction.TransactionColumns;
 import ui.FinanceException;
 import user.User;
 import utils.Category;
 import utils.Date;
+import utils.Money;
+import utils.Month;
 
 import java.util.ArrayList;
 import java.util.logging.Logger;
@@ -17,9 +20,11 @@ import static ui.OutputManager.printMessage;
  * Represents a command that filters transactions based on a specified filter type.
  * Supported filter types are:
  * <ul>
- *     <li><b>category</b> – Filters transactions by their category (e.g. FOOD, TRANSPORT).</li>
+ *     <li><b>category</b> – Filters transactions by their category (e.g. FOOD, TRANSPORT), optionally
+ *     within a month.</li>
  *     <li><b>cost</b> – Filters transactions within a specified cost range.</li>
  *     <li><b>date</b> – Filters transactions within a date range.</li>
+ *     <li><b>top</b> – Lists the most expensive transactions.</li>
  * </ul>
  */
 public class FilterCommand implements Command {
@@ -39,47 +44,64 @@ public class FilterCommand implements Command {
 
     /**
      * Executes the filter command based on the user's input.
-     * It retrieves all transactions from the current bank and applies
-     * filtering according to the specified filter type:
+     * It selects the matching transactions of the current bank from {@link storage.Storage}:
      * <ul>
-     *     <li><b>category</b> – Matches transactions by {@link utils.Category}.</li>
-     *     <li><b>cost</b> – Matches transactions with values between the given minimum and maximum amounts.</li>
-     *     <li><b>date</b> – Matches transactions that occur within the given start and end dates.</li>
+     *     <li><b>category</b> – Selects the transactions of a {@link utils.Category}, optionally in a month
+     *     of one or every year, through {@link storage.Storage#selectTransactionsOf}.</li>
+     *     <li><b>cost</b> – Selects the transactions with values between the given minimum and maximum
+     *     amounts, in order of value, through {@link storage.Storage#selectTransactionsCosting}.</li>
+     *     <li><b>date</b> – Selects the transactions that occur within the given start and end dates,
+     *     in date order, through {@link storage.Storage#selectTransactionsBetween}.</li>
+     *     <li><b>top</b> – Selects the given number of transactions with the largest values, largest first,
+     *     through {@link storage.Storage#selectLargestTransactions}.</li>
      * </ul>
      * The filtered transactions are then displayed using {@link ui.OutputManager#listFilter(String, ArrayList)}.
      *
      * @return Always returns {@code null}.
      * @throws FinanceException If the arguments are missing, invalid,
-     *                          or if parsing the cost/date/category fails.
+     *                          or if parsing the cost/date/category/count fails.
      */
     @Override
     public String execute() throws FinanceException {
         logger.info("Executing FilterCommand...");
         if (arguments.isEmpty()) {
-            throw new FinanceException("Sorry! Wrong format. Please specify a filter type: category, cost, or date.");
+            throw new FinanceException(
+                    "Sorry! Wrong format. Please specify a filter type: category, cost, date, or top.");
         }
 
         String filterType = arguments.get(0).toLowerCase();
-        ArrayList<Transaction> allTrans = User.getCurrBank().getTransactions();
-        ArrayList<Transaction> filteredTrans = new ArrayList<>();
-        logger.info("Total transactions retrieved: " + allTrans.size());
-
         switch (filterType) {
         case "category":
             if (arguments.size() < MIN_ARGUMENTS_LENGTH) {
-                throw new FinanceException("Usage: filter category <CATEGORY>");
+                throw new FinanceException("Usage: filter category <CATEGORY> [MONTH [YEAR]]");
             }
+            Category category;
             try {
-                Category category = Category.valueOf(arguments.get(1).toUpperCase());
-                for (Transaction t : allTrans) {
-                    if (t.getCategory() == category) {
-                        filteredTrans.add(t);
-                    }
-                }
+                category = Category.valueOf(arguments.get(1).toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new FinanceException("Invalid category. Please use a valid one (e.g. FOOD, TRANSPORT).");
             }
-            break;
+            Month month = null;
+            int year = TransactionColumns.ANY_YEAR;
+            if (arguments.size() > MIN_ARGUMENTS_LENGTH) {
+                month = Month.fromString(arguments.get(2));
+                if (month == null) {
+                    throw new FinanceException("Invalid month. Please use e.g. MAR or March.");
+                }
+            }
+            if (arguments.size() > MIN_ARGUMENTS_LENGTH + 1) {
+                try {
+                    year = Integer.parseInt(arguments.get(3));
+                } catch (NumberFormatException e) {
+                    throw new FinanceException("Invalid year. Please use a 4-digit year (e.g. 2025).");
+                }
+                if (year <= 0) {
+                    throw new FinanceException("Invalid year. Please use a 4-digit year (e.g. 2025).");
+                }
+            }
+            printFiltered(filterType, User.getStorage().selectTransactionsOf(User.getCurrBank(), category, month,
+                    year));
+            return null;
 
         case "cost":
             if (arguments.size() < 3) {
@@ -89,11 +111,11 @@ public class FilterCommand implements Command {
             String minStr = arguments.get(1);
             String maxStr = arguments.get(2);
 
-            float min;
-            float max;
+            long min;
+            long max;
             try {
-                min = Float.parseFloat(minStr);
-                max = Float.parseFloat(maxStr);
+                min = Money.parse(minStr);
+                max = Money.parse(maxStr);
             }  catch (NumberFormatException e) {
                 throw new FinanceException("Invalid min/max values.");
             }
@@ -111,43 +133,53 @@ public class FilterCommand implements Command {
                 throw new FinanceException("MAX value cannot be less than MIN value.");
             }
 
-            for (Transaction t : allTrans) {
-                if (t.getValue() >= min && t.getValue() <= max) {
-                    filteredTrans.add(t);
-                }
+            printFiltered(filterType, User.getStorage().selectTransactionsCosting(User.getCurrBank(), min, max));
+            return null;
+
+        case "top":
+            if (arguments.size() < MIN_ARGUMENTS_LENGTH) {
+                throw new FinanceException("Usage: filter top <N>");
             }
-            break;
+            int count;
+            try {
+                count = Integer.parseInt(arguments.get(1));
+            } catch (NumberFormatException e) {
+                throw new FinanceException("N must be a whole number.");
+            }
+            if (count <= 0) {
+                throw new FinanceException("N must be greater than 0.");
+            }
+            printFiltered(filterType, User.getStorage().selectLargestTransactions(User.getCurrBank(), count));
+            return null;
 
         case "date":
             if (arguments.size() < 3) {
-                throw new FinanceException("Usage: filter date <start(DD/MM)> <end(DD/MM)>");
+                throw new FinanceException("Usage: filter date <start(DD/MM[/YYYY])> <end(DD/MM[/YYYY])>");
             }
+            Date start;
+            Date end;
             try {
-                Date start = Date.toDate(arguments.get(1));
-                Date end = Date.toDate(arguments.get(2));
-
-                if (end.isBefore(start)) {
-                    throw new FinanceException("Start date cannot be after end date.");
-                }
-
-                for (Transaction t : allTrans) {
-                    if (!t.getDate().isBefore(start) && !t.getDate().isAfter(end)) {
-                        filteredTrans.add(t);
-                    }
-                }
+                start = Date.toDate(arguments.get(1));
+                end = Date.toDate(arguments.get(2));
             } catch (IllegalArgumentException e) {
                 throw new FinanceException("Error filtering by date: " + e.getMessage());
             }
-            break;
+            if (end.isBefore(start)) {
+                throw new FinanceException("Start date cannot be after end date.");
+            }
+            printFiltered(filterType, User.getStorage().selectTransactionsBetween(User.getCurrBank(), start, end));
+            return null;
 
         default:
             logger.warning("Unknown filter type: " + filterType);
-            throw new FinanceException("Unknown filter type. Valid options: category, cost, date.");
+            throw new FinanceException("Unknown filter type. Valid options: category, cost, date, top.");
         }
+    }
+
+    private static void printFiltered(String filterType, ArrayList<Transaction> filteredTrans) {
+        logger.info("Transactions matching filter: " + filteredTrans.size());
         String result = listFilter(filterType, filteredTrans);
         printMessage(result);
         logger.info("FilterCommand execution completed.");
-
-        return null;
     }
 }
@@ -23,7 +23,7 @@ public class HelpCommand implements  Command {
                    → Add a new bank account with a specific currency and initial balance.
                 listBanks 
                    → View all your registered bank accounts.
-                add <tag(optional)> <category> <amount> <date(DD/MM)>
+                add <tag(optional)> <category> <amount> <date(DD/MM[/YYYY])>
                    → Add a new transaction to the current bank.
                 list 
                    → List recent transactions of the current bank.
@@ -33,18 +33,24 @@ public class HelpCommand implements  Command {
                    → Add a budget for a specific category.
                 filter cost <MIN> <MAX>
                     → Filter transactions within a cost range.
-                filter category <CATEGORY>
-                    → Filter transactions by category.
-                filter date <START_DATE(DD/MM)> <END_DATE(DD/MM)>
+                filter category <CATEGORY> [MONTH [YEAR]]
+                    → Filter transactions by category, optionally within a month.
+                filter date <START_DATE(DD/MM[/YYYY])> <END_DATE(DD/MM[/YYYY])>
                     → Filter transactions within a date range.
+                filter top <N>
+                    → List the N most expensive transactions.
                 search <keyword>
                     → Search for transactions containing a keyword in the description.
                 summary <month>
                     → Show summary of spending and remaining budgets.
+                summary <YEAR> | <MONTH[-MONTH] [YEAR]> | last <N> months
+                    → Show spending and budgets by category over a range of months.
                 deposit <amount>
                     → Deposit money into your current bank account.
                 withdraw <amount>
                     → Withdraw money from your current bank account.
+                sync
+                    → Wait until all changes are saved to disk.
                 exit
                     → Exit the application.
                 =================================================
@@ -5,6 +5,7 @@ import transaction.Transaction;
 import ui.FinanceException;
 import ui.OutputManager;
 import user.User;
+import utils.Money;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -47,8 +48,8 @@ public class ListRecentTransactionsCommand implements Command{
         for (int i = start; i < size; i++) {
             Transaction t = transactionsToDisplay.get(i);
             strb.append("\n  [").append(i + 1).append("] ") // 1-based index
-                    .append(t.getCurrency().name()).append(t.getCurrency().getSymbol())
-                    .append(t.getValue()).append(" spent on ")
+                    .append(t.getCurrency().name()).append(t.getCurrency().getSymbol());
+            Money.append(strb, t.getValue()).append(" spent on ")
                     .append(t.getTag())
                     .append("(")
                     .append(t.getCategory().name())
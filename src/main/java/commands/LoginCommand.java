@@ -3,6 +3,7 @@ package commands;
 import bank.Bank;
 import ui.FinanceException;
 import user.User;
+import utils.Money;
 
 import java.util.ArrayList;
 
@@ -45,10 +46,10 @@ public class LoginCommand implements Command {
         User.setIsLoggedIn(true);
 
         String message = String.format(
-                "Successfully logged into bank %d | Current balance: %s%.2f",
+                "Successfully logged into bank %d | Current balance: %s%s",
                 currBank.getId(),
                 currBank.getCurrency().getSymbol(),
-                currBank.getBalance()
+                Money.format(currBank.getBalance())
         );
         printMessage(message);
 
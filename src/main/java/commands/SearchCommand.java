@@ -35,8 +35,8 @@ public class SearchCommand implements Command {
     /**
      * Executes the search command.
      * <p>
-     * It checks that exactly one keyword argument is provided, retrieves all transactions
-     * from the current bank, searches for transactions containing the keyword, and
+     * It checks that exactly one keyword argument is provided, looks the keyword up through
+     * {@link storage.Storage#selectTransactionsContaining(bank.Bank, String)}, and
      * prints the filtered list using {@link ui.OutputManager#listSearch(String, ArrayList)}.
      *
      * @return Always returns {@code null}.
@@ -54,7 +54,8 @@ public class SearchCommand implements Command {
 
         String keyword = arguments.get(0).toLowerCase();
         logger.info("Searching transactions for keyword: \"" + keyword + "\"");
-        ArrayList<Transaction> transactions = User.getCurrBank().getTransactions();
+        ArrayList<Transaction> transactions = User.getStorage().selectTransactionsContaining(User.getCurrBank(),
+                keyword);
 
         try {
             String result = listSearch(keyword, transactions);
@@ -1,12 +1,16 @@
 package commands;
 
+import bank.Bank;
+import summary.MonthRange;
 import summary.Summary;
 import ui.FinanceException;
 import user.User;
 import utils.Currency;
+import utils.Date;
 import utils.Month;
 import logger.AppLogger;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -23,19 +27,26 @@ import java.util.logging.Logger;
  *   <li>If logged out without currency → show summary for all banks converted to SGD.</li>
  * </ul>
  * </p>
+ * <p>
+ * Instead of a single month, a year, a range of months of a year, or the last few months up to the
+ * current one can be given. These are summarised by category only, without listing transactions.
+ * </p>
  *
  * Usage examples:
  * <pre>
  * summary JAN
  * summary FEB USD
+ * summary JAN-JUN 2026
+ * summary 2025 USD
+ * summary last 12 months
  * </pre>
  */
 
 //@@author kevinlokewy
 public class SummaryCommand implements Command {
-    public static final int MAX_LENGTH_FOR_LOGGED_IN = 1;
-    public static final int MAX_LENGTH_FOR_LOGGED_OUT = 2;
-    public static final int LENGTH_FOR_MONTH_AND_CURRENCY = 2;
+    public static final int LENGTH_FOR_MONTHS_AND_YEAR = 2;
+    public static final int LENGTH_FOR_LAST_MONTHS = 3;
+    public static final int MAX_MONTHS = 1200;
     private static final Logger logger = AppLogger.getLogger();
     private final ArrayList<String> arguments;
 
@@ -68,27 +79,30 @@ public class SummaryCommand implements Command {
                 throw new FinanceException("Please provide a month. Usage: summary <month> [currency]");
             }
 
-            String monthInput = parseMonth();
+            int periodLength = getPeriodLength();
+            MonthRange range = isSingleMonth(periodLength) ? null : parseRange(periodLength);
+            String monthInput = range == null ? parseMonth() : null;
             Summary summary = new Summary(User.getStorage());
 
             if (User.isLoggedIn() && User.getCurrBank() != null) {
-                if (arguments.size() > MAX_LENGTH_FOR_LOGGED_IN) {
-                    throw new FinanceException("Logged-in users: summary only accepts a month. Example: summary JAN");
+                if (arguments.size() > periodLength) {
+                    throw new FinanceException("Logged-in users: summary only accepts a month or range of months. "
+                            + "Example: summary JAN");
                 }
                 // Logged in → show only this bank
-                showMonthlySummaryForBank(summary, monthInput);
+                showMonthlySummaryForBank(summary, monthInput, range);
             } else {
-                if (arguments.size() > MAX_LENGTH_FOR_LOGGED_OUT) {
+                if (arguments.size() > periodLength + 1) {
                     throw new FinanceException("Logged-out users: summary accepts at most month and " +
                             "optional currency. Example: summary JAN USD");
                 }
-                if (arguments.size() == LENGTH_FOR_MONTH_AND_CURRENCY) {
+                if (arguments.size() == periodLength + 1) {
                     // Logged out WITH currency specified → show only that currency
-                    Currency currency = parseCurrency();
-                    showMonthlySummaryForCurrency(summary, monthInput, currency);
+                    Currency currency = parseCurrency(periodLength);
+                    showMonthlySummaryForCurrency(summary, monthInput, range, currency);
                 } else {
                     // Logged out WITHOUT currency → show ALL banks converted to SGD
-                    showMonthlySummaryForAllTransactions(summary, monthInput);
+                    showMonthlySummaryForAllTransactions(summary, monthInput, range);
                 }
             }
 
@@ -106,48 +120,160 @@ public class SummaryCommand implements Command {
      * Displays a combined summary for all banks, converting all values to SGD.
      *
      * @param summary     the {@link Summary} instance handling output
-     * @param monthInput  the month to generate summary for
+     * @param monthInput  the month to generate summary for, if no range is given
+     * @param range       the range of months to generate summary for, or {@code null}
      */
 
     //@@author kevinlokey
-    private static void showMonthlySummaryForAllTransactions(Summary summary, String monthInput) {
-        summary.showMonthlySummary(monthInput, null, Currency.SGD, true);
+    private static void showMonthlySummaryForAllTransactions(Summary summary, String monthInput, MonthRange range) {
+        showSummary(summary, monthInput, range, null, Currency.SGD, true);
     }
 
     /**
      * Displays a summary for all banks with transactions in the specified currency.
      *
      * @param summary     the {@link Summary} instance handling output
-     * @param monthInput  the target month
+     * @param monthInput  the target month, if no range is given
+     * @param range       the target range of months, or {@code null}
      * @param currency    the currency to display
      */
     //@@author kevinlokey
-    private static void showMonthlySummaryForCurrency(Summary summary, String monthInput, Currency currency) {
-        summary.showMonthlySummary(monthInput, null, currency, false);
+    private static void showMonthlySummaryForCurrency(Summary summary, String monthInput, MonthRange range,
+                                                      Currency currency) {
+        showSummary(summary, monthInput, range, null, currency, false);
     }
 
     /**
      * Displays a summary for the logged-in user's current bank only.
      *
      * @param summary     the {@link Summary} instance handling output
-     * @param monthInput  the target month
+     * @param monthInput  the target month, if no range is given
+     * @param range       the target range of months, or {@code null}
      */
     //@@author kevinlokey
-    private static void showMonthlySummaryForBank(Summary summary, String monthInput) {
-        summary.showMonthlySummary(monthInput, User.getCurrBank(), User.getCurrBank().getCurrency(), false);
+    private static void showMonthlySummaryForBank(Summary summary, String monthInput, MonthRange range) {
+        showSummary(summary, monthInput, range, User.getCurrBank(), User.getCurrBank().getCurrency(), false);
+    }
+
+    /**
+     * Displays a summary of a range of months if one is given, or otherwise of a month.
+     */
+    private static void showSummary(Summary summary, String monthInput, MonthRange range, Bank bank,
+                                    Currency currency, boolean isConvertAll) {
+        if (range != null) {
+            summary.showRangeSummary(range, bank, currency, isConvertAll);
+        } else {
+            summary.showMonthlySummary(monthInput, bank, currency, isConvertAll);
+        }
+    }
+
+    /**
+     * Returns the number of arguments that give the month or range of months: three for
+     * {@code last N months}, two for a month or range of months followed by a year, and otherwise one.
+     */
+    private int getPeriodLength() {
+        if (arguments.get(0).equalsIgnoreCase("last")) {
+            return LENGTH_FOR_LAST_MONTHS;
+        }
+        if (!isYear(arguments.get(0)) && arguments.size() > 1 && isYear(arguments.get(1))) {
+            return LENGTH_FOR_MONTHS_AND_YEAR;
+        }
+        return 1;
+    }
+
+    /**
+     * Returns whether the arguments give a single month without a year, which is summarised with its
+     * transactions across every year.
+     */
+    private boolean isSingleMonth(int periodLength) {
+        String first = arguments.get(0);
+        return periodLength == 1 && !isYear(first) && !first.contains("-");
+    }
+
+    private static boolean isYear(String argument) {
+        return !argument.isEmpty() && argument.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Parses a range of months: a year, a month or range of months with an optional year such as
+     * {@code JAN-JUN 2026}, or {@code last N months}. Without a year, the current year is used.
+     *
+     * @param periodLength the number of arguments giving the range
+     * @return the range of months
+     * @throws FinanceException if the months, year or number of months are invalid
+     */
+    private MonthRange parseRange(int periodLength) throws FinanceException {
+        String first = arguments.get(0);
+        LocalDate today = LocalDate.now();
+        if (first.equalsIgnoreCase("last")) {
+            return parseLastMonths(today);
+        }
+        if (isYear(first)) {
+            return MonthRange.ofYear(parseYear(first));
+        }
+        int year = periodLength == LENGTH_FOR_MONTHS_AND_YEAR ? parseYear(arguments.get(1)) : today.getYear();
+        String[] months = first.split("-", -1);
+        if (months.length > 2) {
+            throw new FinanceException("Invalid range of months. Please try again (e.g., summary JAN-JUN 2026).");
+        }
+        Month firstMonth = parseMonthName(months[0]);
+        Month lastMonth = parseMonthName(months[months.length - 1]);
+        if (lastMonth.ordinal() < firstMonth.ordinal()) {
+            throw new FinanceException("The first month of a range cannot be after the last month.");
+        }
+        return MonthRange.of(firstMonth, lastMonth, year);
+    }
+
+    private MonthRange parseLastMonths(LocalDate today) throws FinanceException {
+        if (arguments.size() < LENGTH_FOR_LAST_MONTHS
+                || !arguments.get(2).toLowerCase().matches("months?")) {
+            throw new FinanceException("Please give the number of months. Example: summary last 12 months");
+        }
+        int count;
+        try {
+            count = Integer.parseInt(arguments.get(1));
+        } catch (NumberFormatException e) {
+            throw new FinanceException("The number of months must be a whole number from 1 to " + MAX_MONTHS + ".");
+        }
+        if (count < 1 || count > MAX_MONTHS) {
+            throw new FinanceException("The number of months must be a whole number from 1 to " + MAX_MONTHS + ".");
+        }
+        return MonthRange.lastMonths(count, Month.fromNumber(today.getMonthValue()), today.getYear());
+    }
+
+    private static Month parseMonthName(String input) throws FinanceException {
+        Month month = Month.fromString(input);
+        if (month == null) {
+            throw new FinanceException("Invalid month name. Please try again (e.g., summary JAN-JUN 2026).");
+        }
+        return month;
+    }
+
+    private static int parseYear(String input) throws FinanceException {
+        int year;
+        try {
+            year = Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            throw new FinanceException("Invalid year. Please use a 4-digit year (e.g. 2025).");
+        }
+        if (year < Date.MIN_YEAR || year > Date.MAX_YEAR) {
+            throw new FinanceException("Invalid year. Please use a 4-digit year (e.g. 2025).");
+        }
+        return year;
     }
 
     /**
      * Parses the currency argument from the command input.
      *
+     * @param position the position of the currency among the arguments
      * @return a valid {@link Currency} enum value
      * @throws FinanceException if the provided currency code is invalid
      */
     //@@author kevinlokey
-    private Currency parseCurrency() throws FinanceException {
+    private Currency parseCurrency(int position) throws FinanceException {
         Currency currency;
         try {
-            currency = Currency.valueOf(arguments.get(1).toUpperCase());
+            currency = Currency.valueOf(arguments.get(position).toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new FinanceException("Invalid currency. " +
                     "Please provide a valid currency code: MYR, VND, JPY, IDR, SGD, THB.");
@@ -0,0 +1,33 @@
+package commands;
+
+import logger.AppLogger;
+import storage.PersistenceWriter;
+import ui.FinanceException;
+import user.User;
+
+import java.util.logging.Logger;
+
+import static ui.OutputManager.printMessage;
+
+/**
+ * Waits until every change made so far has been written to disk, then shows how well
+ * the background storage writer keeps up.
+ */
+public class SyncCommand implements Command {
+    private static final Logger logger = AppLogger.getLogger();
+
+    @Override
+    public String execute() throws FinanceException {
+        logger.info("Executing SyncCommand...");
+        User.getStorage().flush();
+
+        PersistenceWriter.Stats stats = User.getStorage().getWriterStats();
+        printMessage("All changes have been saved.\n"
+                + "Changes written: " + stats.written() + " (" + stats.coalesced()
+                + " merged into later changes) in " + stats.batches() + " batches\n"
+                + "Most changes waiting at once: " + stats.highWaterMark() + " of "
+                + PersistenceWriter.QUEUE_CAPACITY + "\n"
+                + "Commands delayed by a full queue: " + stats.stalls() + " (" + stats.stallMillis() + " ms)");
+        return null;
+    }
+}
@@ -0,0 +1,315 @@
+package storage;
+
+import transaction.TagDictionary;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Money;
+import utils.Month;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes transactions in a compact, fixed-width binary format.
+ * <p>
+ * Every record has the same size, and tags are stored once in a string table and
+ * referred to by index, so loading decodes records straight out of a buffer without
+ * splitting or parsing any text.
+ * </p>
+ *
+ * <p>File layout (big-endian):</p>
+ * <ul>
+ *     <li><b>Header:</b> magic (int), version (int), generation (long), tagCount (int), recordCount (int)</li>
+ *     <li><b>String table:</b> tagCount entries of length (short) followed by UTF-8 bytes</li>
+ *     <li><b>Header checksum:</b> CRC32C (int) of the header and string table</li>
+ *     <li><b>Records:</b> bankId (int), category ordinal (byte), currency ordinal (byte),
+ *     date as yyyymmdd (int), value in minor units (long), tag index (int), in blocks of
+ *     {@link #BLOCK_RECORDS} records that are each followed by their CRC32C (int)</li>
+ * </ul>
+ * <p>
+ * Reading verifies every checksum in one pass over the file. If a block is damaged or missing,
+ * the records of the blocks before it are still read. Files of version 1 have no checksums, and
+ * files of versions 1 and 2 store values as floats, which are rounded to minor units when read.
+ * </p>
+ */
+public class BinaryTransactionFile {
+    public static final String EXTENSION = ".bin";
+    public static final int MAGIC = 0x54535458; // "TSTX"
+    public static final int VERSION = 3;
+    public static final int FLOAT_VERSION = 2;
+    public static final int UNCHECKED_VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int RECORD_SIZE = 22;
+    static final int FLOAT_RECORD_SIZE = 18;
+    public static final int BLOCK_RECORDS = 1024;
+    static final int CHECKSUM_SIZE = Integer.BYTES;
+    static final int NO_TAG = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    static final Category[] CATEGORIES = Category.values();
+    static final Currency[] CURRENCIES = Currency.values();
+
+    private BinaryTransactionFile() {
+    }
+
+    /**
+     * Receives the fields of each decoded transaction record.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(int bankId, String tag, Category category, long value,
+                   int day, Month month, int year, Currency currency);
+    }
+
+    /**
+     * Collects transaction records in memory and writes them out as a binary file.
+     */
+    public static final class Writer {
+        private final Map<String, Integer> tagIds = new HashMap<>();
+        private final List<String> tags = new ArrayList<>();
+        private ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * INITIAL_CAPACITY);
+        private int recordCount;
+
+        /**
+         * Adds a single transaction record.
+         */
+        public void add(int bankId, String tag, Category category, long value,
+                        int day, Month month, int year, Currency currency) {
+            if (records.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(records.capacity() * 2);
+                records.flip();
+                grown.put(records);
+                records = grown;
+            }
+            records.putInt(bankId)
+                    .put((byte) category.ordinal())
+                    .put((byte) currency.ordinal())
+                    .putInt(Date.pack(day, month, year))
+                    .putLong(value)
+                    .putInt(tagId(tag));
+            recordCount++;
+        }
+
+        public int getRecordCount() {
+            return recordCount;
+        }
+
+        private int tagId(String tag) {
+            if (tag == null) {
+                return NO_TAG;
+            }
+            return tagIds.computeIfAbsent(tag, t -> {
+                tags.add(t);
+                return tags.size() - 1;
+            });
+        }
+
+        /**
+         * Writes the collected records to a temporary file, forces it to disk and renames it over the target.
+         *
+         * @param path       The binary transaction file.
+         * @param generation The newest journal generation contained in these records.
+         * @throws IOException If the file could not be written.
+         */
+        public void writeTo(Path path, long generation) throws IOException {
+            List<byte[]> encodedTags = new ArrayList<>(tags.size());
+            int tableSize = 0;
+            for (String tag : tags) {
+                byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+                encodedTags.add(bytes);
+                tableSize += Short.BYTES + bytes.length;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + tableSize + CHECKSUM_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(generation).putInt(tags.size()).putInt(recordCount);
+            for (byte[] bytes : encodedTags) {
+                header.putShort((short) bytes.length).put(bytes);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(header.array(), 0, header.position());
+            header.putInt((int) crc.getValue());
+            header.flip();
+
+            int blockCount = (recordCount + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            ByteBuffer body = ByteBuffer.allocate(recordCount * RECORD_SIZE + blockCount * CHECKSUM_SIZE);
+            for (int start = 0; start < recordCount; start += BLOCK_RECORDS) {
+                int length = Math.min(BLOCK_RECORDS, recordCount - start) * RECORD_SIZE;
+                crc.reset();
+                crc.update(records.array(), start * RECORD_SIZE, length);
+                body.put(records.array(), start * RECORD_SIZE, length).putInt((int) crc.getValue());
+            }
+            body.flip();
+
+            Path temp = Path.of(path + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+                channel.force(true);
+            }
+            Compactor.moveAtomically(temp, path);
+        }
+    }
+
+    /**
+     * Reads a binary transaction file and passes every record to the visitor, in file order.
+     *
+     * @param path    The binary transaction file.
+     * @param visitor Receives each record.
+     * @return The journal generation recorded in the file header.
+     * @throws IOException If the file could not be read or is not a valid transaction file.
+     */
+    public static long read(Path path, RecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        Header header = readHeader(buffer);
+        header.reportSalvage(path);
+        decodeRecords(buffer, header, visitor);
+        return header.generation();
+    }
+
+    /**
+     * Decodes every intact record in the buffer and passes it to the visitor.
+     *
+     * @param buffer  A buffer positioned at the start of a binary transaction file.
+     * @param visitor Receives each record.
+     * @return The journal generation recorded in the file header.
+     * @throws IOException If the buffer does not hold a valid transaction file.
+     */
+    static long decode(ByteBuffer buffer, RecordVisitor visitor) throws IOException {
+        Header header = readHeader(buffer);
+        decodeRecords(buffer, header, visitor);
+        return header.generation();
+    }
+
+    private static void decodeRecords(ByteBuffer buffer, Header header, RecordVisitor visitor) {
+        String[] tags = header.tags();
+        int recordsStart = buffer.position();
+        for (int i = 0; i < header.recordCount(); i++) {
+            buffer.position(header.offset(recordsStart, i));
+            int bankId = buffer.getInt();
+            Category category = CATEGORIES[buffer.get()];
+            Currency currency = CURRENCIES[buffer.get()];
+            int date = buffer.getInt();
+            long value = header.hasFloatValues() ? Money.fromFloat(buffer.getFloat()) : buffer.getLong();
+            int tagId = buffer.getInt();
+            visitor.visit(bankId, tagId == NO_TAG ? null : tags[tagId], category, value,
+                    Date.unpackDay(date), Date.unpackMonth(date), Date.unpackYear(date), currency);
+        }
+    }
+
+    /**
+     * The header and string table of a binary transaction file.
+     *
+     * @param generation        The newest journal generation contained in the file.
+     * @param tags              The string table, indexed by tag id.
+     * @param recordCount       The number of intact records following the string table.
+     * @param storedRecordCount The number of records the header says were written.
+     * @param blockRecords      The number of records between block checksums, or 0 if there are none.
+     * @param recordSize        The size of each record, which is smaller in files that store values as floats.
+     */
+    record Header(long generation, String[] tags, int recordCount, int storedRecordCount, int blockRecords,
+                  int recordSize) {
+        /**
+         * Returns the position of a record, given the position of the first record.
+         */
+        int offset(int recordsStart, int row) {
+            int checksums = blockRecords == 0 ? 0 : row / blockRecords * CHECKSUM_SIZE;
+            return recordsStart + row * recordSize + checksums;
+        }
+
+        /**
+         * Returns whether the records store their values as floats rather than in minor units.
+         */
+        boolean hasFloatValues() {
+            return recordSize == FLOAT_RECORD_SIZE;
+        }
+
+        /**
+         * Tells the user if damaged records of the given file had to be discarded.
+         */
+        void reportSalvage(Path path) {
+            if (recordCount < storedRecordCount) {
+                Checksums.reportSalvage(path, "kept " + recordCount + " of " + storedRecordCount + " records");
+            }
+        }
+    }
+
+    /**
+     * Reads the header and string table and verifies the checksums of the records, leaving the
+     * buffer positioned at the first record.
+     *
+     * @param buffer A buffer positioned at the start of a binary transaction file.
+     * @return The decoded header, counting only the records before the first damaged block.
+     * @throws IOException If the buffer does not hold a valid transaction file, or its header is damaged.
+     */
+    static Header readHeader(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary transaction file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != FLOAT_VERSION && version != UNCHECKED_VERSION) {
+            throw new IOException("Unsupported binary transaction file version " + version);
+        }
+        long generation = buffer.getLong();
+        String[] tags = new String[buffer.getInt()];
+        int recordCount = buffer.getInt();
+        for (int i = 0; i < tags.length; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            tags[i] = TagDictionary.intern(new String(bytes, StandardCharsets.UTF_8));
+        }
+        int recordSize = version == VERSION ? RECORD_SIZE : FLOAT_RECORD_SIZE;
+        if (version == UNCHECKED_VERSION) {
+            if (buffer.remaining() < (long) recordCount * recordSize) {
+                throw new IOException("Binary transaction file is truncated");
+            }
+            return new Header(generation, tags, recordCount, recordCount, 0, recordSize);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        if (buffer.remaining() < CHECKSUM_SIZE || buffer.getInt() != (int) crc.getValue()) {
+            throw new IOException("Binary transaction file header is damaged");
+        }
+        return new Header(generation, tags, countIntactRecords(buffer, recordCount, recordSize), recordCount,
+                BLOCK_RECORDS, recordSize);
+    }
+
+    /**
+     * Returns the number of records before the first block that is missing or fails its checksum.
+     */
+    private static int countIntactRecords(ByteBuffer buffer, int recordCount, int recordSize) {
+        CRC32C crc = new CRC32C();
+        int position = buffer.position();
+        int intact = 0;
+        while (intact < recordCount) {
+            int length = Math.min(BLOCK_RECORDS, recordCount - intact) * recordSize;
+            if (buffer.limit() - position < length + CHECKSUM_SIZE) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.duplicate().position(position).limit(position + length));
+            if (buffer.getInt(position + length) != (int) crc.getValue()) {
+                break;
+            }
+            intact += length / recordSize;
+            position += length + CHECKSUM_SIZE;
+        }
+        return intact;
+    }
+}
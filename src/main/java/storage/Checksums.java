@@ -0,0 +1,217 @@
+package storage;
+
+import logger.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+import static ui.OutputManager.printMessage;
+
+/**
+ * Writes and verifies the block checksums of text snapshots.
+ * <p>
+ * A checksummed snapshot starts with its {@code #gen} header followed by {@link #CHECKSUM_HEADER}.
+ * After every {@link #BLOCK_LINES} lines, and after the last line, a {@code #crc} line holds the
+ * CRC32C of the bytes written since the previous {@code #crc} line. Readers already skip lines
+ * starting with {@code #}, so the checksum lines do not change how a snapshot is parsed.
+ * </p>
+ * <p>
+ * Before a snapshot is parsed, a single pass over its bytes finds the end of the last block whose
+ * checksum matches, and only that prefix is parsed. A damaged or truncated snapshot is therefore
+ * salvaged up to its last good block instead of being parsed into garbage. Snapshots written
+ * before checksums were added have no {@link #CHECKSUM_HEADER} and are read in full.
+ * </p>
+ */
+final class Checksums {
+    static final String CHECKSUM_HEADER = "#checksum crc32c";
+    static final String BLOCK_PREFIX = "#crc ";
+    static final int BLOCK_LINES = 64;
+    private static final Logger logger = AppLogger.getLogger();
+    private static final byte[] BLOCK_PREFIX_BYTES = BLOCK_PREFIX.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHECKSUM_HEADER_BYTES = CHECKSUM_HEADER.getBytes(StandardCharsets.UTF_8);
+
+    private Checksums() {
+    }
+
+    /**
+     * Writes the lines of a text snapshot, followed by the checksum of each block.
+     */
+    static final class Writer implements Closeable {
+        private final OutputStream out;
+        private final CRC32C crc = new CRC32C();
+        private int blockLines;
+
+        /**
+         * Starts a checksummed snapshot by writing its headers.
+         *
+         * @param out        The stream to write to. It is closed by {@link #close()}.
+         * @param generation The newest journal generation contained in the snapshot.
+         * @throws IOException If the headers could not be written.
+         */
+        Writer(OutputStream out, long generation) throws IOException {
+            this.out = out;
+            writeLine(Journal.GENERATION_HEADER + generation);
+            writeLine(CHECKSUM_HEADER);
+        }
+
+        void writeLine(String line) throws IOException {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            crc.update(bytes);
+            if (++blockLines == BLOCK_LINES) {
+                endBlock();
+            }
+        }
+
+        private void endBlock() throws IOException {
+            out.write((BLOCK_PREFIX + Long.toHexString(crc.getValue()) + "\n").getBytes(StandardCharsets.UTF_8));
+            crc.reset();
+            blockLines = 0;
+        }
+
+        /**
+         * Writes the checksum of the last block and closes the stream.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (blockLines > 0) {
+                    endBlock();
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a text snapshot and opens a reader over the part of it whose checksums match.
+     * If part of the snapshot is discarded, the user is told so.
+     *
+     * @param file The snapshot file.
+     * @return A reader over the verified lines of the snapshot.
+     * @throws IOException If the file could not be read.
+     */
+    static BufferedReader newReader(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int length = validLength(file, data);
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data, 0, length),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the length of the part of a text snapshot whose checksums match, reporting any
+     * part that is discarded.
+     *
+     * @param file The snapshot file the data was read from, for reporting.
+     * @param data The contents of the snapshot.
+     * @return The number of leading bytes to parse.
+     */
+    static int validLength(Path file, byte[] data) {
+        int length = validLength(data);
+        if (length < data.length) {
+            reportSalvage(file, "kept the first " + length + " of " + data.length + " bytes");
+        }
+        return length;
+    }
+
+    /**
+     * Returns the end of the last block whose checksum matches, or the full length if the data
+     * has no checksums.
+     */
+    static int validLength(byte[] data) {
+        CRC32C crc = new CRC32C();
+        boolean isChecksummed = false;
+        int validLength = 0;
+        int lineStart = 0;
+        for (int line = 0; lineStart < data.length; line++) {
+            int lineEnd = indexOf(data, (byte) '\n', lineStart);
+            if (lineEnd < 0) {
+                break;
+            }
+            if (line == 1) {
+                isChecksummed = regionEquals(data, lineStart, lineEnd, CHECKSUM_HEADER_BYTES);
+                if (!isChecksummed) {
+                    return data.length;
+                }
+            }
+            int next = lineEnd + 1;
+            if (line > 1 && startsWith(data, lineStart, lineEnd, BLOCK_PREFIX_BYTES)) {
+                if (parseHex(data, lineStart + BLOCK_PREFIX_BYTES.length, lineEnd) != crc.getValue()) {
+                    break;
+                }
+                validLength = next;
+                crc.reset();
+            } else {
+                crc.update(data, lineStart, next - lineStart);
+            }
+            lineStart = next;
+        }
+        return isChecksummed ? validLength : data.length;
+    }
+
+    /**
+     * Tells the user that part of a damaged snapshot had to be discarded.
+     *
+     * @param file   The damaged file.
+     * @param detail What was kept.
+     */
+    static void reportSalvage(Path file, String detail) {
+        logger.log(Level.WARNING, "Checksum mismatch in " + file + ", " + detail);
+        printMessage("Warning: " + file.getFileName() + " is damaged. Recovered its data up to the last "
+                + "intact block (" + detail + ").");
+    }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(byte[] data, int start, int end, byte[] expected) {
+        return end - start == expected.length && startsWith(data, start, end, expected);
+    }
+
+    private static boolean startsWith(byte[] data, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a lowercase hexadecimal checksum, returning -1 if it is malformed.
+     */
+    private static long parseHex(byte[] data, int start, int end) {
+        if (start == end || end - start > 8) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(data[i], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,530 @@
+package storage;
+
+import logger.AppLogger;
+import utils.Month;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Folds journaled changes into new snapshots on a background thread.
+ * <p>
+ * Compaction works purely on files: it seals the active journal, reads the current snapshot
+ * and the sealed journals, applies the records and writes the result to a temporary file
+ * that is then renamed over the snapshot. Transaction snapshots are split into one segment
+ * per bank and month, and only the segments of months with journaled changes are read and
+ * rewritten, folded as text lines and re-encoded when binary. The command thread is never involved
+ * beyond the rename performed when sealing, so it never waits for a full rewrite.
+ * </p>
+ */
+public class Compactor {
+    private static final Logger logger = AppLogger.getLogger();
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final List<Store> stores;
+    private ScheduledExecutorService executor;
+    private boolean isShutDown;
+
+    /**
+     * A snapshot together with the journal of changes made on top of it.
+     * <p>
+     * Stores with a {@link SegmentedSnapshot} hold transactions, whose journal contains appends
+     * ({@code A|line}) and deletions by index within a month ({@code D|bankId|year|month|index}). Other stores hold one
+     * line per key in a single snapshot file, and their journal contains upserts ({@code U|line})
+     * where the key is made of the first {@code keyLength} fields of the line.
+     * </p>
+     */
+    public static final class Store {
+        private final String snapshotFile;
+        private final SegmentedSnapshot segments;
+        private final Journal journal;
+        private final int keyLength;
+        private final Object lock = new Object();
+
+        public Store(String snapshotFile, String journalFile, int keyLength) {
+            this(snapshotFile, journalFile, keyLength, Durability.OS_BUFFERED, 0);
+        }
+
+        public Store(String snapshotFile, String journalFile, int keyLength, Durability durability,
+                     long groupCommitMillis) {
+            this.snapshotFile = snapshotFile;
+            this.segments = null;
+            this.journal = new Journal(journalFile, durability, groupCommitMillis);
+            this.keyLength = keyLength;
+        }
+
+        public Store(SegmentedSnapshot segments, String journalFile) {
+            this(segments, journalFile, Durability.OS_BUFFERED, 0);
+        }
+
+        public Store(SegmentedSnapshot segments, String journalFile, Durability durability, long groupCommitMillis) {
+            this.snapshotFile = segments.getManifestFile().toString();
+            this.segments = segments;
+            this.journal = new Journal(journalFile, durability, groupCommitMillis);
+            this.keyLength = 0;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        /**
+         * Returns the segmented snapshot of a transaction store, or {@code null} for a keyed store.
+         */
+        public SegmentedSnapshot getSegments() {
+            return segments;
+        }
+
+        public Journal getJournal() {
+            return journal;
+        }
+
+        /**
+         * Lock held while the snapshot is being replaced, either by compaction
+         * or by a save from memory.
+         */
+        public Object getLock() {
+            return lock;
+        }
+    }
+
+    public Compactor(List<Store> stores) {
+        this.stores = stores;
+    }
+
+    /**
+     * Starts periodic background compaction, if it is not already running and has not been shut
+     * down. A compaction in progress is also finished when the JVM shuts down.
+     */
+    public synchronized void start() {
+        if (executor != null || isShutDown) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::compactAll, COMPACTION_INTERVAL_SECONDS,
+                COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "storage-compactor-shutdown"));
+    }
+
+    /**
+     * Schedules an immediate compaction of all stores without waiting for it to finish. Does nothing
+     * once compaction has been shut down.
+     */
+    public synchronized void requestCompaction() {
+        start();
+        if (!isShutDown) {
+            executor.execute(this::compactAll);
+        }
+    }
+
+    /**
+     * Stops background compaction, waiting for a compaction that is in progress or already requested
+     * to finish, so that its temporary files are renamed or removed and the sealed journals it folds
+     * are deleted. Periodic compactions that are not yet due are dropped.
+     */
+    public void shutdown() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            isShutDown = true;
+            running = executor;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.log(Level.WARNING, "Compaction did not finish before shutdown; it is redone on the next start");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cleans up after a compaction that was cut short, such as by the application being killed.
+     * Deletes the temporary files and unlisted segments it left behind, and folds any sealed journal
+     * into its snapshot on the calling thread, so it is not replayed on every later start. Called
+     * before the stores are loaded.
+     */
+    public void recover() {
+        for (Store store : stores) {
+            try {
+                if (store.segments != null) {
+                    store.segments.deleteStaleFiles();
+                } else {
+                    Files.deleteIfExists(Path.of(store.snapshotFile + TEMP_SUFFIX));
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to delete stale files of " + store.snapshotFile, e);
+            }
+            if (store.journal.hasSealedRecords()) {
+                logger.log(Level.INFO, "Folding sealed journals of {0} left by an interrupted compaction",
+                        store.snapshotFile);
+                compact(store);
+            }
+        }
+    }
+
+    private void compactAll() {
+        for (Store store : stores) {
+            try {
+                compact(store);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Compaction of " + store.snapshotFile + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Folds the journal of a single store into its snapshot.
+     *
+     * @param store The store to compact.
+     */
+    void compact(Store store) {
+        synchronized (store.lock) {
+            if (!store.journal.hasPendingRecords()) {
+                return;
+            }
+            store.journal.seal();
+            long upToGeneration = store.journal.getGeneration() - 1;
+
+            try {
+                boolean isCompacted = store.segments != null
+                        ? compactSegments(store, upToGeneration)
+                        : compactKeyed(store, upToGeneration);
+                if (!isCompacted) {
+                    store.journal.deleteSealed(upToGeneration);
+                    return;
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to compact " + store.snapshotFile, e);
+                return;
+            }
+            store.journal.deleteSealed(upToGeneration);
+            logger.log(Level.INFO, "Compacted {0} up to generation {1}",
+                    new Object[]{store.snapshotFile, upToGeneration});
+        }
+    }
+
+    /**
+     * Rewrites the segments of the months that have sealed journal records, leaving all other
+     * segments untouched. Banks still stored outside of monthly segments are rewritten whole.
+     *
+     * @return {@code false} if the snapshot already contained the sealed journals.
+     */
+    private static boolean compactSegments(Store store, long upToGeneration) throws IOException {
+        SegmentedSnapshot.Manifest manifest = store.segments.readManifest();
+        long snapshotGeneration = manifest.getGeneration();
+        if (snapshotGeneration >= upToGeneration) {
+            return false;
+        }
+
+        Map<Integer, List<String>> recordsByBank = new TreeMap<>();
+        store.journal.replaySealed(snapshotGeneration, upToGeneration, record -> {
+            String[] parts = record.split("\\|", 3);
+            try {
+                if (parts.length == 3 && (parts[0].equals("A") || parts[0].equals("D"))) {
+                    recordsByBank.computeIfAbsent(Integer.parseInt(parts[1]), k -> new ArrayList<>()).add(record);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            logger.log(Level.WARNING, "Dropping malformed journal record during compaction: " + record);
+        });
+        if (manifest.needsFullWrite()) {
+            for (String line : manifest.getInlineLines()) {
+                addBank(recordsByBank, leadingFields(line, 1));
+            }
+            for (String key : manifest.getSegments().keySet()) {
+                addBank(recordsByBank, key);
+            }
+        }
+
+        Map<String, SegmentedSnapshot.SegmentWriter> changed = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<String>> entry : recordsByBank.entrySet()) {
+            foldBank(store.segments, manifest, entry.getKey(), entry.getValue(), changed);
+        }
+        store.segments.write(manifest, upToGeneration, changed);
+        return true;
+    }
+
+    private static void addBank(Map<Integer, List<String>> recordsByBank, String keyOrBankId) {
+        if (TransactionSegments.isValid(keyOrBankId)) {
+            recordsByBank.computeIfAbsent(TransactionSegments.getBankId(keyOrBankId), k -> new ArrayList<>());
+        }
+    }
+
+    /**
+     * Applies the journal records of a single bank to the segments they touch, and adds the
+     * segments to rewrite or remove to {@code changed}.
+     * <p>
+     * Only the months touched by the records are read, unless the bank is still stored outside of
+     * monthly segments or a record deletes by its index in the whole bank. The whole bank is then
+     * read in load order and split into monthly segments.
+     * </p>
+     */
+    private static void foldBank(SegmentedSnapshot segments, SegmentedSnapshot.Manifest manifest, int bankId,
+                                 List<String> records, Map<String, SegmentedSnapshot.SegmentWriter> changed)
+            throws IOException {
+        List<String> bankKeys = new ArrayList<>();
+        for (String key : manifest.getSegments().keySet()) {
+            if (TransactionSegments.isValid(key) && TransactionSegments.getBankId(key) == bankId) {
+                bankKeys.add(key);
+            }
+        }
+        bankKeys.sort(TransactionSegments.ORDER);
+
+        Set<String> touchedKeys = new HashSet<>();
+        boolean isWholeBank = manifest.needsFullWrite()
+                || bankKeys.stream().anyMatch(key -> !TransactionSegments.isMonthly(key));
+        for (String record : records) {
+            try {
+                String key = record.startsWith("A|")
+                        ? TransactionSegments.keyOfLine(record.substring(2))
+                        : getMonthKey(record);
+                if (key == null) {
+                    isWholeBank = true;
+                } else {
+                    touchedKeys.add(key);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Dropping invalid journal record during compaction: " + record);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        if (isWholeBank) {
+            for (String line : manifest.getInlineLines()) {
+                if (leadingFields(line, 1).equals(String.valueOf(bankId))) {
+                    lines.add(line);
+                }
+            }
+        }
+        List<String> readKeys = new ArrayList<>();
+        for (String key : bankKeys) {
+            if (isWholeBank || touchedKeys.contains(key)) {
+                segments.readSegment(manifest.getSegments().get(key), lines);
+                readKeys.add(key);
+            }
+        }
+
+        foldTransactions(lines, records);
+
+        Map<String, List<String>> linesByKey = new LinkedHashMap<>();
+        for (String line : lines) {
+            try {
+                linesByKey.computeIfAbsent(TransactionSegments.keyOfLine(line), k -> new ArrayList<>()).add(line);
+            } catch (IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Dropping malformed transaction line during compaction: " + line);
+            }
+        }
+        linesByKey.forEach((key, keyLines) -> changed.put(key, (file, generation) ->
+                SegmentedSnapshot.writeLines(file, generation, keyLines)));
+        for (String key : readKeys) {
+            if (!linesByKey.containsKey(key)) {
+                changed.put(key, null);
+            }
+        }
+    }
+
+    /**
+     * Returns the segment key of a deletion record in the format {@code D|bankId|year|month|index},
+     * or {@code null} for a deletion record in the format {@code D|bankId|index}.
+     *
+     * @throws IllegalArgumentException If the record is malformed.
+     */
+    private static String getMonthKey(String record) {
+        String[] parts = record.split("\\|");
+        if (parts.length == 3) {
+            return null;
+        }
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed deletion record: " + record);
+        }
+        return TransactionSegments.key(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                Month.valueOf(parts[3]));
+    }
+
+    /**
+     * Applies journaled appends and deletions to the lines of a single bank. A deletion either gives
+     * the index of the line among all lines of the bank, or its index among the lines of one month.
+     */
+    private static void foldTransactions(List<String> lines, List<String> records) {
+        for (String record : records) {
+            if (record.startsWith("A|")) {
+                lines.add(record.substring(2));
+                continue;
+            }
+            try {
+                int index = Integer.parseInt(record.substring(record.lastIndexOf('|') + 1));
+                String monthKey = getMonthKey(record);
+                lines.remove(monthKey == null ? index : indexInMonth(lines, monthKey, index));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                logger.log(Level.WARNING, "Dropping invalid journal record during compaction: " + record);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the line at {@code monthIndex} among the lines of one month, or -1 if there is none.
+     */
+    private static int indexInMonth(List<String> lines, String monthKey, int monthIndex) {
+        int seen = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            if (TransactionSegments.keyOfLine(lines.get(i)).equals(monthKey) && seen++ == monthIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rewrites the snapshot of a keyed store with the latest line of every key.
+     *
+     * @return {@code false} if the snapshot already contained the sealed journals.
+     */
+    private static boolean compactKeyed(Store store, long upToGeneration) throws IOException {
+        List<String> snapshotLines = new ArrayList<>();
+        long snapshotGeneration = readSnapshot(store, snapshotLines);
+        if (snapshotGeneration >= upToGeneration) {
+            return false;
+        }
+
+        Map<String, String> linesByKey = new LinkedHashMap<>();
+        for (String line : snapshotLines) {
+            linesByKey.put(leadingFields(line, store.keyLength), line);
+        }
+
+        store.journal.replaySealed(snapshotGeneration, upToGeneration, record -> {
+            if (!record.startsWith("U|")) {
+                logger.log(Level.WARNING, "Dropping malformed journal record during compaction: " + record);
+                return;
+            }
+            String line = record.substring(2);
+            linesByKey.put(leadingFields(line, store.keyLength), line);
+        });
+        writeSnapshot(store.snapshotFile, upToGeneration, linesByKey.values());
+        return true;
+    }
+
+    /**
+     * Returns the prefix of a delimiter-separated line made of its first {@code count} fields.
+     */
+    private static String leadingFields(String line, int count) {
+        int end = -1;
+        for (int i = 0; i < count; i++) {
+            end = line.indexOf('|', end + 1);
+            if (end < 0) {
+                return line;
+            }
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Reads the data lines of a store's snapshot file.
+     *
+     * @param store The store whose snapshot to read.
+     * @param lines Receives every data line.
+     * @return The generation recorded in the snapshot header, or 0 if there is none.
+     * @throws IOException If the snapshot could not be read.
+     */
+    private static long readSnapshot(Store store, List<String> lines) throws IOException {
+        long generation = 0;
+        Path file = Path.of(store.snapshotFile);
+        if (!Files.exists(file)) {
+            return generation;
+        }
+        try (BufferedReader br = Checksums.newReader(file)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(Journal.GENERATION_HEADER)) {
+                    generation = Journal.parseGeneration(line);
+                } else if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading snapshot " + store.snapshotFile, e);
+        }
+        return generation;
+    }
+
+    /**
+     * Writes a snapshot with block checksums (see {@link Checksums}) to a temporary file, forces it
+     * to disk and renames it over the existing snapshot, so readers either see the old snapshot or
+     * the complete new one. The journals a
+     * snapshot absorbs are deleted right after, so it is always forced, whatever the durability.
+     *
+     * @param snapshotFile Name of the snapshot file.
+     * @param generation   The newest journal generation contained in the snapshot.
+     * @param lines        The data lines of the snapshot.
+     * @throws IOException If the snapshot could not be written.
+     */
+    static void writeSnapshot(String snapshotFile, long generation, Iterable<String> lines) throws IOException {
+        Path target = Path.of(snapshotFile);
+        Path temp = Path.of(snapshotFile + TEMP_SUFFIX);
+        try (Checksums.Writer writer = new Checksums.Writer(
+                new BufferedOutputStream(Files.newOutputStream(temp)), generation)) {
+            for (String line : lines) {
+                writer.writeLine(line);
+            }
+        }
+        force(temp);
+        moveAtomically(temp, target);
+    }
+
+    /**
+     * Forces the contents of a fully written file to the storage device.
+     *
+     * @param path The file to force.
+     * @throws IOException If the file could not be forced.
+     */
+    static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Renames a fully written temporary file over its target, atomically where the file system allows it.
+     *
+     * @param temp   The temporary file.
+     * @param target The file to replace.
+     * @throws IOException If the file could not be moved.
+     */
+    static void moveAtomically(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package storage;
+
+import java.util.Locale;
+
+/**
+ * How far a journaled change is pushed towards the disk before the command that made it completes.
+ */
+public enum Durability {
+    /**
+     * Every record is forced to the storage device before the append returns.
+     */
+    EVERY_COMMAND,
+
+    /**
+     * Every record is forced to the storage device before the append returns, but records appended
+     * close together share a single force. At most one force is issued per group commit interval.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Records are handed to the operating system, which writes them out in its own time.
+     * They survive the application crashing, but not the machine.
+     */
+    OS_BUFFERED;
+
+    /**
+     * Parses a durability setting such as {@code command}, {@code group} or {@code os}.
+     *
+     * @param value The setting, or {@code null} for the default.
+     * @return The matching durability, or {@link #OS_BUFFERED} if the setting is missing or unknown.
+     */
+    public static Durability fromSetting(String value) {
+        if (value == null) {
+            return OS_BUFFERED;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+        case "command", "every_command" -> EVERY_COMMAND;
+        case "group", "group_commit" -> GROUP_COMMIT;
+        default -> OS_BUFFERED;
+        };
+    }
+}
@@ -0,0 +1,485 @@
+package storage;
+
+import logger.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of changes made since the last snapshot of a data file.
+ * <p>
+ * Each journal file starts with a {@code #gen <n>} header. A snapshot written by compaction
+ * records the generation of the journal it absorbed, so on load a journal is only
+ * replayed when its generation is newer than the snapshot's. This keeps a crash between
+ * "snapshot written" and "journal reset" from applying the same records twice.
+ * </p>
+ * <p>
+ * Records are always appended to the active file. Background compaction first seals the
+ * active file by renaming it to {@code <name>.<gen>}, so new records can keep going to a
+ * fresh active file while the sealed one is folded into the snapshot.
+ * </p>
+ * <p>
+ * The journal doubles as a write-ahead log: how far an appended record is pushed towards the
+ * disk before {@link #append(String)} returns is set by its {@link Durability}. On open, a
+ * record left half-written by a crash is cut off so that later appends start on a clean line.
+ * </p>
+ */
+public class Journal {
+    public static final String GENERATION_HEADER = "#gen ";
+    private static final Logger logger = AppLogger.getLogger();
+
+    private final File file;
+    private final Durability durability;
+    private final long groupCommitNanos;
+    private final Object syncLock = new Object();
+    private long generation;
+    private int recordCount;
+    private FileChannel channel;
+    private long appendedSequence;
+    private long syncedSequence;
+    private long lastSyncStart;
+    private boolean isSyncing;
+
+    /**
+     * Opens the journal stored in the given file with OS-buffered durability.
+     *
+     * @param fileName Name of the active journal file.
+     */
+    public Journal(String fileName) {
+        this(fileName, Durability.OS_BUFFERED, 0);
+    }
+
+    /**
+     * Opens the journal stored in the given file, reading its generation and record count.
+     *
+     * @param fileName          Name of the active journal file.
+     * @param durability        How appended records are pushed to disk.
+     * @param groupCommitMillis Minimum time between two forces in {@link Durability#GROUP_COMMIT} mode.
+     */
+    public Journal(String fileName, Durability durability, long groupCommitMillis) {
+        this.file = new File(fileName);
+        this.durability = durability;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+        this.generation = 1;
+        this.recordCount = 0;
+        scan();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns whether there are records, active or sealed, that have not been folded into a snapshot.
+     *
+     * @return {@code true} if compaction has work to do.
+     */
+    public synchronized boolean hasPendingRecords() {
+        return recordCount > 0 || !listSealedGenerations().isEmpty();
+    }
+
+    /**
+     * Returns whether there are sealed journals that have not been folded into a snapshot yet, which
+     * only happens while a compaction is running or after one was cut short.
+     */
+    public synchronized boolean hasSealedRecords() {
+        return !listSealedGenerations().isEmpty();
+    }
+
+    /**
+     * Appends a single record to the end of the active journal. Returns once the record is as
+     * durable as the journal's {@link Durability} requires.
+     *
+     * @param record The record to append. Must not contain line breaks.
+     */
+    public void append(String record) {
+        appendAll(List.of(record));
+    }
+
+    /**
+     * Appends several records with a single write, and a single force where the durability asks for one.
+     *
+     * @param records The records to append, in order.
+     */
+    public void appendAll(List<String> records) {
+        assert records.stream().noneMatch(r -> r == null || r.contains("\n")) : "Journal records must be single lines";
+
+        if (records.isEmpty()) {
+            return;
+        }
+        long sequence = write(records);
+        if (sequence > 0 && durability == Durability.GROUP_COMMIT) {
+            awaitGroupCommit(sequence);
+        }
+    }
+
+    /**
+     * Writes records to the active file, forcing them right away in {@link Durability#EVERY_COMMAND} mode.
+     *
+     * @return The sequence number of the last record, or 0 if they could not be written.
+     */
+    private synchronized long write(List<String> records) {
+        try {
+            if (channel == null) {
+                boolean isNew = !file.exists() || file.length() == 0;
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                if (isNew) {
+                    writeLine(GENERATION_HEADER + generation);
+                }
+            }
+            writeLines(records);
+            if (durability == Durability.EVERY_COMMAND) {
+                channel.force(false);
+            }
+            recordCount += records.size();
+            appendedSequence += records.size();
+            return appendedSequence;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to append to journal " + file.getName(), e);
+            return 0;
+        }
+    }
+
+    private void writeLines(List<String> lines) throws IOException {
+        if (lines.size() == 1) {
+            writeLine(lines.get(0));
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(Charset.defaultCharset()));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap((line + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Waits until a force covering the given record has completed. The first waiting thread leads
+     * the next force; records appended by other threads until it starts are covered by it as well.
+     *
+     * @param sequence The sequence number of the record.
+     */
+    private void awaitGroupCommit(long sequence) {
+        synchronized (syncLock) {
+            while (syncedSequence < sequence && isSyncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            isSyncing = true;
+        }
+
+        long synced = 0;
+        try {
+            long wait = lastSyncStart + groupCommitNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            lastSyncStart = System.nanoTime();
+            synced = force();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (syncLock) {
+                syncedSequence = Math.max(syncedSequence, synced);
+                isSyncing = false;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forces every record written so far to the storage device.
+     *
+     * @return The sequence number of the last record that is now durable.
+     */
+    private synchronized long force() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to force journal " + file.getName(), e);
+            }
+        }
+        return appendedSequence;
+    }
+
+    /**
+     * Seals the active journal so that it can be compacted, and starts the next generation.
+     * This only renames a file, so it is cheap enough to call while commands are running.
+     *
+     * @return The generation that was sealed, or -1 if the active journal had no records.
+     */
+    public synchronized long seal() {
+        if (recordCount == 0) {
+            return -1;
+        }
+        closeChannel();
+        File sealed = sealedFile(generation);
+        if (!file.renameTo(sealed)) {
+            logger.log(Level.SEVERE, "Failed to seal journal " + file.getName());
+            return -1;
+        }
+        long sealedGeneration = generation;
+        generation++;
+        recordCount = 0;
+        return sealedGeneration;
+    }
+
+    /**
+     * Feeds every record newer than the snapshot to the consumer, in the order they were appended.
+     * Sealed journals are replayed before the active one.
+     *
+     * @param snapshotGeneration The generation recorded in the snapshot file.
+     * @param consumer           Receives each record line.
+     */
+    public void replay(long snapshotGeneration, Consumer<String> consumer) {
+        List<Long> sealedGenerations;
+        synchronized (this) {
+            sealedGenerations = listSealedGenerations();
+        }
+        for (long sealedGeneration : sealedGenerations) {
+            if (sealedGeneration > snapshotGeneration) {
+                readFile(sealedFile(sealedGeneration), snapshotGeneration, consumer);
+            }
+        }
+        readFile(file, snapshotGeneration, consumer);
+
+        synchronized (this) {
+            if (generation <= snapshotGeneration) {
+                // The active records were already folded into the snapshot
+                startGeneration(snapshotGeneration + 1);
+            }
+        }
+    }
+
+    /**
+     * Feeds the records of sealed journals in the range (snapshotGeneration, upToGeneration]
+     * to the consumer, in order. Used by compaction.
+     *
+     * @param snapshotGeneration The generation already contained in the snapshot.
+     * @param upToGeneration     The newest sealed generation to include.
+     * @param consumer           Receives each record line.
+     */
+    public void replaySealed(long snapshotGeneration, long upToGeneration, Consumer<String> consumer) {
+        List<Long> sealedGenerations;
+        synchronized (this) {
+            sealedGenerations = listSealedGenerations();
+        }
+        for (long sealedGeneration : sealedGenerations) {
+            if (sealedGeneration > snapshotGeneration && sealedGeneration <= upToGeneration) {
+                readFile(sealedFile(sealedGeneration), snapshotGeneration, consumer);
+            }
+        }
+    }
+
+    /**
+     * Deletes the sealed journals up to and including the given generation,
+     * once a snapshot containing them has been swapped in.
+     *
+     * @param upToGeneration The newest generation contained in the snapshot.
+     */
+    public synchronized void deleteSealed(long upToGeneration) {
+        for (long sealedGeneration : listSealedGenerations()) {
+            if (sealedGeneration <= upToGeneration && !sealedFile(sealedGeneration).delete()) {
+                logger.log(Level.WARNING, "Failed to delete compacted journal " + sealedFile(sealedGeneration));
+            }
+        }
+    }
+
+    /**
+     * Discards all records, sealed or active, and starts the next generation.
+     * Called once a full snapshot of the in-memory state has been written.
+     */
+    public synchronized void reset() {
+        deleteSealed(generation);
+        startGeneration(generation + 1);
+    }
+
+    private void startGeneration(long newGeneration) {
+        closeChannel();
+        generation = newGeneration;
+        recordCount = 0;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeLine(GENERATION_HEADER + generation);
+            if (durability != Durability.OS_BUFFERED) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to reset journal " + file.getName(), e);
+        }
+    }
+
+    private void readFile(File journalFile, long snapshotGeneration, Consumer<String> consumer) {
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(GENERATION_HEADER)) {
+                    if (parseGeneration(line) <= snapshotGeneration) {
+                        logger.log(Level.INFO, "Journal {0} already folded into snapshot, skipping replay",
+                                journalFile.getName());
+                        return;
+                    }
+                    continue;
+                }
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                consumer.accept(line);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error replaying journal " + journalFile.getName(), e);
+        }
+    }
+
+    private void scan() {
+        for (long sealedGeneration : listSealedGenerations()) {
+            generation = Math.max(generation, sealedGeneration + 1);
+        }
+        if (!file.exists()) {
+            return;
+        }
+        truncateTornRecord();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(GENERATION_HEADER)) {
+                    generation = Math.max(generation, parseGeneration(line));
+                } else if (!line.isEmpty()) {
+                    recordCount++;
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading journal " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Cuts off a last record that was only partly written when the application or machine stopped,
+     * so that it is neither replayed nor joined with the next appended record.
+     */
+    private void truncateTornRecord() {
+        try (FileChannel journalChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long end = journalChannel.size();
+            ByteBuffer single = ByteBuffer.allocate(1);
+            long validEnd = end;
+            while (validEnd > 0) {
+                single.clear();
+                journalChannel.read(single, validEnd - 1);
+                if (single.get(0) == '\n') {
+                    break;
+                }
+                validEnd--;
+            }
+            if (validEnd < end) {
+                logger.log(Level.WARNING, "Discarding {0} bytes of an incomplete record at the end of {1}",
+                        new Object[]{end - validEnd, file.getName()});
+                journalChannel.truncate(validEnd);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error checking journal " + file.getName(), e);
+        }
+    }
+
+    private File sealedFile(long sealedGeneration) {
+        return new File(file.getPath() + "." + sealedGeneration);
+    }
+
+    /**
+     * Lists the generations of all sealed journal files, oldest first.
+     */
+    private List<Long> listSealedGenerations() {
+        List<Long> generations = new ArrayList<>();
+        File directory = file.getAbsoluteFile().getParentFile();
+        String prefix = file.getName() + ".";
+        String[] names = directory == null ? null : directory.list();
+        if (names == null) {
+            return generations;
+        }
+        for (String name : names) {
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                generations.add(Long.parseLong(name.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                // Not a sealed journal, e.g. a temporary file
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (durability != Durability.OS_BUFFERED) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close journal " + file.getName(), e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Parses a {@code #gen <n>} header line, returning 0 if the line is not a valid header.
+     *
+     * @param line The header line.
+     * @return The generation stored in the header.
+     */
+    static long parseGeneration(String line) {
+        try {
+            return Long.parseLong(line.substring(GENERATION_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Invalid generation header: " + line);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package storage;
+
+import utils.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Scans delimiter-separated data lines field by field without splitting them into strings.
+ * <p>
+ * Lines are read into a reusable character buffer, and numbers and enum constants are parsed
+ * straight out of that buffer, so reading a line allocates nothing except the strings that are
+ * actually kept, such as transaction tags. A scanner either reads lines from a {@link Reader}
+ * with {@link #nextLine()} or is pointed at a single line with {@link #reset(String, int)}.
+ * </p>
+ * <p>
+ * Malformed fields cause a {@link NumberFormatException} or {@link IllegalArgumentException},
+ * the same exceptions {@code Integer.parseInt}, {@code Float.parseFloat} and {@code valueOf} throw.
+ * </p>
+ */
+public class LineScanner implements Closeable {
+    private static final char DELIMITER = '|';
+    private static final int INITIAL_CAPACITY = 8192;
+    private static final int MAX_EXACT_FLOAT_MANTISSA = 1 << 24;
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private final Reader reader;
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int bufferEnd;
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private int position;
+    private boolean isEndOfInput;
+
+    /**
+     * Creates a scanner for single lines given through {@link #reset(String, int)}.
+     */
+    public LineScanner() {
+        this(null);
+    }
+
+    /**
+     * Creates a scanner that reads lines from the given reader.
+     *
+     * @param reader The source of lines. It is closed together with the scanner.
+     */
+    public LineScanner(Reader reader) {
+        this.reader = reader;
+        this.isEndOfInput = reader == null;
+    }
+
+    /**
+     * Advances to the next line of the reader.
+     *
+     * @return {@code false} once there are no more lines.
+     * @throws IOException If the reader fails.
+     */
+    public boolean nextLine() throws IOException {
+        int searchFrom = nextLineStart;
+        while (true) {
+            for (int i = searchFrom; i < bufferEnd; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(nextLineStart, i);
+                    nextLineStart = i + 1;
+                    return true;
+                }
+            }
+            if (isEndOfInput) {
+                if (nextLineStart >= bufferEnd) {
+                    return false;
+                }
+                setLine(nextLineStart, bufferEnd);
+                nextLineStart = bufferEnd;
+                return true;
+            }
+            searchFrom = fill();
+        }
+    }
+
+    /**
+     * Points the scanner at a single line, starting from the given character.
+     * Must not be used on a scanner that reads from a reader.
+     *
+     * @param line The line to scan.
+     * @param from Index of the first character of the first field.
+     */
+    public void reset(String line, int from) {
+        assert reader == null : "Cannot reset a scanner that reads from a reader";
+        int length = line.length() - from;
+        ensureCapacity(length);
+        line.getChars(from, line.length(), buffer, 0);
+        bufferEnd = length;
+        nextLineStart = length;
+        setLine(0, length);
+    }
+
+    public void reset(String line) {
+        reset(line, 0);
+    }
+
+    public boolean isEmpty() {
+        return lineStart == lineEnd;
+    }
+
+    public boolean startsWith(String prefix) {
+        if (lineEnd - lineStart < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[lineStart + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of fields on the current line.
+     */
+    public int getFieldCount() {
+        int count = 1;
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buffer[i] == DELIMITER) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the current line as a string, e.g. for log messages.
+     */
+    public String getLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+
+    /**
+     * Skips the next field.
+     */
+    public void skipField() {
+        position = fieldEnd() + 1;
+    }
+
+    /**
+     * Returns the next field as a string.
+     */
+    public String nextString() {
+        int end = fieldEnd();
+        String value = new String(buffer, position, end - position);
+        position = end + 1;
+        return value;
+    }
+
+    /**
+     * Parses the next field as a decimal int.
+     *
+     * @throws NumberFormatException If the field is not a valid int.
+     */
+    public int nextInt() {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the next field as a decimal long.
+     *
+     * @throws NumberFormatException If the field is not a valid long.
+     */
+    public long nextLong() {
+        int end = fieldEnd();
+        int i = position;
+        boolean isNegative = i < end && buffer[i] == '-';
+        if (isNegative || (i < end && buffer[i] == '+')) {
+            i++;
+        }
+        if (i == end) {
+            throw malformed(end);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw malformed(end);
+            }
+            value = value * 10 + digit;
+        }
+        position = end + 1;
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses the next field as a float, giving the same result as {@link Float#parseFloat(String)}.
+     * <p>
+     * Plain decimals with up to 7 significant digits, which covers amounts and rates, are computed
+     * exactly in float arithmetic. Anything else falls back to {@code Float.parseFloat}.
+     * </p>
+     *
+     * @throws NumberFormatException If the field is not a valid float.
+     */
+    public float nextFloat() {
+        int end = fieldEnd();
+        int start = position;
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        int stop = end;
+        while (stop > start && buffer[stop - 1] <= ' ') {
+            stop--;
+        }
+
+        int i = start;
+        boolean isNegative = i < stop && buffer[i] == '-';
+        if (isNegative || (i < stop && buffer[i] == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int fractionDigits = 0;
+        int digits = 0;
+        boolean isFraction = false;
+        boolean isPlainDecimal = true;
+        for (; i < stop; i++) {
+            char c = buffer[i];
+            if (c == '.' && !isFraction) {
+                isFraction = true;
+            } else if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_FLOAT_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (isFraction) {
+                    fractionDigits++;
+                }
+            } else {
+                isPlainDecimal = false;
+                break;
+            }
+        }
+
+        position = end + 1;
+        if (!isPlainDecimal || digits == 0 || mantissa > MAX_EXACT_FLOAT_MANTISSA
+                || fractionDigits >= FLOAT_POWERS_OF_TEN.length) {
+            return Float.parseFloat(new String(buffer, start, stop - start));
+        }
+        float value = (float) mantissa / FLOAT_POWERS_OF_TEN[fractionDigits];
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses the next field as an amount of money in minor units, like {@link Money#parse(CharSequence)}.
+     *
+     * @throws NumberFormatException If the field is not a valid amount.
+     */
+    public long nextMoney() {
+        int end = fieldEnd();
+        long amount = Money.parse(buffer, position, end);
+        position = end + 1;
+        return amount;
+    }
+
+    /**
+     * Parses the next field as the enum constant with exactly that name, like {@code valueOf}.
+     *
+     * @param constants The constants of the enum, e.g. {@code Month.values()}.
+     * @throws IllegalArgumentException If no constant has that name.
+     */
+    public <E extends Enum<E>> E nextEnum(E[] constants) {
+        return nextEnum(constants, false);
+    }
+
+    /**
+     * Parses the next field as an enum constant, ignoring case and surrounding whitespace.
+     *
+     * @param constants The constants of the enum, e.g. {@code Category.values()}.
+     * @throws IllegalArgumentException If no constant has that name.
+     */
+    public <E extends Enum<E>> E nextEnumIgnoreCase(E[] constants) {
+        return nextEnum(constants, true);
+    }
+
+    private <E extends Enum<E>> E nextEnum(E[] constants, boolean isIgnoringCase) {
+        int end = fieldEnd();
+        int start = position;
+        int stop = end;
+        if (isIgnoringCase) {
+            while (start < stop && buffer[start] <= ' ') {
+                start++;
+            }
+            while (stop > start && buffer[stop - 1] <= ' ') {
+                stop--;
+            }
+        }
+
+        for (E constant : constants) {
+            if (regionMatches(constant.name(), start, stop, isIgnoringCase)) {
+                position = end + 1;
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + new String(buffer, start, stop - start));
+    }
+
+    private boolean regionMatches(String name, int start, int stop, boolean isIgnoringCase) {
+        if (name.length() != stop - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = buffer[start + i];
+            char expected = name.charAt(i);
+            if (c != expected && !(isIgnoringCase && Character.toUpperCase(c) == expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    private void setLine(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+        position = start;
+    }
+
+    /**
+     * Returns the index just past the current field, throwing if there are no fields left.
+     */
+    private int fieldEnd() {
+        if (position > lineEnd) {
+            throw new NumberFormatException("Missing field in line: " + getLine());
+        }
+        int i = position;
+        while (i < lineEnd && buffer[i] != DELIMITER) {
+            i++;
+        }
+        return i;
+    }
+
+    private NumberFormatException malformed(int end) {
+        return new NumberFormatException("For input string: \"" + new String(buffer, position, end - position) + "\"");
+    }
+
+    /**
+     * Moves the unread part of the buffer to the front and reads more characters after it.
+     *
+     * @return The index from which to continue searching for a line break.
+     */
+    private int fill() throws IOException {
+        int unread = bufferEnd - nextLineStart;
+        if (nextLineStart > 0) {
+            System.arraycopy(buffer, nextLineStart, buffer, 0, unread);
+        } else if (unread == buffer.length) {
+            ensureCapacity(buffer.length * 2);
+        }
+        nextLineStart = 0;
+        bufferEnd = unread;
+
+        int read = reader.read(buffer, bufferEnd, buffer.length - bufferEnd);
+        if (read < 0) {
+            isEndOfInput = true;
+        } else {
+            bufferEnd += read;
+        }
+        return unread;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            char[] grown = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, bufferEnd);
+            buffer = grown;
+        }
+    }
+}
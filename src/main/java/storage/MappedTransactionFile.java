@@ -0,0 +1,174 @@
+package storage;
+
+import logger.AppLogger;
+import transaction.Transaction;
+import transaction.TransactionMatcher;
+import ui.FinanceException;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Money;
+import utils.Month;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only view of a binary transaction file, memory-mapped with {@link FileChannel#map}.
+ * <p>
+ * Records are fixed-width, so every field of every row is read straight out of the mapped
+ * region by offset. Queries scan the rows with a {@link TransactionMatcher} and only create
+ * {@link Transaction} objects for the rows that match.
+ * </p>
+ * <p>
+ * The mapping stays valid after compaction replaces the file, since the old file is only
+ * unlinked; the view keeps showing the snapshot it was opened on.
+ * </p>
+ */
+public class MappedTransactionFile {
+    private static final Logger logger = AppLogger.getLogger();
+    private static final int CATEGORY_OFFSET = 4;
+    private static final int CURRENCY_OFFSET = 5;
+    private static final int DATE_OFFSET = 6;
+    private static final int VALUE_OFFSET = 10;
+
+    private final MappedByteBuffer buffer;
+    private final long generation;
+    private final BinaryTransactionFile.Header header;
+    private final String[] tags;
+    private final int recordCount;
+    private final int recordsStart;
+    private final int tagOffset;
+
+    private MappedTransactionFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        this.header = BinaryTransactionFile.readHeader(buffer);
+        this.generation = header.generation();
+        this.tags = header.tags();
+        this.recordCount = header.recordCount();
+        this.recordsStart = buffer.position();
+        this.tagOffset = VALUE_OFFSET + (header.hasFloatValues() ? Float.BYTES : Long.BYTES);
+    }
+
+    /**
+     * Maps a binary transaction file into memory and verifies its checksums. Records from the
+     * first damaged block on are left out of the view.
+     *
+     * @param path The binary transaction file.
+     * @return A view over the intact records of the file.
+     * @throws IOException If the file could not be mapped or is not a valid transaction file.
+     */
+    public static MappedTransactionFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedTransactionFile mapped = new MappedTransactionFile(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            mapped.header.reportSalvage(path);
+            return mapped;
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public int getBankId(int row) {
+        return buffer.getInt(offset(row));
+    }
+
+    public Category getCategory(int row) {
+        return BinaryTransactionFile.CATEGORIES[buffer.get(offset(row) + CATEGORY_OFFSET)];
+    }
+
+    public Currency getCurrency(int row) {
+        return BinaryTransactionFile.CURRENCIES[buffer.get(offset(row) + CURRENCY_OFFSET)];
+    }
+
+    /**
+     * Returns the value of a row in minor units of its currency.
+     */
+    public long getValue(int row) {
+        if (header.hasFloatValues()) {
+            return Money.fromFloat(buffer.getFloat(offset(row) + VALUE_OFFSET));
+        }
+        return buffer.getLong(offset(row) + VALUE_OFFSET);
+    }
+
+    public String getTag(int row) {
+        int tagId = buffer.getInt(offset(row) + tagOffset);
+        return tagId == BinaryTransactionFile.NO_TAG ? null : tags[tagId];
+    }
+
+    /**
+     * Returns whether the given row satisfies the matcher, reading only the mapped fields.
+     */
+    public boolean matches(int row, TransactionMatcher matcher) {
+        int date = buffer.getInt(offset(row) + DATE_OFFSET);
+        return matcher.matches(getCategory(row), getValue(row), Date.unpackDay(date), Date.unpackMonth(date),
+                Date.unpackYear(date), getCurrency(row), getTag(row));
+    }
+
+    /**
+     * Creates a transaction from the given row.
+     *
+     * @throws FinanceException If the stored row is not a valid transaction.
+     */
+    public Transaction toTransaction(int row) throws FinanceException {
+        int date = buffer.getInt(offset(row) + DATE_OFFSET);
+        return new Transaction(getValue(row), getCategory(row), Date.ofKey(date), getCurrency(row), getTag(row));
+    }
+
+    /**
+     * Adds the value of each valid row of a bank to the totals of its month, category and currency,
+     * reading only the mapped fields. Rows {@link #select} would skip as invalid are left out.
+     */
+    void addTotals(int bankId, SegmentTotals totals) {
+        for (int row = 0; row < recordCount; row++) {
+            if (getBankId(row) != bankId) {
+                continue;
+            }
+            int date = buffer.getInt(offset(row) + DATE_OFFSET);
+            long value = getValue(row);
+            if (value < 0 || value > Money.MAX_AMOUNT || !Date.isValidKey(date)) {
+                continue;
+            }
+            totals.add(date, getCategory(row), getCurrency(row), value);
+        }
+    }
+
+    /**
+     * Scans the rows of a bank in file order and creates transactions for those that match.
+     * Invalid rows are skipped with a warning.
+     *
+     * @param bankId  The bank whose rows to scan.
+     * @param matcher The condition a row has to satisfy.
+     * @return The matching transactions.
+     */
+    public ArrayList<Transaction> select(int bankId, TransactionMatcher matcher) {
+        ArrayList<Transaction> matches = new ArrayList<>();
+        for (int row = 0; row < recordCount; row++) {
+            if (getBankId(row) != bankId || !matches(row, matcher)) {
+                continue;
+            }
+            try {
+                matches.add(toTransaction(row));
+            } catch (FinanceException | IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Skipping invalid mapped transaction for bank " + bankId, e);
+            }
+        }
+        return matches;
+    }
+
+    private int offset(int row) {
+        return header.offset(recordsStart, row);
+    }
+}
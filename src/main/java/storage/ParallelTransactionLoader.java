@@ -0,0 +1,145 @@
+package storage;
+
+import bank.Bank;
+import logger.AppLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a text transaction file by parsing byte ranges of it concurrently on a fork-join pool.
+ * <p>
+ * The file is split in halves at line breaks until the ranges are small enough, so every range
+ * holds whole lines. Each range is parsed into its own {@link TransactionBatch}, and the batches
+ * are added to the banks in file order, so every bank ends up with its transactions in the same
+ * order as a sequential load. Small files are parsed as a single range on the calling thread.
+ * </p>
+ */
+public class ParallelTransactionLoader {
+    private static final Logger logger = AppLogger.getLogger();
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private final byte[] data;
+    private final Charset charset;
+    private final List<Bank> banks;
+    private final int chunkSize;
+
+    private ParallelTransactionLoader(byte[] data, Charset charset, List<Bank> banks, int chunkSize) {
+        this.data = data;
+        this.charset = charset;
+        this.banks = banks;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads every transaction of the file into its bank.
+     *
+     * @param file  The text transaction file.
+     * @param banks The banks of the user, indexed by bank ID.
+     * @return The journal generation recorded in the file header, or 0 if there is none.
+     * @throws IOException If the file could not be read.
+     */
+    public static long load(Path file, List<Bank> banks) throws IOException {
+        return load(file, banks, ForkJoinPool.commonPool(), MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Loads every transaction of the file into its bank, using the given pool and minimum chunk size.
+     */
+    static long load(Path file, List<Bank> banks, ForkJoinPool pool, int minChunkSize) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int length = Checksums.validLength(file, data);
+        int chunkSize = Math.max(minChunkSize, length / (pool.getParallelism() * 4) + 1);
+        ParallelTransactionLoader loader = new ParallelTransactionLoader(data, StandardCharsets.UTF_8,
+                banks, chunkSize);
+
+        List<TransactionBatch> batches;
+        try {
+            batches = length <= chunkSize
+                    ? loader.new ChunkTask(0, length).compute()
+                    : pool.invoke(loader.new ChunkTask(0, length));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long generation = 0;
+        int count = 0;
+        for (TransactionBatch batch : batches) {
+            generation = Math.max(generation, batch.getGeneration());
+            count += batch.size();
+            batch.addToBanks();
+        }
+        logger.log(Level.INFO, "Loaded {0} transactions from {1} chunks", new Object[]{count, batches.size()});
+        return generation;
+    }
+
+    /**
+     * Parses the lines in a byte range, splitting it in two at a line break while it is too large.
+     */
+    private class ChunkTask extends RecursiveTask<List<TransactionBatch>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        ChunkTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<TransactionBatch> compute() {
+            if (end - start > chunkSize) {
+                int split = nextLineStart(start + (end - start) / 2);
+                if (split < end) {
+                    ChunkTask second = new ChunkTask(split, end);
+                    second.fork();
+                    List<TransactionBatch> batches = new ChunkTask(start, split).compute();
+                    batches.addAll(second.join());
+                    return batches;
+                }
+            }
+
+            List<TransactionBatch> batches = new ArrayList<>();
+            batches.add(parse());
+            return batches;
+        }
+
+        private TransactionBatch parse() {
+            TransactionBatch batch = new TransactionBatch();
+            try (LineScanner scanner = new LineScanner(new InputStreamReader(
+                    new ByteArrayInputStream(data, start, end - start), charset))) {
+                while (scanner.nextLine()) {
+                    batch.parseLine(scanner, banks);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return batch;
+        }
+
+        /**
+         * Returns the index of the first byte after the next line break at or after the given index.
+         */
+        private int nextLineStart(int from) {
+            for (int i = from; i < end; i++) {
+                if (data[i] == '\n') {
+                    return i + 1;
+                }
+            }
+            return end;
+        }
+    }
+}
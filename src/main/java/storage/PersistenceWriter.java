@@ -0,0 +1,222 @@
+package storage;
+
+import logger.AppLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends journal records on a dedicated thread, so commands do not wait for the disk.
+ * <p>
+ * Commands publish immutable {@link ChangeEvent}s to a bounded queue. The writer thread takes
+ * everything that is queued, drops upserts that a later event in the same batch replaces, and
+ * appends the rest to each journal with a single write. When the queue is full, publishing
+ * waits for the writer; these waits are counted in the {@link Stats} so a writer that falls
+ * behind shows up. {@link #flush()} waits until every event published before it is written.
+ * </p>
+ */
+public class PersistenceWriter {
+    public static final int QUEUE_CAPACITY = 1024;
+    private static final Logger logger = AppLogger.getLogger();
+    private static final int STALL_LOG_INTERVAL = 100;
+
+    private final BlockingQueue<ChangeEvent> queue;
+    private final Consumer<Compactor.Store> afterWrite;
+    private final Object progressLock = new Object();
+    private Thread thread;
+    private long publishedCount;
+    private long writtenCount;
+    private long coalescedCount;
+    private long batchCount;
+    private long stallCount;
+    private long stallNanos;
+    private int highWaterMark;
+
+    /**
+     * A change to persist: one journal record for a store.
+     *
+     * @param store  The store whose journal receives the record.
+     * @param key    The entity the record replaces, or {@code null} if it cannot be replaced by a later
+     *               record, like a transaction append or deletion.
+     * @param record The journal record, formatted when the change was made.
+     */
+    public record ChangeEvent(Compactor.Store store, String key, String record) {
+    }
+
+    /**
+     * Counters describing how well the writer keeps up with the commands.
+     *
+     * @param published     Events published so far.
+     * @param written       Events written, or dropped because a later event replaced them.
+     * @param coalesced     Events dropped because a later event in the same batch replaced them.
+     * @param batches       Batches written.
+     * @param pending       Events still waiting in the queue.
+     * @param highWaterMark The most events that were ever waiting in the queue.
+     * @param stalls        Times a command had to wait because the queue was full.
+     * @param stallMillis   Total time commands waited for a full queue.
+     */
+    public record Stats(long published, long written, long coalesced, long batches, int pending,
+                        int highWaterMark, long stalls, long stallMillis) {
+    }
+
+    /**
+     * Creates a writer that is started by the first published event.
+     *
+     * @param capacity   The number of events that can wait before publishing blocks.
+     * @param afterWrite Called on the writer thread after records were appended to a store's journal.
+     */
+    public PersistenceWriter(int capacity, Consumer<Compactor.Store> afterWrite) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.afterWrite = afterWrite;
+    }
+
+    /**
+     * Starts the writer thread, if it is not already running. Pending events are also
+     * flushed when the JVM shuts down.
+     */
+    private synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "storage-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "storage-writer-shutdown"));
+    }
+
+    /**
+     * Queues an event for the writer thread, waiting for space if the queue is full.
+     *
+     * @param event The change to persist.
+     */
+    public void publish(ChangeEvent event) {
+        start();
+        synchronized (progressLock) {
+            publishedCount++;
+        }
+        if (!queue.offer(event)) {
+            long start = System.nanoTime();
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.log(Level.SEVERE, "Interrupted while queueing change: " + event.record());
+                markWritten(1);
+                return;
+            }
+            recordStall(System.nanoTime() - start);
+        }
+        int size = queue.size();
+        synchronized (progressLock) {
+            highWaterMark = Math.max(highWaterMark, size);
+        }
+    }
+
+    private void recordStall(long nanos) {
+        long stalls;
+        synchronized (progressLock) {
+            stalls = ++stallCount;
+            stallNanos += nanos;
+        }
+        if (stalls % STALL_LOG_INTERVAL == 1) {
+            logger.log(Level.WARNING, "Storage writer is falling behind: {0} commands waited for a full queue",
+                    stalls);
+        }
+    }
+
+    /**
+     * Waits until every event published before this call has been written.
+     */
+    public void flush() {
+        synchronized (progressLock) {
+            long target = publishedCount;
+            while (writtenCount < target) {
+                try {
+                    progressLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (progressLock) {
+            return new Stats(publishedCount, writtenCount, coalescedCount, batchCount, queue.size(),
+                    highWaterMark, stallCount, stallNanos / 1_000_000);
+        }
+    }
+
+    private void run() {
+        List<ChangeEvent> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                logger.info("Storage writer interrupted, stopping");
+                return;
+            }
+            queue.drainTo(batch);
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Storage writer failed to write " + batch.size() + " changes", e);
+            }
+            markWritten(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Appends a batch of events to their journals, skipping upserts replaced later in the batch.
+     */
+    private void write(List<ChangeEvent> batch) {
+        List<ChangeEvent> events = coalesce(batch);
+        Map<Compactor.Store, List<String>> recordsByStore = new LinkedHashMap<>();
+        for (ChangeEvent event : events) {
+            recordsByStore.computeIfAbsent(event.store(), k -> new ArrayList<>()).add(event.record());
+        }
+        for (Map.Entry<Compactor.Store, List<String>> entry : recordsByStore.entrySet()) {
+            entry.getKey().getJournal().appendAll(entry.getValue());
+            afterWrite.accept(entry.getKey());
+        }
+        synchronized (progressLock) {
+            coalescedCount += batch.size() - events.size();
+            batchCount++;
+        }
+    }
+
+    /**
+     * Returns the events of a batch in order, without those replaced by a later event for the same key.
+     */
+    static List<ChangeEvent> coalesce(List<ChangeEvent> batch) {
+        Set<List<Object>> seen = new HashSet<>();
+        List<ChangeEvent> kept = new ArrayList<>(batch.size());
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            ChangeEvent event = batch.get(i);
+            if (event.key() == null || seen.add(List.of(event.store(), event.key()))) {
+                kept.add(event);
+            }
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    private void markWritten(int count) {
+        synchronized (progressLock) {
+            writtenCount += count;
+            progressLock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package storage;
+
+import transaction.Transaction;
+import transaction.TransactionColumns;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totals of the values of the transactions stored in one segment, by month, category and currency.
+ * <p>
+ * They let the spending of a bank whose transactions are not loaded be read from the segments of the
+ * months asked for, without loading the bank. A segment file is never changed once written, so its
+ * totals are worked out once, the first time they are needed. A monthly segment has the totals of a
+ * single month, and a whole-bank segment those of every month it holds.
+ * </p>
+ */
+final class SegmentTotals {
+    private static final int CURRENCY_COUNT = Currency.values().length;
+    private static final int CELLS = Category.values().length * CURRENCY_COUNT;
+
+    private final Map<Integer, long[]> totalsByMonth = new HashMap<>();
+
+    /**
+     * Adds a value to the total of its month, category and currency.
+     *
+     * @param dateKey The {@link Date#getKey() key} of the date of the value.
+     */
+    void add(int dateKey, Category category, Currency currency, long value) {
+        totalsByMonth.computeIfAbsent(dateKey / 100, key -> new long[CELLS])[cell(category, currency)] += value;
+    }
+
+    void add(Transaction transaction) {
+        add(transaction.getDate().getKey(), transaction.getCategory(), transaction.getCurrency(),
+                transaction.getValue());
+    }
+
+    /**
+     * Returns the total value of a month, category and currency.
+     *
+     * @param year The year of the month, or {@link TransactionColumns#ANY_YEAR} for that month of every year.
+     * @return The total, in minor units of the currency.
+     */
+    long getTotal(Month month, int year, Category category, Currency currency) {
+        int cell = cell(category, currency);
+        if (year != TransactionColumns.ANY_YEAR) {
+            long[] totals = totalsByMonth.get(Date.pack(1, month, year) / 100);
+            return totals == null ? 0 : totals[cell];
+        }
+        long total = 0;
+        for (Map.Entry<Integer, long[]> entry : totalsByMonth.entrySet()) {
+            if (entry.getKey() % 100 == month.ordinal() + 1) {
+                total += entry.getValue()[cell];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total value of a category and currency from the start of one month to the end of another.
+     *
+     * @param firstMonthKey The first month, as the key of its first day divided by 100.
+     * @param lastMonthKey  The last month, in the same form.
+     * @return The total, in minor units of the currency.
+     */
+    long getTotal(int firstMonthKey, int lastMonthKey, Category category, Currency currency) {
+        int cell = cell(category, currency);
+        long total = 0;
+        for (Map.Entry<Integer, long[]> entry : totalsByMonth.entrySet()) {
+            if (entry.getKey() >= firstMonthKey && entry.getKey() <= lastMonthKey) {
+                total += entry.getValue()[cell];
+            }
+        }
+        return total;
+    }
+
+    private static int cell(Category category, Currency currency) {
+        return category.ordinal() * CURRENCY_COUNT + currency.ordinal();
+    }
+}
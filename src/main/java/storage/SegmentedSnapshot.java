@@ -0,0 +1,293 @@
+package storage;
+
+import logger.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A snapshot split into segment files that are written independently, listed by a manifest.
+ * <p>
+ * The manifest is a small text file holding the {@code #gen} header of the snapshot and one
+ * {@code #segment key file} line per segment. Segments are never modified in place: a changed
+ * segment is written to a new file named after its key and generation, then the manifest is
+ * replaced to point at it, and only then is the old file deleted. Saving a change therefore
+ * only rewrites the segments it touched, and readers always see a complete snapshot.
+ * </p>
+ * <p>
+ * Data lines found in the manifest itself are the contents of a snapshot written before it was
+ * split into segments. They stay readable until the next write, which must then rewrite every key.
+ * A single binary snapshot file from before segmentation is read the same way.
+ * </p>
+ */
+public class SegmentedSnapshot {
+    public static final String SEGMENT_HEADER = "#segment ";
+    private static final Logger logger = AppLogger.getLogger();
+    private static final String GENERATION_PREFIX = ".g";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path manifestFile;
+    private final Path legacyBinaryFile;
+    private final String segmentExtension;
+    private final String segmentPrefix;
+
+    /**
+     * Writes the contents of one segment to a file.
+     */
+    @FunctionalInterface
+    public interface SegmentWriter {
+        void write(Path file, long generation) throws IOException;
+    }
+
+    /**
+     * The segments and inline lines listed by a manifest.
+     */
+    public static final class Manifest {
+        private final long generation;
+        private final Map<String, String> segments;
+        private final List<String> inlineLines;
+        private final boolean isLegacyBinary;
+
+        Manifest(long generation, Map<String, String> segments, List<String> inlineLines, boolean isLegacyBinary) {
+            this.generation = generation;
+            this.segments = segments;
+            this.inlineLines = inlineLines;
+            this.isLegacyBinary = isLegacyBinary;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Returns the segment file names, by key, in the order they are listed.
+         */
+        public Map<String, String> getSegments() {
+            return Collections.unmodifiableMap(segments);
+        }
+
+        /**
+         * Returns the data lines stored outside of any segment, which only a snapshot written before
+         * segmentation has.
+         */
+        public List<String> getInlineLines() {
+            return inlineLines;
+        }
+
+        /**
+         * Returns whether the next write has to rewrite every key, because part of the snapshot is
+         * still stored outside of segments.
+         */
+        public boolean needsFullWrite() {
+            return isLegacyBinary || !inlineLines.isEmpty();
+        }
+    }
+
+    /**
+     * Creates a segmented snapshot.
+     *
+     * @param manifestFile     The manifest. Segment files are placed next to it.
+     * @param segmentExtension The extension of newly written segments, which also selects their format.
+     * @param legacyBinaryFile A binary snapshot read when there is no manifest, or {@code null}.
+     */
+    public SegmentedSnapshot(String manifestFile, String segmentExtension, String legacyBinaryFile) {
+        this.manifestFile = Path.of(manifestFile);
+        this.segmentExtension = segmentExtension;
+        this.legacyBinaryFile = legacyBinaryFile == null ? null : Path.of(legacyBinaryFile);
+        String name = this.manifestFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.segmentPrefix = (dot < 0 ? name : name.substring(0, dot)) + ".";
+    }
+
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    public boolean isBinary() {
+        return segmentExtension.equals(BinaryTransactionFile.EXTENSION);
+    }
+
+    /**
+     * Returns the binary snapshot from before segmentation if it is still the current snapshot,
+     * that is if it exists and no manifest has been written yet.
+     */
+    public Path getLegacyBinaryFile() {
+        if (legacyBinaryFile == null || Files.exists(manifestFile) || !Files.exists(legacyBinaryFile)) {
+            return null;
+        }
+        return legacyBinaryFile;
+    }
+
+    /**
+     * Returns the path of a segment file listed in the manifest.
+     */
+    public Path resolve(String segmentFile) {
+        Path parent = manifestFile.toAbsolutePath().getParent();
+        return parent.resolve(segmentFile);
+    }
+
+    /**
+     * Returns whether a segment file is stored in the binary format.
+     */
+    public static boolean isBinarySegment(String segmentFile) {
+        return segmentFile.endsWith(BinaryTransactionFile.EXTENSION);
+    }
+
+    /**
+     * Reads the manifest. If there is none, the binary snapshot from before segmentation is read
+     * into the inline lines instead, and if there is neither, the manifest is empty.
+     *
+     * @return The current manifest.
+     * @throws IOException If the manifest or the old snapshot could not be read.
+     */
+    public Manifest readManifest() throws IOException {
+        Path legacy = getLegacyBinaryFile();
+        if (legacy != null) {
+            List<String> lines = new ArrayList<>();
+            long generation = TransactionFileConverter.readBinary(legacy, lines);
+            return new Manifest(generation, new LinkedHashMap<>(), lines, true);
+        }
+
+        long generation = 0;
+        Map<String, String> segments = new LinkedHashMap<>();
+        List<String> inlineLines = new ArrayList<>();
+        if (!Files.exists(manifestFile)) {
+            return new Manifest(generation, segments, inlineLines, false);
+        }
+        try (BufferedReader br = Checksums.newReader(manifestFile)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(Journal.GENERATION_HEADER)) {
+                    generation = Journal.parseGeneration(line);
+                } else if (line.startsWith(SEGMENT_HEADER)) {
+                    String[] parts = line.substring(SEGMENT_HEADER.length()).split(" ", 2);
+                    if (parts.length == 2) {
+                        segments.put(parts[0], parts[1]);
+                    } else {
+                        logger.log(Level.WARNING, "Skipping malformed segment line: " + line);
+                    }
+                } else if (!line.isEmpty() && !line.startsWith("#")) {
+                    inlineLines.add(line);
+                }
+            }
+        }
+        return new Manifest(generation, segments, inlineLines, false);
+    }
+
+    /**
+     * Reads the data lines of one segment, in either format.
+     *
+     * @param segmentFile The segment file name from the manifest.
+     * @param lines       Receives every data line.
+     * @throws IOException If the segment could not be read.
+     */
+    public void readSegment(String segmentFile, List<String> lines) throws IOException {
+        Path path = resolve(segmentFile);
+        if (isBinarySegment(segmentFile)) {
+            TransactionFileConverter.readBinary(path, lines);
+            return;
+        }
+        try (BufferedReader br = Checksums.newReader(path)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the given segments and a manifest that lists them together with the unchanged segments
+     * of the previous manifest, then deletes the files that are no longer listed.
+     *
+     * @param previous   The manifest the changes were made against.
+     * @param generation The newest journal generation contained in the new snapshot.
+     * @param changed    Writers for the segments to replace or add, by key. A {@code null} writer
+     *                   removes the segment.
+     * @throws IOException If a segment or the manifest could not be written. The previous
+     *                     manifest is then still intact.
+     */
+    public void write(Manifest previous, long generation, Map<String, SegmentWriter> changed) throws IOException {
+        Map<String, String> segments = new LinkedHashMap<>(previous.segments);
+        for (Map.Entry<String, SegmentWriter> entry : changed.entrySet()) {
+            if (entry.getValue() == null) {
+                segments.remove(entry.getKey());
+                continue;
+            }
+            String segmentFile = segmentPrefix + entry.getKey() + GENERATION_PREFIX + generation + segmentExtension;
+            entry.getValue().write(resolve(segmentFile), generation);
+            segments.put(entry.getKey(), segmentFile);
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, String> segment : segments.entrySet()) {
+            lines.add(SEGMENT_HEADER + segment.getKey() + " " + segment.getValue());
+        }
+        Compactor.writeSnapshot(manifestFile.toString(), generation, lines);
+
+        if (previous.isLegacyBinary) {
+            Files.deleteIfExists(legacyBinaryFile);
+        }
+        deleteUnlisted(new HashSet<>(segments.values()));
+    }
+
+    /**
+     * Deletes the files a write that was cut short left behind: temporary files of the manifest and
+     * segments, and segment files the current manifest does not list.
+     *
+     * @throws IOException If the manifest could not be read. Nothing is deleted then.
+     */
+    public void deleteStaleFiles() throws IOException {
+        Manifest manifest = readManifest();
+        Path directory = manifestFile.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, segmentPrefix + "*" + TEMP_SUFFIX)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        deleteUnlisted(new HashSet<>(manifest.segments.values()));
+    }
+
+    /**
+     * Deletes segment files of this snapshot that the manifest no longer lists. Files still mapped
+     * by a reader stay readable until they are unmapped, where the platform allows deleting them.
+     */
+    private void deleteUnlisted(Set<String> listed) {
+        Path directory = manifestFile.toAbsolutePath().getParent();
+        String glob = segmentPrefix + "*" + GENERATION_PREFIX + "*{" + segmentExtension + ","
+                + (isBinary() ? ".txt" : BinaryTransactionFile.EXTENSION) + "}";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to delete old segments of " + manifestFile, e);
+        }
+    }
+
+    /**
+     * Writes lines to a segment file in the format its name selects.
+     */
+    static void writeLines(Path file, long generation, Iterable<String> lines) throws IOException {
+        if (isBinarySegment(file.getFileName().toString())) {
+            TransactionFileConverter.writeBinary(file, generation, lines);
+        } else {
+            Compactor.writeSnapshot(file.toString(), generation, lines);
+        }
+    }
+}
@@ -3,22 +3,32 @@ package storage;
 import bank.Bank;
 import logger.AppLogger;
 import transaction.Transaction;
+import transaction.TransactionColumns;
+import transaction.TransactionMatcher;
 import ui.FinanceException;
 import user.User;
 import utils.Budget;
 import utils.Category;
 import utils.Currency;
 import utils.Date;
+import utils.Money;
 import utils.Month;
 
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,8 +41,65 @@ public class Storage {
     public static final int BANK_DATA_LENGTH = 4;
     private static final Logger logger = AppLogger.getLogger();
     private static final String TRANSACTION_FILE = "transactions.txt";
+    private static final String TEXT_EXTENSION = ".txt";
+    private static final String BINARY_TRANSACTION_FILE = "transactions" + BinaryTransactionFile.EXTENSION;
     private static final String BUDGET_FILE = "budgets.txt";
     private static final String BANK_FILE = "banks.txt";
+    private static final String TRANSACTION_JOURNAL_FILE = "transactions.journal";
+    private static final String BUDGET_JOURNAL_FILE = "budgets.journal";
+    private static final String BANK_JOURNAL_FILE = "banks.journal";
+    private static final String JOURNAL_PROPERTY = "trackstars.journal";
+    private static final String FORMAT_PROPERTY = "trackstars.format";
+    private static final String BINARY_FORMAT = "binary";
+    private static final String READ_MODE_PROPERTY = "trackstars.read";
+    private static final String DURABILITY_PROPERTY = "trackstars.durability";
+    private static final String GROUP_COMMIT_PROPERTY = "trackstars.groupCommitMillis";
+    private static final long DEFAULT_GROUP_COMMIT_MILLIS = 10;
+    private static final String MAPPED_READ_MODE = "mapped";
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final String ADD_RECORD = "A";
+    private static final String DELETE_RECORD = "D";
+    private static final String UPSERT_RECORD = "U";
+    private static final int BANK_DELETE_RECORD_LENGTH = 3;
+    private static final int MONTH_DELETE_RECORD_LENGTH = 5;
+    private static final int BUDGET_KEY_LENGTH = 3;
+    private static final int BANK_KEY_LENGTH = 1;
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Month[] MONTHS = Month.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final boolean isJournaled;
+    private final boolean isBinaryFormat;
+    private final boolean isMappedRead;
+    private final SegmentedSnapshot transactionSnapshot;
+    private final Compactor.Store transactionStore;
+    private final Compactor.Store budgetStore;
+    private final Compactor.Store bankStore;
+    private final Compactor compactor;
+    private final PersistenceWriter writer;
+    private final LineScanner journalScanner = new LineScanner();
+    private final TransactionBatch journalBatch = new TransactionBatch();
+    private final Map<Integer, List<Segment>> segmentsByBank = new HashMap<>();
+    private final Map<String, long[]> savedSegments = new HashMap<>();
+    private final Map<Bank, Integer> savedTransactionVersions = new IdentityHashMap<>();
+    private final Map<Bank, Long> savedBankVersions = new IdentityHashMap<>();
+    private final Map<Budget, Long> savedBudgetVersions = new IdentityHashMap<>();
+
+    /**
+     * A stored transaction segment of a bank that has not been loaded yet.
+     */
+    private static final class Segment {
+        private final String key;
+        private final Path file;
+        private List<Transaction> transactions;
+        private MappedTransactionFile mapped;
+        private SegmentTotals totals;
+
+        private Segment(String key, Path file) {
+            this.key = key;
+            this.file = file;
+        }
+    }
 
 
     /**
@@ -50,18 +117,265 @@ public class Storage {
      *     <li><b>Budget:</b> bankId|category|month|amount|currency</li>
      *     <li><b>Bank:</b> id|currency|balance|exchangeRate</li>
      * </ul>
+     *
+     * <p>In journaled mode (the default, disable with {@code -Dtrackstars.journal=false}),
+     * each change appends a record to the journal of its file (transactions.journal,
+     * budgets.journal, banks.journal) instead of rewriting the file. A {@link Compactor}
+     * periodically folds the journals into new snapshots on a background thread, and
+     * loading reads the snapshot followed by the short tail of journaled changes.</p>
+     * <ul>
+     *     <li><b>Added transaction:</b> A|bankId|tag|category|value|day|month|year|currency</li>
+     *     <li><b>Deleted transaction:</b> D|bankId|year|month|index, where index counts the bank's
+     *     transactions of that month</li>
+     *     <li><b>Added or updated budget:</b> U|bankId|category|month|amount|currency</li>
+     *     <li><b>Added or updated bank:</b> U|id|currency|balance|exchangeRate</li>
+     * </ul>
+     *
+     * <p>Journal records are formatted on the command thread and handed to a {@link PersistenceWriter},
+     * which appends them on its own thread, so commands do not wait for the disk. {@link #flush()}
+     * waits for the records handed over so far, and loads and full saves flush first.</p>
+     *
+     * <p>The journals act as a write-ahead log. {@code -Dtrackstars.durability} sets how far each
+     * record is pushed to disk before its command completes: {@code command} forces every record,
+     * {@code group} lets records appended within {@code -Dtrackstars.groupCommitMillis} (default 10)
+     * of each other share one force, and {@code os} (the default) leaves writing out to the OS.
+     * After a crash, loading replays the journals over the last snapshot.</p>
+     *
+     * <p>The transaction snapshot is split into one segment file per bank and month, listed by the
+     * manifest transactions.txt (see {@link SegmentedSnapshot} and {@link TransactionSegments}).
+     * Compaction and saves only rewrite the segments of months that changed. Loading only reads the
+     * manifest; a bank's segments are read when its transactions are first needed, and queries that
+     * are limited to some months through {@link #selectTransactions(Bank, TransactionMatcher)} read
+     * only the segments of those months. Banks, budgets and transaction lists carry version counters, and the
+     * versions last persisted are remembered, so unchanged banks and budgets are not written again.</p>
+     *
+     * <p>Every snapshot is written to a temporary file, forced to disk and renamed over the old one,
+     * so a crash leaves either the old or the new snapshot. Snapshots carry CRC32C checksums per block
+     * of lines (see {@link Checksums}) or per block of binary records, which are verified in one pass
+     * before parsing. A damaged snapshot is recovered up to its last intact block and the user is told
+     * how much was kept, instead of its damaged lines being skipped one by one.</p>
+     *
+     * <p>With {@code -Dtrackstars.format=binary}, segments are written in the fixed-width
+     * {@link BinaryTransactionFile} format instead. Segments in the other format are still read,
+     * and are converted the next time their bank changes. A single transactions.bin file from
+     * before segmentation is read when there is no manifest.</p>
+     *
+     * <p>With {@code -Dtrackstars.read=mapped}, which implies the binary format, binary segments are
+     * memory-mapped when first needed instead of being read, so queries on a bank that is not loaded
+     * only create transactions for the matching records.</p>
      */
 
     //@@author kevinlokey
     public Storage() {
         logger.log(Level.INFO, "Initialising storage - loading saved data");
 
+        this.isJournaled = Boolean.parseBoolean(System.getProperty(JOURNAL_PROPERTY, "true"));
+        this.isMappedRead = MAPPED_READ_MODE.equals(System.getProperty(READ_MODE_PROPERTY));
+        this.isBinaryFormat = isMappedRead || BINARY_FORMAT.equals(System.getProperty(FORMAT_PROPERTY));
+        Durability durability = Durability.fromSetting(System.getProperty(DURABILITY_PROPERTY));
+        long groupCommitMillis = Long.getLong(GROUP_COMMIT_PROPERTY, DEFAULT_GROUP_COMMIT_MILLIS);
+        this.transactionSnapshot = new SegmentedSnapshot(TRANSACTION_FILE,
+                isBinaryFormat ? BinaryTransactionFile.EXTENSION : TEXT_EXTENSION, BINARY_TRANSACTION_FILE);
+        this.transactionStore = new Compactor.Store(transactionSnapshot, TRANSACTION_JOURNAL_FILE,
+                durability, groupCommitMillis);
+        this.budgetStore = new Compactor.Store(BUDGET_FILE, BUDGET_JOURNAL_FILE, BUDGET_KEY_LENGTH,
+                durability, groupCommitMillis);
+        this.bankStore = new Compactor.Store(BANK_FILE, BANK_JOURNAL_FILE, BANK_KEY_LENGTH,
+                durability, groupCommitMillis);
+        this.compactor = new Compactor(List.of(transactionStore, budgetStore, bankStore));
+        this.writer = new PersistenceWriter(PersistenceWriter.QUEUE_CAPACITY, this::requestCompaction);
+        compactor.recover();
+
         logger.log(Level.INFO, "Storage initialized successfully.");
 
     }
 
+    /**
+     * Persists a newly added transaction.
+     * <p>
+     * In journaled mode only a single record is appended, so the cost does not grow with
+     * the size of the ledger. Compaction into transactions.txt happens in the background.
+     * </p>
+     *
+     * @param bank        The bank the transaction was added to.
+     * @param transaction The transaction that was added.
+     */
+    public void appendTransaction(Bank bank, Transaction transaction) {
+        assert bank != null && transaction != null : "Bank and transaction should not be null";
+
+        if (!isJournaled) {
+            saveTransactions(User.getBanks());
+            return;
+        }
+        appendRecord(transactionStore, null, ADD_RECORD + "|" + formatTransaction(bank, transaction));
+    }
+
+    /**
+     * Persists the deletion of a transaction.
+     * <p>
+     * The record gives the position of the transaction among the bank's transactions of the same
+     * month, so compaction only has to read the segment of that month.
+     * </p>
+     *
+     * @param bank    The bank the transaction was deleted from.
+     * @param index   The 0-based index the transaction occupied before it was removed.
+     * @param removed The transaction that was removed.
+     */
+    public void appendTransactionDeletion(Bank bank, int index, Transaction removed) {
+        assert bank != null && removed != null : "Bank and transaction should not be null";
+
+        if (!isJournaled) {
+            saveTransactions(User.getBanks());
+            return;
+        }
+        Date date = removed.getDate();
+        TransactionColumns transactions = bank.getTransactions();
+        int monthIndex = 0;
+        for (int row = 0; row < index; row++) {
+            if (transactions.getYear(row) == date.getYear() && transactions.getMonth(row) == date.getMonth()) {
+                monthIndex++;
+            }
+        }
+        appendRecord(transactionStore, null, DELETE_RECORD + "|" + bank.getId() + "|" + date.getYear() + "|"
+                + date.getMonth().name() + "|" + monthIndex);
+    }
+
+    /**
+     * Persists a newly added or updated bank, such as after its balance changed.
+     *
+     * @param bank The bank to persist.
+     */
+    public void appendBank(Bank bank) {
+        assert bank != null : "Bank should not be null";
+
+        if (isSaved(savedBankVersions, bank, bank.getVersion())) {
+            logger.log(Level.FINE, "Bank {0} is unchanged, not saving it", bank.getId());
+            return;
+        }
+        if (!isJournaled) {
+            saveBanks(User.getBanks());
+            return;
+        }
+        appendRecord(bankStore, String.valueOf(bank.getId()), UPSERT_RECORD + "|" + formatBank(bank));
+        savedBankVersions.put(bank, bank.getVersion());
+    }
+
+    /**
+     * Persists a newly added or updated budget.
+     *
+     * @param budget The budget to persist.
+     */
+    public void appendBudget(Budget budget) {
+        assert budget != null : "Budget should not be null";
+
+        if (isSaved(savedBudgetVersions, budget, budget.getVersion())) {
+            return;
+        }
+        if (!isJournaled) {
+            saveBudgets(User.getAllBudgets());
+            return;
+        }
+        int bankId = getBudgetBankId(budget);
+        String key = bankId + "|" + budget.getCategory().name() + "|" + budget.getMonth().name();
+        appendRecord(budgetStore, key, UPSERT_RECORD + "|" + formatBudget(budget, bankId));
+        savedBudgetVersions.put(budget, budget.getVersion());
+    }
+
+    /**
+     * Returns whether an entity was last persisted at its current version.
+     */
+    private static <T> boolean isSaved(Map<T, ? extends Number> savedVersions, T entity, long version) {
+        Number saved = savedVersions.get(entity);
+        return saved != null && saved.longValue() == version;
+    }
+
+    /**
+     * Returns whether every entity of the list was last persisted at its current version, and no
+     * other entity was persisted since, so a snapshot of the list would equal the stored one.
+     */
+    private static <T> boolean isAllSaved(Map<T, Long> savedVersions, Collection<T> entities,
+                                          ToLongFunction<T> version) {
+        if (savedVersions.size() != entities.size()) {
+            return false;
+        }
+        for (T entity : entities) {
+            if (!isSaved(savedVersions, entity, version.applyAsLong(entity))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the current versions of a complete list of persisted entities.
+     */
+    private static <T> void markAllSaved(Map<T, Long> savedVersions, Collection<T> entities,
+                                         ToLongFunction<T> version) {
+        savedVersions.clear();
+        for (T entity : entities) {
+            savedVersions.put(entity, version.applyAsLong(entity));
+        }
+    }
+
+    /**
+     * Hands a record for a store's journal to the {@link PersistenceWriter}. In
+     * {@link Durability#OS_BUFFERED} mode this returns right away; otherwise it waits until the
+     * record has been written, so the durability still holds when the command completes.
+     *
+     * @param key The entity the record replaces, or {@code null} for transaction records.
+     */
+    private void appendRecord(Compactor.Store store, String key, String record) {
+        writer.publish(new PersistenceWriter.ChangeEvent(store, key, record));
+        if (store.getJournal().getDurability() != Durability.OS_BUFFERED) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Starts background compaction once a store has journaled records, and asks for it right away
+     * once the journal grows past {@value #COMPACTION_THRESHOLD} records. Never waits for compaction.
+     */
+    private void requestCompaction(Compactor.Store store) {
+        compactor.start();
+        if (store.getJournal().getRecordCount() >= COMPACTION_THRESHOLD) {
+            logger.log(Level.INFO, "Requesting compaction of {0}", store.getSnapshotFile());
+            compactor.requestCompaction();
+        }
+    }
+
+    /**
+     * Waits until every change handed to the persistence writer so far has been written to its journal.
+     */
+    public void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Waits until every change handed to the persistence writer has been written to its journal, then
+     * lets a compaction that is in progress or was requested by those writes finish and stops background
+     * compaction, so only the snapshot, its listed segments and the journals are left on disk.
+     * Called when the application exits.
+     */
+    public void close() {
+        writer.flush();
+        compactor.shutdown();
+    }
+
+    /**
+     * Returns how well the persistence writer keeps up with the changes made by commands.
+     */
+    public PersistenceWriter.Stats getWriterStats() {
+        return writer.getStats();
+    }
+
     /**
      * Saves all transactions from the given list of banks to disk.
+     * <p>
+     * Only the segments of banks whose transactions changed since they were last loaded or saved
+     * are rewritten, and the manifest is updated to list them. The result is a full snapshot, so
+     * the transaction journal is reset afterwards. Waits for any compaction of the transactions
+     * that is in progress.
+     * </p>
      *
      * @param banks The list of {@link Bank} objects whose transactions will be saved.
      */
@@ -70,29 +384,125 @@ public class Storage {
     public void saveTransactions(ArrayList<Bank> banks) {
         assert banks != null : "Banks list should not be null";
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(TRANSACTION_FILE))) {
-            for (Bank bank : banks) {
-                assert bank != null : "Bank should not be null";
-                assert bank.getTransactions() != null : "Bank must have a valid transactions list";
+        writer.flush();
+        synchronized (transactionStore.getLock()) {
+            writeTransactionSegments(banks);
+        }
+    }
 
-                for (Transaction t : bank.getTransactions()) {
-                    assert t != null : "Transaction object should not be null";
+    private void writeTransactionSegments(ArrayList<Bank> banks) {
+        Journal journal = transactionStore.getJournal();
+        SegmentedSnapshot.Manifest manifest;
+        try {
+            manifest = transactionSnapshot.readManifest();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to read transaction manifest", e);
+            return;
+        }
 
-                    writeTransactions(bank, t, pw);
-                }
+        Map<String, SegmentedSnapshot.SegmentWriter> changed = new LinkedHashMap<>();
+        Map<String, long[]> written = new HashMap<>();
+        List<Bank> changedBanks = new ArrayList<>();
+        for (Bank bank : banks) {
+            assert bank != null : "Bank should not be null";
 
-                logger.log(Level.INFO, "Saved {0} transactions for bank ID {1} to {2}",
-                        new Object[]{bank.getTransactions().size(), bank.getId(), TRANSACTION_FILE});
+            if (!manifest.needsFullWrite() && (!bank.isTransactionsLoaded()
+                    || isSaved(savedTransactionVersions, bank, bank.getTransactionVersion()))) {
+                continue;
             }
+            TransactionColumns transactions = bank.getTransactions();
+            Map<String, List<Integer>> months = groupByMonth(bank.getId(), transactions);
+            months.forEach((key, rows) -> {
+                long[] rowIds = getRowIds(transactions, rows);
+                if (!manifest.getSegments().containsKey(key) || !Arrays.equals(savedSegments.get(key), rowIds)) {
+                    changed.put(key, (file, generation) -> writeSegment(bank, transactions, rows, file, generation));
+                    written.put(key, rowIds);
+                }
+            });
+            for (String key : manifest.getSegments().keySet()) {
+                if (TransactionSegments.isValid(key) && TransactionSegments.getBankId(key) == bank.getId()
+                        && !months.containsKey(key)) {
+                    changed.put(key, null);
+                }
+            }
+            changedBanks.add(bank);
+        }
+
+        try {
+            transactionSnapshot.write(manifest, journal.getGeneration(), changed);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to save transactions", e);
             e.printStackTrace();
+            return;
+        }
+        savedSegments.keySet().removeIf(key -> changed.containsKey(key) && changed.get(key) == null);
+        savedSegments.putAll(written);
+        for (Bank bank : changedBanks) {
+            savedTransactionVersions.put(bank, bank.getTransactionVersion());
         }
+        logger.log(Level.INFO, "Saved {0} changed months of {1} banks to {2}",
+                new Object[]{written.size(), changedBanks.size(), TRANSACTION_FILE});
+        journal.reset();
     }
 
+    /**
+     * Groups the rows of a bank's transactions by the segment they are stored in, keeping their order.
+     */
+    private static Map<String, List<Integer>> groupByMonth(int bankId, TransactionColumns transactions) {
+        Map<String, List<Integer>> months = new LinkedHashMap<>();
+        String key = null;
+        int keyYear = 0;
+        Month keyMonth = null;
+        for (int row = 0; row < transactions.size(); row++) {
+            int year = transactions.getYear(row);
+            Month month = transactions.getMonth(row);
+            if (year != keyYear || month != keyMonth) {
+                key = TransactionSegments.key(bankId, year, month);
+                keyYear = year;
+                keyMonth = month;
+            }
+            months.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+        return months;
+    }
+
+    private static long[] getRowIds(TransactionColumns transactions, List<Integer> rows) {
+        long[] rowIds = new long[rows.size()];
+        for (int i = 0; i < rowIds.length; i++) {
+            rowIds[i] = transactions.getRowId(rows.get(i));
+        }
+        return rowIds;
+    }
+
+    /**
+     * Writes rows of a single bank's transactions to a segment file, in the format its name selects.
+     */
+    private static void writeSegment(Bank bank, TransactionColumns transactions, List<Integer> rows, Path file,
+                                     long generation) throws IOException {
+        if (SegmentedSnapshot.isBinarySegment(file.getFileName().toString())) {
+            BinaryTransactionFile.Writer writer = new BinaryTransactionFile.Writer();
+            for (int row : rows) {
+                writer.add(bank.getId(), transactions.getTag(row), transactions.getCategory(row),
+                        transactions.getValue(row), transactions.getDay(row), transactions.getMonth(row),
+                        transactions.getYear(row), transactions.getCurrency(row));
+            }
+            writer.writeTo(file, generation);
+        } else {
+            List<String> lines = new ArrayList<>(rows.size());
+            for (int row : rows) {
+                lines.add(TransactionFileConverter.formatLine(bank.getId(), transactions.getTag(row),
+                        transactions.getCategory(row), transactions.getValue(row), transactions.getDay(row),
+                        transactions.getMonth(row), transactions.getYear(row), transactions.getCurrency(row)));
+            }
+            Compactor.writeSnapshot(file.toString(), generation, lines);
+        }
+        logger.log(Level.INFO, "Saved {0} transactions for bank ID {1} to {2}",
+                new Object[]{rows.size(), bank.getId(), file.getFileName()});
+    }
 
     /**
-     * Loads all transactions from the transaction file into their corresponding banks.
+     * Loads all transactions from the transaction file into their corresponding banks,
+     * then replays any journaled changes made since the file was last written.
      * <p>
      * Transactions are matched to banks based on their stored bank ID. If a transaction
      * refers to a non-existent bank or contains invalid data, it is skipped with a warning.
@@ -101,65 +511,527 @@ public class Storage {
 
     //@@author kevinlokey
     public void loadTransactions() {
-        File file = new File(TRANSACTION_FILE);
-        if (transactionFileDoesNotExist(file)) {
-            return;
+        writer.flush();
+        long snapshotGeneration = 0;
+        segmentsByBank.clear();
+        savedSegments.clear();
+        Path legacyFile = transactionSnapshot.getLegacyBinaryFile();
+        if (legacyFile != null) {
+            snapshotGeneration = isMappedRead
+                    ? mapTransactionFile(legacyFile)
+                    : readBinaryTransactionFile(legacyFile);
+        } else if (!transactionFileDoesNotExist(new File(TRANSACTION_FILE))) {
+            snapshotGeneration = readTransactionSegments();
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            logger.info("Loading transactions from file...");
+        for (Bank bank : User.getBanks()) {
+            if (bank.isTransactionsLoaded()) {
+                savedTransactionVersions.put(bank, bank.getTransactionVersion());
+            }
+        }
+        transactionStore.getJournal().replay(snapshotGeneration, this::applyJournalRecord);
+    }
+
+    /**
+     * Reads the transaction manifest and makes every bank load its segments lazily.
+     * Transactions stored in the manifest itself, by a version from before segmentation,
+     * are read right away.
+     *
+     * @return The journal generation recorded in the manifest, or 0 if it could not be read.
+     */
+    private long readTransactionSegments() {
+        SegmentedSnapshot.Manifest manifest;
+        try {
+            manifest = transactionSnapshot.readManifest();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading transaction manifest", e);
+            return 0;
+        }
+        if (!manifest.getInlineLines().isEmpty()) {
+            readTransactionFile(transactionSnapshot.getManifestFile());
+        }
+
+        for (Map.Entry<String, String> entry : manifest.getSegments().entrySet()) {
+            String key = entry.getKey();
+            Bank bank = TransactionSegments.isValid(key) ? findBank(TransactionSegments.getBankId(key)) : null;
+            if (bank == null) {
+                logger.warning("Skipping transaction segment of unknown bank: " + key);
+                continue;
+            }
+            segmentsByBank.computeIfAbsent(bank.getId(), k -> new ArrayList<>())
+                    .add(new Segment(key, transactionSnapshot.resolve(entry.getValue())));
+        }
+        for (Map.Entry<Integer, List<Segment>> entry : segmentsByBank.entrySet()) {
+            entry.getValue().sort((a, b) -> TransactionSegments.ORDER.compare(a.key, b.key));
+            Bank bank = User.getBanks().get(entry.getKey());
+            bank.setTransactionLoader(transactions -> loadSegments(bank, transactions));
+        }
+        logger.log(Level.INFO, "Found {0} transaction segments", manifest.getSegments().size());
+        return manifest.getGeneration();
+    }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length != TRANSACTION_DATA_LENGTH) {
-                    logger.warning("Skipping malformed transaction line: " + line);
+    /**
+     * Returns the bank with the given ID, or {@code null} if there is no such bank.
+     */
+    private static Bank findBank(int bankId) {
+        return bankId >= 0 && bankId < User.getBanks().size() ? User.getBanks().get(bankId) : null;
+    }
 
+    /**
+     * Adds every stored segment of a bank to its transaction list, in load order.
+     * <p>
+     * Different banks may be loaded on different threads, as a cross-bank summary does. Each bank's
+     * segments are read without locking, since no other bank shares them, and only the bookkeeping
+     * shared by all banks is updated under this storage's lock.
+     * </p>
+     */
+    private void loadSegments(Bank bank, TransactionColumns transactions) {
+        List<Segment> segments;
+        synchronized (this) {
+            segments = segmentsByBank.remove(bank.getId());
+        }
+        Map<String, long[]> loadedSegments = new HashMap<>();
+        for (Segment segment : segments) {
+            int start = transactions.size();
+            transactions.addAll(readSegment(bank.getId(), segment));
+            if (TransactionSegments.isMonthly(segment.key)) {
+                long[] rowIds = new long[transactions.size() - start];
+                for (int i = 0; i < rowIds.length; i++) {
+                    rowIds[i] = transactions.getRowId(start + i);
+                }
+                loadedSegments.put(segment.key, rowIds);
+            }
+        }
+        synchronized (this) {
+            savedSegments.putAll(loadedSegments);
+            savedTransactionVersions.put(bank, bank.getTransactionVersion());
+        }
+    }
+
+    /**
+     * Returns the transactions stored in a segment, reading them on first use.
+     */
+    private List<Transaction> readSegment(int bankId, Segment segment) {
+        if (segment.transactions != null) {
+            return segment.transactions;
+        }
+        List<Transaction> transactions = new ArrayList<>();
+        try {
+            if (!SegmentedSnapshot.isBinarySegment(segment.file.toString())) {
+                try (LineScanner scanner = new LineScanner(Checksums.newReader(segment.file))) {
+                    TransactionBatch batch = new TransactionBatch();
+                    while (scanner.nextLine()) {
+                        batch.parseLine(scanner, User.getBanks());
+                    }
+                    transactions = batch.takeTransactions();
+                }
+            } else if (isMappedRead) {
+                transactions = getMapped(segment).select(bankId, TransactionMatcher.ALL);
+            } else {
+                List<Transaction> read = transactions;
+                BinaryTransactionFile.read(segment.file, (id, tag, category, value, day, month, year, currency) -> {
+                    if (id != bankId) {
+                        return;
+                    }
+                    try {
+                        read.add(new Transaction(value, category, Date.of(day, month, year), currency, tag));
+                    } catch (FinanceException | IllegalArgumentException e) {
+                        logger.log(Level.WARNING, "Skipping invalid transaction for bank " + bankId, e);
+                        printMessage("Skipping transaction:" + e.getMessage());
+                    }
+                });
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading transaction segment " + segment.file, e);
+        }
+        segment.transactions = transactions;
+        return transactions;
+    }
+
+    private MappedTransactionFile getMapped(Segment segment) throws IOException {
+        if (segment.mapped == null) {
+            segment.mapped = MappedTransactionFile.open(segment.file);
+        }
+        return segment.mapped;
+    }
+
+    /**
+     * Memory-maps the binary transaction file from before segmentation and makes every bank load
+     * its transactions from it lazily. Journal records replayed afterwards load the banks they touch.
+     *
+     * @param file The binary transaction file.
+     * @return The journal generation recorded in the file header, or 0 if it could not be mapped.
+     */
+    private long mapTransactionFile(Path file) {
+        logger.info("Mapping transactions file " + file.getFileName());
+        MappedTransactionFile mapped;
+        try {
+            mapped = MappedTransactionFile.open(file);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error mapping transactions file", e);
+            return 0;
+        }
+
+        for (Bank bank : User.getBanks()) {
+            Segment segment = new Segment(String.valueOf(bank.getId()), file);
+            segment.mapped = mapped;
+            segmentsByBank.put(bank.getId(), new ArrayList<>(List.of(segment)));
+            bank.setTransactionLoader(transactions -> loadSegments(bank, transactions));
+        }
+        logger.log(Level.INFO, "Mapped {0} transactions", mapped.getRecordCount());
+        return mapped.getGeneration();
+    }
+
+    /**
+     * Returns the transactions of a bank that satisfy the matcher, in order.
+     * <p>
+     * If the bank's transactions have not been loaded yet, only the stored segments of months the
+     * matcher can match are read, and the bank itself stays unloaded. Mapped binary segments are
+     * scanned directly, so only the matching rows are turned into transactions.
+     * </p>
+     *
+     * @param bank    The bank whose transactions to search.
+     * @param matcher The condition a transaction has to satisfy.
+     * @return The matching transactions.
+     */
+    public ArrayList<Transaction> selectTransactions(Bank bank, TransactionMatcher matcher) {
+        ArrayList<Transaction> matches = new ArrayList<>();
+        if (!bank.isTransactionsLoaded()) {
+            List<Segment> segments;
+            synchronized (this) {
+                segments = segmentsByBank.get(bank.getId());
+            }
+            for (Segment segment : segments) {
+                if (TransactionSegments.isMonthly(segment.key) && !matcher.mayMatchMonth(
+                        TransactionSegments.getMonth(segment.key), TransactionSegments.getYear(segment.key))) {
                     continue;
                 }
+                if (isMappedRead && segment.transactions == null
+                        && SegmentedSnapshot.isBinarySegment(segment.file.toString())) {
+                    try {
+                        matches.addAll(getMapped(segment).select(bank.getId(), matcher));
+                        continue;
+                    } catch (IOException e) {
+                        logger.log(Level.SEVERE, "Error mapping transaction segment " + segment.file, e);
+                    }
+                }
+                for (Transaction t : readSegment(bank.getId(), segment)) {
+                    if (matcher.matches(t)) {
+                        matches.add(t);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        TransactionColumns transactions = bank.getTransactions();
+        for (int row = 0; row < transactions.size(); row++) {
+            if (transactions.matches(row, matcher)) {
+                matches.add(transactions.get(row));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the transactions of a bank dated between two dates, inclusive, in date order.
+     * <p>
+     * The transactions of a loaded bank are found through its date index, so only the rows in the
+     * range are read. Otherwise only the stored segments of the months in the range are read, as in
+     * {@link #selectTransactions(Bank, TransactionMatcher)}.
+     * </p>
+     *
+     * @param bank  The bank whose transactions to select.
+     * @param start The first date to select.
+     * @param end   The last date to select.
+     * @return The transactions in the range.
+     */
+    public ArrayList<Transaction> selectTransactionsBetween(Bank bank, Date start, Date end) {
+        if (!bank.isTransactionsLoaded()) {
+            ArrayList<Transaction> matches = selectTransactions(bank, TransactionMatcher.between(start, end));
+            matches.sort(Comparator.comparingInt(transaction -> transaction.getDate().getKey()));
+            return matches;
+        }
+        TransactionColumns transactions = bank.getTransactions();
+        ArrayList<Transaction> matches = new ArrayList<>();
+        transactions.forEachRowBetween(start, end, row -> matches.add(transactions.get(row)));
+        return matches;
+    }
+
+    /**
+     * Returns the transactions of a bank whose values lie between two amounts, inclusive, in order of value.
+     * <p>
+     * The transactions of a loaded bank are found through its value index, so only the rows in the
+     * range are read. Otherwise the stored transactions are scanned as in
+     * {@link #selectTransactions(Bank, TransactionMatcher)}.
+     * </p>
+     *
+     * @param bank The bank whose transactions to select.
+     * @param min  The smallest value to select, in minor units.
+     * @param max  The largest value to select, in minor units.
+     * @return The transactions in the range.
+     */
+    public ArrayList<Transaction> selectTransactionsCosting(Bank bank, long min, long max) {
+        if (!bank.isTransactionsLoaded()) {
+            ArrayList<Transaction> matches = selectTransactions(bank,
+                    (category, value, day, month, year, currency, tag) -> value >= min && value <= max);
+            matches.sort(Comparator.comparingLong(Transaction::getValue));
+            return matches;
+        }
+        TransactionColumns transactions = bank.getTransactions();
+        ArrayList<Transaction> matches = new ArrayList<>();
+        transactions.forEachRowCosting(min, max, row -> matches.add(transactions.get(row)));
+        return matches;
+    }
+
+    /**
+     * Returns the transactions of a bank with the largest values, from the largest down. The bank's
+     * transactions are loaded if they are not yet, and found through its value index.
+     *
+     * @param bank  The bank whose transactions to select.
+     * @param count The number of transactions to select at most.
+     * @return The largest transactions.
+     */
+    public ArrayList<Transaction> selectLargestTransactions(Bank bank, int count) {
+        TransactionColumns transactions = bank.getTransactions();
+        ArrayList<Transaction> largest = new ArrayList<>(Math.min(count, transactions.size()));
+        transactions.forEachLargestRow(count, row -> largest.add(transactions.get(row)));
+        return largest;
+    }
+
+    /**
+     * Returns the transactions of a bank whose text contains the keyword, in order, as matched by
+     * {@link TransactionMatcher#containing(String)}.
+     * <p>
+     * The transactions of a loaded bank are looked up in its word index, so only the rows whose text
+     * has a word holding part of the keyword are checked.
+     * Otherwise the stored transactions are scanned as in {@link #selectTransactions(Bank, TransactionMatcher)}.
+     * </p>
+     *
+     * @param bank    The bank whose transactions to search.
+     * @param keyword The lower-case keyword.
+     * @return The matching transactions.
+     */
+    public ArrayList<Transaction> selectTransactionsContaining(Bank bank, String keyword) {
+        if (!bank.isTransactionsLoaded()) {
+            return selectTransactions(bank, TransactionMatcher.containing(keyword));
+        }
+        TransactionColumns transactions = bank.getTransactions();
+        ArrayList<Transaction> matches = new ArrayList<>();
+        transactions.forEachRowContaining(keyword, row -> matches.add(transactions.get(row)));
+        return matches;
+    }
+
+    /**
+     * Returns the transactions of a bank with a category in a month, in order.
+     * <p>
+     * The transactions of a loaded bank are found by ANDing its bitmap indexes, so only the matching rows
+     * are read. Otherwise only the stored segments of the month are read, as in
+     * {@link #selectTransactions(Bank, TransactionMatcher)}.
+     * </p>
+     *
+     * @param bank     The bank whose transactions to select.
+     * @param category The category to select, or {@code null} for every category.
+     * @param month    The month to select, or {@code null} for every month.
+     * @param year     The year of the month, or {@link TransactionColumns#ANY_YEAR} for that month of every year.
+     * @return The matching transactions.
+     */
+    public ArrayList<Transaction> selectTransactionsOf(Bank bank, Category category, Month month, int year) {
+        if (!bank.isTransactionsLoaded()) {
+            TransactionMatcher matcher = (cat, value, day, m, y, currency, tag) -> category == null || cat == category;
+            if (month != null) {
+                matcher = TransactionMatcher.inMonths((m, y) -> m == month
+                        && (year == TransactionColumns.ANY_YEAR || y == year), matcher);
+            }
+            return selectTransactions(bank, matcher);
+        }
+        TransactionColumns transactions = bank.getTransactions();
+        ArrayList<Transaction> matches = new ArrayList<>();
+        transactions.forEachRowOf(category, null, month, year, row -> matches.add(transactions.get(row)));
+        return matches;
+    }
 
-                ParseTransactionData data = getParseTransactionData(parts);
-                if (data.value() < 0) {
-                    logger.log(Level.WARNING, "Skipping invalid transaction with negative value: " + line);
+    /**
+     * Returns a bank's total spending on a category in a currency in a month, as
+     * {@link Bank#getSpending(Month, int, Category, Currency)} reads it from a loaded bank.
+     * <p>
+     * If the bank's transactions are not loaded, only the stored segments of that month are read, and
+     * the bank itself stays unloaded. The totals of each segment are worked out the first time they are
+     * read; mapped binary segments are totalled straight from the mapped rows.
+     * </p>
+     *
+     * @param year The year of the month, or {@link TransactionColumns#ANY_YEAR} for that month of every year.
+     * @return The total, in minor units of the currency.
+     */
+    public long getSpending(Bank bank, Month month, int year, Category category, Currency currency) {
+        List<Segment> segments = getStoredSegments(bank);
+        if (segments == null) {
+            return bank.getSpending(month, year, category, currency);
+        }
+        long total = 0;
+        for (Segment segment : segments) {
+            if (TransactionSegments.isMonthly(segment.key) && (TransactionSegments.getMonth(segment.key) != month
+                    || year != TransactionColumns.ANY_YEAR && TransactionSegments.getYear(segment.key) != year)) {
+                continue;
+            }
+            total += readSegmentTotals(bank.getId(), segment).getTotal(month, year, category, currency);
+        }
+        return total;
+    }
+
+    /**
+     * Returns a bank's total spending on a category in a currency from the start of one month to the end
+     * of another, as {@link Bank#getSpending(Month, int, Month, int, Category, Currency)} reads it from a
+     * loaded bank. If the bank's transactions are not loaded, only the stored segments of the months in
+     * the range are read, as in {@link #getSpending(Bank, Month, int, Category, Currency)}.
+     *
+     * @return The total, in minor units of the currency.
+     */
+    public long getSpending(Bank bank, Month firstMonth, int firstYear, Month lastMonth, int lastYear,
+                            Category category, Currency currency) {
+        List<Segment> segments = getStoredSegments(bank);
+        if (segments == null) {
+            return bank.getSpending(firstMonth, firstYear, lastMonth, lastYear, category, currency);
+        }
+        int firstMonthKey = Date.pack(1, firstMonth, firstYear) / 100;
+        int lastMonthKey = Date.pack(1, lastMonth, lastYear) / 100;
+        long total = 0;
+        for (Segment segment : segments) {
+            if (TransactionSegments.isMonthly(segment.key)) {
+                int monthKey = Date.pack(1, TransactionSegments.getMonth(segment.key),
+                        TransactionSegments.getYear(segment.key)) / 100;
+                if (monthKey < firstMonthKey || monthKey > lastMonthKey) {
                     continue;
                 }
+            }
+            total += readSegmentTotals(bank.getId(), segment).getTotal(firstMonthKey, lastMonthKey, category,
+                    currency);
+        }
+        return total;
+    }
 
-                ParsedTransactionInfo info = getParsedTransactionInfo(parts);
+    /**
+     * Returns the stored segments of a bank whose transactions are not loaded, or {@code null} if they are.
+     */
+    private List<Segment> getStoredSegments(Bank bank) {
+        if (bank.isTransactionsLoaded()) {
+            return null;
+        }
+        synchronized (this) {
+            return segmentsByBank.get(bank.getId());
+        }
+    }
 
-                try {
-                    Transaction transaction = new Transaction(data.value(), data.category(), new Date(info.day(),
-                            info.month(), info.year()), info.currency(), data.tag());
+    /**
+     * Returns the totals of the transactions of a bank stored in a segment, working them out on first use.
+     */
+    private SegmentTotals readSegmentTotals(int bankId, Segment segment) {
+        if (segment.totals != null) {
+            return segment.totals;
+        }
+        SegmentTotals totals = new SegmentTotals();
+        if (isMappedRead && segment.transactions == null
+                && SegmentedSnapshot.isBinarySegment(segment.file.toString())) {
+            try {
+                getMapped(segment).addTotals(bankId, totals);
+                segment.totals = totals;
+                return totals;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error mapping transaction segment " + segment.file, e);
+            }
+        }
+        for (Transaction transaction : readSegment(bankId, segment)) {
+            totals.add(transaction);
+        }
+        segment.totals = totals;
+        return totals;
+    }
 
-                    Bank bankToBeLoadedTo = User.getBanks().get(data.bankId());
-                    bankToBeLoadedTo.getTransactions().add(transaction);
-                } catch (FinanceException | IllegalArgumentException e) {
-                    logger.log(Level.WARNING, "Skipping invalid transaction: " + line, e);
+    /**
+     * Reads every record of a binary transaction file into the banks.
+     *
+     * @param file The binary transaction file.
+     * @return The journal generation recorded in the file header, or 0 if it could not be read.
+     */
+    private long readBinaryTransactionFile(Path file) {
+        logger.info("Loading transactions from binary file...");
+        try {
+            return BinaryTransactionFile.read(file, (bankId, tag, category, value, day, month, year,
+                    currency) -> {
+                try {
+                    Transaction transaction = new Transaction(value, category, Date.of(day, month, year),
+                            currency, tag);
+                    User.getBanks().get(bankId).getTransactions().add(transaction);
+                } catch (FinanceException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                    logger.log(Level.WARNING, "Skipping invalid transaction for bank " + bankId, e);
                     printMessage("Skipping transaction:" + e.getMessage());
                 }
-            }
+            });
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error reading binary transactions file", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Reads every transaction line of a text transaction file into the banks, parsing large files
+     * in parallel with {@link ParallelTransactionLoader}.
+     *
+     * @param file The transaction file.
+     * @return The journal generation recorded in the file header, or 0 if there is none.
+     */
+    private long readTransactionFile(Path file) {
+        logger.info("Loading transactions from file...");
+        try {
+            return ParallelTransactionLoader.load(file, User.getBanks());
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Error reading transactions file", e);
             e.printStackTrace();
+            return 0;
         }
     }
+
     /**
-     * Parses transaction metadata (bank ID, tag, category, and value) from a line of text.
+     * Applies one journal record on top of the transactions loaded from the snapshot.
+     * Deletions only remove the transaction; the bank balance is persisted separately.
      *
-     * @param parts The split string array representing a transaction.
-     * @return A record containing parsed transaction data.
+     * @param record The journal record.
      */
+    private void applyJournalRecord(String record) {
+        if (record.startsWith(ADD_RECORD + "|")) {
+            journalScanner.reset(record, ADD_RECORD.length() + 1);
+            journalBatch.parseLine(journalScanner, User.getBanks());
+            journalBatch.addToBanks();
+            return;
+        }
 
-    //@@author kevinlokewy
-    private static ParseTransactionData getParseTransactionData(String[] parts) {
-        int bankId = Integer.parseInt(parts[0]);
-        String tag = parts[1];
-        Category category = Category.toCategory(parts[2]);
-        float value = Float.parseFloat(parts[3]);
-        ParseTransactionData data = new ParseTransactionData(bankId, tag, category, value);
-        return data;
-    }
-
-    private record ParseTransactionData(int bankId, String tag, Category category, float value) {
+        journalScanner.reset(record);
+        int fieldCount = journalScanner.getFieldCount();
+        if (!journalScanner.startsWith(DELETE_RECORD + "|")
+                || fieldCount != BANK_DELETE_RECORD_LENGTH && fieldCount != MONTH_DELETE_RECORD_LENGTH) {
+            logger.warning("Skipping malformed journal record: " + record);
+            return;
+        }
+        try {
+            journalScanner.skipField();
+            TransactionColumns transactions = User.getBanks().get(journalScanner.nextInt()).getTransactions();
+            if (fieldCount == BANK_DELETE_RECORD_LENGTH) {
+                transactions.remove(journalScanner.nextInt());
+                return;
+            }
+            int year = journalScanner.nextInt();
+            Month month = journalScanner.nextEnum(MONTHS);
+            int monthIndex = journalScanner.nextInt();
+            for (int row = 0; row < transactions.size(); row++) {
+                if (transactions.getYear(row) == year && transactions.getMonth(row) == month && monthIndex-- == 0) {
+                    transactions.remove(row);
+                    return;
+                }
+            }
+            throw new IndexOutOfBoundsException("No transaction " + monthIndex + " in " + month + " " + year);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            logger.log(Level.WARNING, "Skipping invalid journal record: " + record, e);
+        }
     }
 
     /**
@@ -179,26 +1051,6 @@ public class Storage {
         return false;
     }
 
-    /**
-     * Parses the remaining transaction information (date and currency) from a line of text.
-     *
-     * @param parts The split string array representing a transaction.
-     * @return A record containing parsed transaction date and currency information.
-     */
-
-    //@@author kevinlokewy
-    private static ParsedTransactionInfo getParsedTransactionInfo(String[] parts) {
-        int day = Integer.parseInt(parts[4]);
-        Month month = Month.valueOf(parts[5]);
-        int year = Integer.parseInt(parts[6]);
-        Currency currency = Currency.valueOf(parts[7]);
-        ParsedTransactionInfo info = new ParsedTransactionInfo(day, month, year, currency);
-        return info;
-    }
-
-    private record ParsedTransactionInfo(int day, Month month, int year, Currency currency) {
-    }
-
     /**
      * Saves all budgets to disk.
      *
@@ -207,49 +1059,99 @@ public class Storage {
 
     //@@author kevinlokey
     public void saveBudgets(ArrayList<Budget> budgets) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(BUDGET_FILE))) {
+        if (isAllSaved(savedBudgetVersions, budgets, Budget::getVersion)) {
+            logger.fine("No budget changed, not saving budgets");
+            return;
+        }
+        writer.flush();
+        synchronized (budgetStore.getLock()) {
+            Journal journal = budgetStore.getJournal();
+            List<String> lines = new ArrayList<>(budgets.size());
             for (Budget b : budgets) {
-                int bankId = b.getBank() != null ? b.getBank().getId() : -1; // -1 for logged-out/global
-                writeBudgets(b, pw, bankId);
+                lines.add(formatBudget(b, getBudgetBankId(b)));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            try {
+                Compactor.writeSnapshot(BUDGET_FILE, journal.getGeneration(), lines);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            journal.reset();
+            markAllSaved(savedBudgetVersions, budgets, Budget::getVersion);
         }
     }
 
+    private static int getBudgetBankId(Budget b) {
+        return b.getBank() != null ? b.getBank().getId() : -1; // -1 for logged-out/global
+    }
+
 
     //@@author kevinlokey
     public ArrayList<Budget> loadBudgets() {
+        writer.flush();
         File file = new File(BUDGET_FILE);
-        if (budgetFileDoesNotExist(file)) {
+        if (budgetFileDoesNotExist(file) && !budgetStore.getJournal().hasPendingRecords()) {
             return null;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            logger.info("Loading budgets from file...");
-            String line;
-            ArrayList<Budget> budgets = new ArrayList<>();
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length != BUDGET_DATA_LENGTH) {
-                    logger.log(Level.WARNING, "Skipping malformed budget line: " + line);
-                    continue;
+        long snapshotGeneration = 0;
+        ArrayList<Budget> budgets = new ArrayList<>();
+        if (file.exists()) {
+            try (LineScanner scanner = new LineScanner(Checksums.newReader(file.toPath()))) {
+                logger.info("Loading budgets from file...");
+                while (scanner.nextLine()) {
+                    if (scanner.startsWith(Journal.GENERATION_HEADER)) {
+                        snapshotGeneration = Journal.parseGeneration(scanner.getLine());
+                        continue;
+                    }
+                    if (scanner.startsWith("#")) {
+                        continue;
+                    }
+                    loadBudget(scanner, budgets);
                 }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
 
-                int bankId = Integer.parseInt(parts[0]);
-                Bank bank = bankId == -1 ? null : User.getBanks().stream().filter(b ->
-                        b.getId() == bankId).findFirst().orElse(null);
-                if(bank == null){
-                    continue;
-                }
+        budgetStore.getJournal().replay(snapshotGeneration, record -> {
+            if (!record.startsWith(UPSERT_RECORD + "|")) {
+                logger.warning("Skipping malformed budget journal record: " + record);
+                return;
+            }
+            journalScanner.reset(record, UPSERT_RECORD.length() + 1);
+            loadBudget(journalScanner, budgets);
+        });
+        markAllSaved(savedBudgetVersions, budgets, Budget::getVersion);
+        return budgets;
+    }
 
-                parseBudgets(parts, budgets, bank);
+    /**
+     * Parses the stored budget the scanner is positioned on and adds it to its bank, replacing any
+     * budget previously loaded for the same bank, category and month.
+     *
+     * @param scanner A scanner on a line in the format bankId|category|month|amount|currency.
+     * @param budgets The list of loaded budgets.
+     */
+    private static void loadBudget(LineScanner scanner, ArrayList<Budget> budgets) {
+        if (scanner.getFieldCount() != BUDGET_DATA_LENGTH) {
+            logger.log(Level.WARNING, "Skipping malformed budget line: " + scanner.getLine());
+            return;
+        }
+
+        try {
+            int bankId = scanner.nextInt();
+            Bank bank = bankId == -1 ? null : User.getBanks().stream().filter(b ->
+                    b.getId() == bankId).findFirst().orElse(null);
+            if (bank == null) {
+                return;
             }
-            return budgets;
-        } catch (IOException e) {
-            e.printStackTrace();
+
+            parseBudgets(scanner, budgets, bank);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Skipping invalid budget line: " + scanner.getLine(), e);
         }
-        return null;
     }
 
 
@@ -270,23 +1172,26 @@ public class Storage {
     }
 
     /**
-     * Parses and creates a {@link Budget} from the given string array, then adds it to the provided list.
+     * Parses and creates a {@link Budget} from the remaining fields of a budget line, then adds it to the
+     * provided list.
      *
-     * @param parts   The split string array representing a budget line.
+     * @param scanner The scanner, positioned after the bank ID of a budget line.
      * @param budgets The list to add the parsed budget to.
      * @param bank    The associated bank, or {@code null} for global budgets.
      */
 
     //@@author kevinlokey
-    private static void parseBudgets(String[] parts, ArrayList<Budget> budgets, Bank bank) {
-        Category category = Category.toCategory(parts[1]);
-        Month month = Month.valueOf(parts[2]);
-        float amount = Float.parseFloat(parts[3]);
-        Currency currency = Currency.valueOf(parts[4]);
+    private static void parseBudgets(LineScanner scanner, ArrayList<Budget> budgets, Bank bank) {
+        Category category = scanner.nextEnumIgnoreCase(CATEGORIES);
+        Month month = scanner.nextEnum(MONTHS);
+        long amount = scanner.nextMoney();
+        Currency currency = scanner.nextEnum(CURRENCIES);
         Budget b = new Budget(category, amount, currency, month, bank);
         if (bank != null) {
             bank.addBudgetToBank(b);
         }
+        budgets.removeIf(existing -> existing.getBank() == bank && existing.getCategory() == category
+                && existing.getMonth() == month);
         budgets.add(b);  // <- Add to list so loadBudgets() returns it
     }
 
@@ -296,104 +1201,156 @@ public class Storage {
     public void saveBanks(ArrayList<Bank> banks) {
         assert banks != null : "Banks list should not be null";
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(BANK_FILE))) {
+        if (isAllSaved(savedBankVersions, banks, Bank::getVersion)) {
+            logger.fine("No bank changed, not saving banks");
+            return;
+        }
+        writer.flush();
+        synchronized (bankStore.getLock()) {
+            Journal journal = bankStore.getJournal();
+            List<String> lines = new ArrayList<>(banks.size());
             for (Bank b : banks) {
-                //    System.out.println(b.getBalance());
-                writeBanks(b, pw);
+                lines.add(formatBank(b));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            try {
+                Compactor.writeSnapshot(BANK_FILE, journal.getGeneration(), lines);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            journal.reset();
+            markAllSaved(savedBankVersions, banks, Bank::getVersion);
         }
     }
 
     //@@author kevinlokey
     public ArrayList<Bank> loadBanks() {
+        writer.flush();
         File file = new File(BANK_FILE);
-        if (!file.exists()) {
+        if (!file.exists() && !bankStore.getJournal().hasPendingRecords()) {
             logger.info("No bank file found. Returning null.");
             return null;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            logger.info("Loading banks from file...");
+        long snapshotGeneration = 0;
+        ArrayList<Bank> banks = new ArrayList<>();
+        if (file.exists()) {
+            try (LineScanner scanner = new LineScanner(Checksums.newReader(file.toPath()))) {
+                logger.info("Loading banks from file...");
 
-            String line;
-            ArrayList<Bank> banks = new ArrayList<>();
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length != BANK_DATA_LENGTH) {
-                    logger.log(Level.WARNING, "Skipping malformed bank line: " + line);
-                    continue;
+                while (scanner.nextLine()) {
+                    if (scanner.startsWith(Journal.GENERATION_HEADER)) {
+                        snapshotGeneration = Journal.parseGeneration(scanner.getLine());
+                        continue;
+                    }
+                    if (scanner.startsWith("#")) {
+                        continue;
+                    }
+                    loadBank(scanner, banks);
                 }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error reading banks file", e);
+                e.printStackTrace();
+                return null;
+            }
+        }
 
-                parseBanks(parts, banks);
+        bankStore.getJournal().replay(snapshotGeneration, record -> {
+            if (!record.startsWith(UPSERT_RECORD + "|")) {
+                logger.warning("Skipping malformed bank journal record: " + record);
+                return;
             }
-            return banks;
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error reading banks file", e);
-            e.printStackTrace();
+            journalScanner.reset(record, UPSERT_RECORD.length() + 1);
+            loadBank(journalScanner, banks);
+        });
+        markAllSaved(savedBankVersions, banks, Bank::getVersion);
+        return banks;
+    }
+
+    /**
+     * Parses the stored bank the scanner is positioned on, replacing any bank previously loaded with the same ID.
+     *
+     * @param scanner A scanner on a line in the format id|currency|balance|exchangeRate.
+     * @param banks   The list of loaded banks.
+     */
+    private static void loadBank(LineScanner scanner, ArrayList<Bank> banks) {
+        if (scanner.getFieldCount() != BANK_DATA_LENGTH) {
+            logger.log(Level.WARNING, "Skipping malformed bank line: " + scanner.getLine());
+            return;
+        }
+
+        try {
+            parseBanks(scanner, banks);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Skipping invalid bank line: " + scanner.getLine(), e);
         }
-        return null;
     }
 
     /**
-     * Parses and creates a {@link Bank} from the given string array, then adds it to the provided list.
+     * Parses and creates a {@link Bank} from the fields of a bank line, then adds it to the provided list.
      *
-     * @param parts The split string array representing a bank line.
-     * @param banks The list to add the parsed bank to.
+     * @param scanner The scanner, positioned at the start of a bank line.
+     * @param banks   The list to add the parsed bank to.
      */
 
     //@@author kevinlokey
-    private static void parseBanks(String[] parts, ArrayList<Bank> banks) {
-        int id = Integer.parseInt(parts[0]);
-        Currency currency = Currency.valueOf(parts[1]);
-        float balance = Float.parseFloat(parts[2]);
-        float exchangeRate = Float.parseFloat(parts[3]);
+    private static void parseBanks(LineScanner scanner, ArrayList<Bank> banks) {
+        int id = scanner.nextInt();
+        Currency currency = scanner.nextEnum(CURRENCIES);
+        long balance = scanner.nextMoney();
+        float exchangeRate = scanner.nextFloat();
 
-        banks.add(new Bank(id, currency, balance, exchangeRate));
+        Bank bank = new Bank(id, currency, balance, exchangeRate);
+        for (int i = 0; i < banks.size(); i++) {
+            if (banks.get(i).getId() == id) {
+                banks.set(i, bank);
+                return;
+            }
+        }
+        banks.add(bank);
     }
 
     /**
-     * Writes a single bank entry to file.
+     * Formats a bank as a single delimiter-separated line.
      *
-     * @param b  The {@link Bank} to write.
-     * @param pw The {@link PrintWriter} used to write the line.
+     * @param b The {@link Bank} to format.
+     * @return The line representation of the bank.
      */
 
     //@@author kevinlokey
-    private static void writeBanks(Bank b, PrintWriter pw) {
-        pw.println(b.getId() + "|" +
+    private static String formatBank(Bank b) {
+        return b.getId() + "|" +
                 b.getCurrency().name() + "|" +
-                b.getBalance() + "|" +
-                b.getExchangeRate());
+                Money.toPlainString(b.getBalance()) + "|" +
+                b.getExchangeRate();
     }
 
     /**
-     * Writes a single budget entry to file.
+     * Formats a budget as a single delimiter-separated line.
      *
-     * @param b      The {@link Budget} to write.
-     * @param pw     The {@link PrintWriter} used to write the line.
+     * @param b      The {@link Budget} to format.
      * @param bankId The associated bank ID, or -1 for global budgets.
+     * @return The line representation of the budget.
      */
 
     //@@author kevinlokey
-    private static void writeBudgets(Budget b, PrintWriter pw, int bankId) {
-        pw.println(bankId + "|" +
+    private static String formatBudget(Budget b, int bankId) {
+        return bankId + "|" +
                 b.getCategory().name() + "|" +
                 b.getMonth().name() + "|" +
-                b.getBudget() + "|" +
-                b.getCurrency().name());
+                Money.toPlainString(b.getBudget()) + "|" +
+                b.getCurrency().name();
     }
 
-    //@@author kevinlokey
-    private static void writeTransactions(Bank bank, Transaction t, PrintWriter pw) {
-        pw.println(bank.getId() + "|" +
-                t.getTag() + "|" +
-                t.getCategory().name() + "|" +
-                t.getValue() + "|" +
-                t.getDate().getDay() + "|" +
-                t.getDate().getMonth().name() + "|" +
-                t.getDate().getYear() + "|" +
-                t.getCurrency().name());
+    /**
+     * Formats a transaction as a single delimiter-separated line.
+     *
+     * @param bank The bank the transaction belongs to.
+     * @param t    The transaction to format.
+     * @return The line representation of the transaction.
+     */
+    private static String formatTransaction(Bank bank, Transaction t) {
+        return TransactionFileConverter.formatLine(bank.getId(), t.getTag(), t.getCategory(), t.getValue(),
+                t.getDate().getDay(), t.getDate().getMonth(), t.getDate().getYear(), t.getCurrency());
     }
 }
@@ -0,0 +1,123 @@
+package storage;
+
+import bank.Bank;
+import logger.AppLogger;
+import transaction.TagDictionary;
+import transaction.Transaction;
+import ui.FinanceException;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static ui.OutputManager.printMessage;
+
+/**
+ * Transactions parsed from stored lines, held until they are added to their banks.
+ * <p>
+ * Parsing only reads the list of banks, so separate batches can be filled concurrently.
+ * {@link #addToBanks()} then adds the transactions to their banks in the order their lines
+ * were parsed, and reports the lines that had to be skipped.
+ * </p>
+ */
+public class TransactionBatch {
+    private static final Logger logger = AppLogger.getLogger();
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Month[] MONTHS = Month.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final List<Bank> banks = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final List<String> skipMessages = new ArrayList<>();
+    private long generation;
+
+    /**
+     * Returns the generation of the {@code #gen} header parsed into this batch, or 0 if there was none.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return transactions.size();
+    }
+
+    /**
+     * Parses the stored line the scanner is positioned on. Header lines set the generation, other
+     * comment lines such as checksums are ignored, and malformed or invalid transaction lines are
+     * logged and skipped.
+     *
+     * @param scanner   A scanner on a line in the format bankId|tag|category|value|day|month|year|currency.
+     * @param userBanks The banks of the user, indexed by bank ID.
+     */
+    public void parseLine(LineScanner scanner, List<Bank> userBanks) {
+        if (scanner.startsWith(Journal.GENERATION_HEADER)) {
+            generation = Journal.parseGeneration(scanner.getLine());
+            return;
+        }
+        if (scanner.startsWith("#")) {
+            return;
+        }
+        if (scanner.getFieldCount() != Storage.TRANSACTION_DATA_LENGTH) {
+            logger.warning("Skipping malformed transaction line: " + scanner.getLine());
+            return;
+        }
+
+        try {
+            int bankId = scanner.nextInt();
+            String tag = TagDictionary.intern(scanner.nextString());
+            Category category = scanner.nextEnumIgnoreCase(CATEGORIES);
+            long value = scanner.nextMoney();
+            if (value < 0) {
+                logger.log(Level.WARNING, "Skipping invalid transaction with negative value: " + scanner.getLine());
+                return;
+            }
+            int day = scanner.nextInt();
+            Month month = scanner.nextEnum(MONTHS);
+            int year = scanner.nextInt();
+            Currency currency = scanner.nextEnum(CURRENCIES);
+
+            Transaction transaction = new Transaction(value, category, Date.of(day, month, year), currency, tag);
+            banks.add(userBanks.get(bankId));
+            transactions.add(transaction);
+        } catch (FinanceException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            logger.log(Level.WARNING, "Skipping invalid transaction: " + scanner.getLine(), e);
+            skipMessages.add("Skipping transaction:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the parsed transactions in order instead of adding them to their banks, reports
+     * skipped lines and empties the batch.
+     */
+    public List<Transaction> takeTransactions() {
+        List<Transaction> taken = new ArrayList<>(transactions);
+        for (String message : skipMessages) {
+            printMessage(message);
+        }
+        banks.clear();
+        transactions.clear();
+        skipMessages.clear();
+        return taken;
+    }
+
+    /**
+     * Adds the parsed transactions to their banks in order, reports skipped lines and empties the batch.
+     */
+    public void addToBanks() {
+        for (int i = 0; i < transactions.size(); i++) {
+            banks.get(i).getTransactions().add(transactions.get(i));
+        }
+        for (String message : skipMessages) {
+            printMessage(message);
+        }
+        banks.clear();
+        transactions.clear();
+        skipMessages.clear();
+    }
+}
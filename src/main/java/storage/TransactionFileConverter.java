@@ -0,0 +1,149 @@
+package storage;
+
+import logger.AppLogger;
+import utils.Category;
+import utils.Currency;
+import utils.Money;
+import utils.Month;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts transaction files between the text format (bankId|tag|category|value|day|month|year|currency)
+ * and the binary format of {@link BinaryTransactionFile}, in either direction.
+ * <p>
+ * Can also be run on its own, e.g.
+ * {@code java -cp duke.jar storage.TransactionFileConverter to-binary transactions.txt transactions.bin}.
+ * </p>
+ */
+public class TransactionFileConverter {
+    private static final Logger logger = AppLogger.getLogger();
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Month[] MONTHS = Month.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private TransactionFileConverter() {
+    }
+
+    /**
+     * Converts a text transaction file into a binary one. Malformed lines are skipped.
+     *
+     * @param text   The text transaction file to read.
+     * @param binary The binary transaction file to write.
+     * @return The number of transactions converted.
+     * @throws IOException If either file could not be accessed.
+     */
+    public static int textToBinary(Path text, Path binary) throws IOException {
+        List<String> lines = new ArrayList<>();
+        long generation = 0;
+        try (BufferedReader br = Checksums.newReader(text)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(Journal.GENERATION_HEADER)) {
+                    generation = Journal.parseGeneration(line);
+                } else if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+        return writeBinary(binary, generation, lines);
+    }
+
+    /**
+     * Converts a binary transaction file into a text one.
+     *
+     * @param binary The binary transaction file to read.
+     * @param text   The text transaction file to write.
+     * @return The number of transactions converted.
+     * @throws IOException If either file could not be accessed.
+     */
+    public static int binaryToText(Path binary, Path text) throws IOException {
+        List<String> lines = new ArrayList<>();
+        long generation = readBinary(binary, lines);
+        Compactor.writeSnapshot(text.toString(), generation, lines);
+        return lines.size();
+    }
+
+    /**
+     * Reads a binary transaction file as text lines.
+     *
+     * @param binary The binary transaction file.
+     * @param lines  Receives one text line per transaction.
+     * @return The journal generation recorded in the file.
+     * @throws IOException If the file could not be read.
+     */
+    static long readBinary(Path binary, List<String> lines) throws IOException {
+        return BinaryTransactionFile.read(binary, (bankId, tag, category, value, day, month, year, currency) ->
+                lines.add(formatLine(bankId, tag, category, value, day, month, year, currency)));
+    }
+
+    /**
+     * Writes text transaction lines as a binary transaction file. Malformed lines are skipped.
+     *
+     * @param binary     The binary transaction file.
+     * @param generation The journal generation contained in the lines.
+     * @param lines      The text lines to write.
+     * @return The number of transactions written.
+     * @throws IOException If the file could not be written.
+     */
+    static int writeBinary(Path binary, long generation, Iterable<String> lines) throws IOException {
+        BinaryTransactionFile.Writer writer = new BinaryTransactionFile.Writer();
+        LineScanner scanner = new LineScanner();
+        for (String line : lines) {
+            scanner.reset(line);
+            if (!parseLine(scanner, writer::add)) {
+                logger.log(Level.WARNING, "Skipping malformed transaction line: " + line);
+            }
+        }
+        writer.writeTo(binary, generation);
+        return writer.getRecordCount();
+    }
+
+    /**
+     * Parses the text transaction line the scanner is positioned on and passes its fields to the visitor.
+     *
+     * @return {@code false} if the line is malformed.
+     */
+    static boolean parseLine(LineScanner scanner, BinaryTransactionFile.RecordVisitor visitor) {
+        if (scanner.getFieldCount() != Storage.TRANSACTION_DATA_LENGTH) {
+            return false;
+        }
+        try {
+            visitor.visit(scanner.nextInt(), scanner.nextString(), scanner.nextEnumIgnoreCase(CATEGORIES),
+                    scanner.nextMoney(), scanner.nextInt(), scanner.nextEnum(MONTHS), scanner.nextInt(),
+                    scanner.nextEnum(CURRENCIES));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Formats transaction fields as a text transaction line.
+     */
+    static String formatLine(int bankId, String tag, Category category, long value,
+                             int day, Month month, int year, Currency currency) {
+        StringBuilder sb = new StringBuilder().append(bankId).append('|').append(tag).append('|')
+                .append(category.name()).append('|');
+        return Money.appendPlain(sb, value).append('|').append(day).append('|').append(month.name()).append('|')
+                .append(year).append('|').append(currency.name()).toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+            System.out.println("Usage: TransactionFileConverter <to-binary|to-text> <source> <target>");
+            return;
+        }
+        Path source = Path.of(args[1]);
+        Path target = Path.of(args[2]);
+        int count = args[0].equals("to-binary") ? textToBinary(source, target) : binaryToText(source, target);
+        System.out.println("Converted " + count + " transactions from " + source + " to " + target);
+    }
+}
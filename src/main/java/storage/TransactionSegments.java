@@ -0,0 +1,91 @@
+package storage;
+
+import utils.Month;
+
+import java.util.Comparator;
+
+/**
+ * Keys of the segments that transactions are stored in.
+ * <p>
+ * Transactions are grouped by bank and by the year and month of their date, under keys like
+ * {@code 0-2025-03}. Snapshots written before the grouping by month hold a bank's transactions
+ * in a single segment keyed by the bank ID alone. A bank's transactions are loaded by reading
+ * its segments in {@link #ORDER}, whole-bank segment first, then by year and month.
+ * </p>
+ */
+final class TransactionSegments {
+    private static final Month[] MONTHS = Month.values();
+    private static final int BANK_FIELD = 0;
+    private static final int MONTH_FIELD = 5;
+    private static final int YEAR_FIELD = 6;
+
+    /**
+     * Orders keys by bank, then whole-bank segments first, then by year and month.
+     */
+    static final Comparator<String> ORDER = Comparator.comparingInt(TransactionSegments::getBankId)
+            .thenComparing(TransactionSegments::isMonthly)
+            .thenComparingInt(key -> isMonthly(key) ? getYear(key) * 100 + getMonth(key).ordinal() : 0);
+
+    private TransactionSegments() {
+    }
+
+    /**
+     * Returns the key of the segment holding a bank's transactions of one month.
+     */
+    static String key(int bankId, int year, Month month) {
+        int monthNumber = month.ordinal() + 1;
+        return bankId + "-" + year + "-" + (monthNumber < 10 ? "0" : "") + monthNumber;
+    }
+
+    /**
+     * Returns the key of the segment a stored transaction line belongs to.
+     *
+     * @param line A line in the format bankId|tag|category|value|day|month|year|currency.
+     * @throws IllegalArgumentException If the line does not hold a bank, month and year.
+     */
+    static String keyOfLine(String line) {
+        String[] fields = line.split("\\|", -1);
+        if (fields.length != Storage.TRANSACTION_DATA_LENGTH) {
+            throw new IllegalArgumentException("Malformed transaction line: " + line);
+        }
+        return key(Integer.parseInt(fields[BANK_FIELD]), Integer.parseInt(fields[YEAR_FIELD]),
+                Month.valueOf(fields[MONTH_FIELD]));
+    }
+
+    static int getBankId(String key) {
+        int dash = key.indexOf('-');
+        return Integer.parseInt(dash < 0 ? key : key.substring(0, dash));
+    }
+
+    /**
+     * Returns whether the key is of a single month, rather than of a whole bank.
+     */
+    static boolean isMonthly(String key) {
+        return key.indexOf('-') >= 0;
+    }
+
+    static int getYear(String key) {
+        int dash = key.indexOf('-');
+        return Integer.parseInt(key.substring(dash + 1, key.lastIndexOf('-')));
+    }
+
+    static Month getMonth(String key) {
+        return MONTHS[Integer.parseInt(key.substring(key.lastIndexOf('-') + 1)) - 1];
+    }
+
+    /**
+     * Returns whether a key is well-formed.
+     */
+    static boolean isValid(String key) {
+        try {
+            getBankId(key);
+            if (isMonthly(key)) {
+                getYear(key);
+                getMonth(key);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package summary;
+
+import utils.Month;
+
+/**
+ * A run of consecutive months, possibly spanning several years, that a summary covers.
+ */
+public final class MonthRange {
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private final int firstIndex;
+    private final int lastIndex;
+    private final String title;
+
+    /**
+     * Months are numbered from January of year 0, so consecutive months have consecutive indexes.
+     */
+    private MonthRange(int firstIndex, int lastIndex, String title) {
+        if (lastIndex < firstIndex) {
+            throw new IllegalArgumentException("The last month of a range cannot be before the first.");
+        }
+        this.firstIndex = firstIndex;
+        this.lastIndex = lastIndex;
+        this.title = title;
+    }
+
+    /**
+     * Returns the months from one month to another of the same year, such as JAN-JUN 2026.
+     */
+    public static MonthRange of(Month firstMonth, Month lastMonth, int year) {
+        String title = firstMonth == lastMonth
+                ? firstMonth.name() + " " + year
+                : firstMonth.name() + "-" + lastMonth.name() + " " + year;
+        return new MonthRange(index(firstMonth, year), index(lastMonth, year), title);
+    }
+
+    /**
+     * Returns the twelve months of a year.
+     */
+    public static MonthRange ofYear(int year) {
+        return new MonthRange(index(Month.JAN, year), index(Month.DEC, year), Integer.toString(year));
+    }
+
+    /**
+     * Returns a number of months ending with, and including, a given month.
+     *
+     * @param count       The number of months, at least 1.
+     * @param latestMonth The last month of the range, usually the current month.
+     * @param latestYear  The year of the last month.
+     */
+    public static MonthRange lastMonths(int count, Month latestMonth, int latestYear) {
+        if (count < 1) {
+            throw new IllegalArgumentException("A range must have at least one month.");
+        }
+        int lastIndex = index(latestMonth, latestYear);
+        return new MonthRange(lastIndex - count + 1, lastIndex, "LAST " + count + " MONTHS");
+    }
+
+    private static int index(Month month, int year) {
+        return year * MONTHS_PER_YEAR + month.ordinal();
+    }
+
+    public Month getFirstMonth() {
+        return Month.values()[firstIndex % MONTHS_PER_YEAR];
+    }
+
+    public int getFirstYear() {
+        return firstIndex / MONTHS_PER_YEAR;
+    }
+
+    public Month getLastMonth() {
+        return Month.values()[lastIndex % MONTHS_PER_YEAR];
+    }
+
+    public int getLastYear() {
+        return lastIndex / MONTHS_PER_YEAR;
+    }
+
+    /**
+     * Returns the title a summary of the range is shown under, such as {@code JAN-JUN 2026}.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns how many times a month of the year occurs in the range, such as 2 for MAR in
+     * MAR 2025 to APR 2026.
+     */
+    public int countOf(Month month) {
+        int firstOccurrence = firstIndex + Math.floorMod(month.ordinal() - firstIndex, MONTHS_PER_YEAR);
+        return firstOccurrence > lastIndex ? 0 : (lastIndex - firstOccurrence) / MONTHS_PER_YEAR + 1;
+    }
+
+    /**
+     * Returns the first and last months of the range, such as {@code MAR 2025 - FEB 2026}.
+     */
+    @Override
+    public String toString() {
+        return getFirstMonth().name() + " " + getFirstYear() + " - " + getLastMonth().name() + " " + getLastYear();
+    }
+}
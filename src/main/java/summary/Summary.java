@@ -3,21 +3,21 @@ package summary;
 import bank.Bank;
 import storage.Storage;
 import transaction.Transaction;
+import transaction.TransactionColumns;
 import user.User;
 import utils.Budget;
 import utils.Category;
 import ui.OutputManager;
 import utils.Currency;
+import utils.Money;
 import utils.Month;
 import logger.AppLogger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Handles the generation of financial summaries for a given month.
@@ -32,6 +32,8 @@ import java.util.logging.Logger;
 //@@author kevinlokewy
 public class Summary {
     private static final Logger logger = AppLogger.getLogger();
+    private static final int CACHED_SUMMARIES = 32;
+    private static final SummaryCache cache = new SummaryCache(CACHED_SUMMARIES);
 
 
     private final Storage storage;
@@ -60,17 +62,66 @@ public class Summary {
 
         Month monthEnum = Month.valueOf(month.toUpperCase());
 
-        Currency displayCurrency = determineDisplayCurrency(bank, currency);
-        List<Transaction> monthlyTransactions = getMonthlyTransactions(bank, monthEnum, currency, isConvertAll);
+        List<Bank> banks = getBanksInScope(bank, currency, isConvertAll);
+        SummaryCache.Key key = new SummaryCache.Key(bank == null ? -1 : bank.getId(), currency, month,
+                isConvertAll);
+        String summaryOutput = cache.get(key, banks);
+        if (summaryOutput == null) {
+            Currency displayCurrency = determineDisplayCurrency(bank, currency);
+            SummaryTotals totals = summarizeBanks(banks, monthEnum, displayCurrency, isConvertAll);
+            calculateBudgetByCategory(totals, monthEnum, bank, displayCurrency, currency, isConvertAll);
+
+            summaryOutput = OutputManager.printSummary(month, totals, displayCurrency, isConvertAll);
+            cache.put(key, banks, summaryOutput);
+        } else {
+            logger.log(Level.INFO, "Summary for " + month + " is unchanged, printing it from the cache.");
+        }
 
-        Map<Category, Float> spendingByCategory = calculateSpendingByCategory(monthlyTransactions,
-                displayCurrency, isConvertAll);
+        OutputManager.printMessage(summaryOutput);
+    }
 
-        Map<Category, Float> budgetByCategory = calculateBudgetByCategory(monthEnum, bank, displayCurrency,
-                currency, isConvertAll);
+    /**
+     * Displays the spending and budgets of each category over a range of months, such as a whole year.
+     * <p>
+     * The spending of a loaded bank is read from its running totals by year and month, so a range
+     * spanning years costs a few array reads per bank, whatever the number of transactions. A bank that
+     * is not loaded stays unloaded, and only its stored segments of the months in the range are read. The budget of a
+     * category adds up its budget of each month of the year as many times as that month occurs in
+     * the range. Transactions are not listed.
+     * </p>
+     *
+     * @param range        the months to summarise
+     * @param bank         the bank to generate summary for (nullable)
+     * @param currency     the currency for display or filtering
+     * @param isConvertAll whether to aggregate and convert all currencies into the display currency
+     */
+    //@@author kevinlokewy
+    public void showRangeSummary(MonthRange range, Bank bank, Currency currency, boolean isConvertAll) {
+        assert range != null : "Range cannot be null";
 
-        String summaryOutput = OutputManager.printSummary(month, monthlyTransactions, spendingByCategory,
-                budgetByCategory, displayCurrency, isConvertAll);
+        logger.log(Level.INFO, "Generating summary for range: " + range + ", Currency: " + currency.name()
+                + ", ConvertAll: " + isConvertAll);
+
+        List<Bank> banks = getBanksInScope(bank, currency, isConvertAll);
+        SummaryCache.Key key = new SummaryCache.Key(bank == null ? -1 : bank.getId(), currency,
+                range.getTitle() + " (" + range + ")", isConvertAll);
+        String summaryOutput = cache.get(key, banks);
+        if (summaryOutput == null) {
+            Currency displayCurrency = determineDisplayCurrency(bank, currency);
+            SummaryTotals totals = new SummaryTotals();
+            for (Bank b : banks) {
+                for (Category cat : Category.values()) {
+                    totals.addSpent(cat, calculateSpendingForRange(cat, range, b, displayCurrency, isConvertAll));
+                }
+            }
+            for (Category cat : Category.values()) {
+                totals.setBudget(cat, calculateBudgetForRange(cat, range, bank, displayCurrency, currency,
+                        isConvertAll));
+            }
+
+            summaryOutput = OutputManager.printRangeSummary(range.getTitle(), totals, displayCurrency, isConvertAll);
+            cache.put(key, banks, summaryOutput);
+        }
 
         OutputManager.printMessage(summaryOutput);
     }
@@ -89,135 +140,132 @@ public class Summary {
     }
 
     /**
-     * Retrieves all transactions for the specified month based on the user’s selection.
+     * Works out the spending and listed transactions of the banks in scope. Each bank is summarised
+     * separately, on the common fork-join pool when there are several, and the partial figures are
+     * then merged in bank order, so no combined list of transactions is built.
      *
-     * @param bank         the bank to query (nullable)
-     * @param monthEnum    the month to retrieve transactions for
-     * @param currency     the selected currency
-     * @param isConvertAll whether to aggregate all banks and convert to one currency
-     * @return a list of filtered {@link Transaction} objects
+     * @param banks           the banks to summarise
+     * @param monthEnum       the month to summarise
+     * @param displayCurrency the currency used for display
+     * @param isConvertAll    whether conversion should be applied across currencies
+     * @return the merged figures
      */
-
     //@@author kevinlokewy
-    private List<Transaction> getMonthlyTransactions(
-            Bank bank, Month monthEnum, Currency currency, boolean isConvertAll) {
+    private SummaryTotals summarizeBanks(List<Bank> banks, Month monthEnum, Currency displayCurrency,
+                                         boolean isConvertAll) {
+        List<SummaryTotals> partials = (banks.size() > 1 ? banks.parallelStream() : banks.stream())
+                .map(b -> summarizeBank(b, monthEnum, displayCurrency, isConvertAll))
+                .collect(Collectors.toList());
 
-        if (bank != null) {
-            return getBankTransactions(bank, monthEnum);
+        SummaryTotals totals = new SummaryTotals();
+        for (SummaryTotals partial : partials) {
+            totals.merge(partial);
         }
-
-        if (isConvertAll) {
-            return getAllBanksTransactions(monthEnum);
-        }
-
-        return getCurrencySpecificTransactions(monthEnum, currency);
+        return totals;
     }
 
     /**
-     * Retrieves all transactions across all banks for the specified month.
-     *
-     * @param monthEnum the month to filter transactions by
-     * @return a combined list of transactions across all banks
+     * Works out the spending of one bank on each category from its running totals, and its
+     * transactions of the month with the values they are shown with.
      */
     //@@author kevinlokewy
-    private List<Transaction> getAllBanksTransactions(Month monthEnum) {
-        List<Transaction> monthlyTransactions = new ArrayList<>();
-        for (Bank b : User.getBanks()) {
-            getAllTransactions(b, monthlyTransactions, monthEnum);
+    private SummaryTotals summarizeBank(Bank bank, Month monthEnum, Currency displayCurrency, boolean isConvertAll) {
+        SummaryTotals partial = new SummaryTotals();
+        for (Category cat : Category.values()) {
+            partial.addSpent(cat, calculateSpendingForCategory(cat, monthEnum, bank, displayCurrency, isConvertAll));
         }
-        return monthlyTransactions;
+        partial.addTransactions(getBankTransactions(bank, monthEnum), displayCurrency, isConvertAll);
+        return partial;
     }
 
     /**
-     * Retrieves transactions for a specific currency across all banks.
+     * Computes a bank's spending on a category from its running totals, without going through its
+     * transactions. A bank whose transactions are not loaded stays unloaded, and only its stored
+     * segments of the month are read.
      *
-     * @param monthEnum the target month
-     * @param currency  the desired currency
-     * @return a list of transactions matching the currency and month
+     * @param monthEnum       the month to evaluate
+     * @param bank            the bank to total
+     * @param displayCurrency the currency used for display
+     * @param isConvertAll    whether conversion should be applied across currencies
+     * @return the total spending amount, in minor units of the display currency
      */
     //@@author kevinlokewy
-    private List<Transaction> getCurrencySpecificTransactions(Month monthEnum, Currency currency) {
-        List<Transaction> monthlyTransactions = new ArrayList<>();
-        for (Bank b : User.getBanks()) {
-            if (b.getCurrency() == currency) {
-                getAllTransactions(b, monthlyTransactions, monthEnum);
+    private long calculateSpendingForCategory(Category category, Month monthEnum, Bank bank,
+                                              Currency displayCurrency, boolean isConvertAll) {
+        long spent = 0;
+
+        for (Currency transactionCurrency : Currency.values()) {
+            long total = storage.getSpending(bank, monthEnum, TransactionColumns.ANY_YEAR, category,
+                    transactionCurrency);
+            if (isConvertAll) {
+                spent += Money.convert(total, transactionCurrency, displayCurrency);
+            } else {
+                spent += total;
             }
         }
-        return monthlyTransactions;
+
+        return spent;
     }
 
     /**
-     * Computes total spending by category for a list of transactions.
+     * Computes a bank's spending on a category over a range of months from its running totals, or from
+     * its stored segments of those months if its transactions are not loaded.
      *
-     * @param monthlyTransactions the list of monthly transactions
-     * @param displayCurrency     the currency used for display
-     * @param isConvertAll        whether conversion should be applied across currencies
-     * @return a map of {@link Category} to total spending amount
+     * @return the total spending amount, in minor units of the display currency
      */
-
     //@@author kevinlokewy
-    private Map<Category, Float> calculateSpendingByCategory(
-            List<Transaction> monthlyTransactions, Currency displayCurrency, boolean isConvertAll) {
+    private long calculateSpendingForRange(Category category, MonthRange range, Bank bank,
+                                           Currency displayCurrency, boolean isConvertAll) {
+        long spent = 0;
 
-        Map<Category, Float> spendingByCategory = new HashMap<>();
-
-        for (Category cat : Category.values()) {
-            float spent = calculateSpendingForCategory(cat, monthlyTransactions, displayCurrency, isConvertAll);
-            spendingByCategory.put(cat, spent);
+        for (Currency transactionCurrency : Currency.values()) {
+            long total = storage.getSpending(bank, range.getFirstMonth(), range.getFirstYear(),
+                    range.getLastMonth(), range.getLastYear(), category, transactionCurrency);
+            if (isConvertAll) {
+                spent += Money.convert(total, transactionCurrency, displayCurrency);
+            } else {
+                spent += total;
+            }
         }
 
-        return spendingByCategory;
+        return spent;
     }
 
     /**
-     * Computes total spending by category for a list of transactions.
-     *
-     * @param monthlyTransactions the list of monthly transactions
-     * @param displayCurrency     the currency used for display
-     * @param isConvertAll        whether conversion should be applied across currencies
-     * @return a map of {@link Category} to total spending amount
+     * Returns the banks a summary covers: the given bank, every bank when converting all currencies,
+     * or otherwise the banks trading in the given currency.
      */
     //@@author kevinlokewy
-    private float calculateSpendingForCategory(
-            Category category, List<Transaction> monthlyTransactions, Currency displayCurrency, boolean isConvertAll) {
-        float spent = 0f;
-
-        for (Transaction t : monthlyTransactions) {
-            if (t.getCategory() != category) {
-                continue;
-            }
-
-            if (isConvertAll) {
-                spent = getTotalSpend(t, spent, displayCurrency);
-            } else {
-                spent += t.getValue();
+    private static List<Bank> getBanksInScope(Bank bank, Currency currency, boolean isConvertAll) {
+        if (bank != null) {
+            return List.of(bank);
+        }
+        List<Bank> banks = new ArrayList<>();
+        for (Bank b : User.getBanks()) {
+            if (isConvertAll || b.getCurrency() == currency) {
+                banks.add(b);
             }
         }
-
-        return spent;
+        return banks;
     }
 
     /**
      * Computes the budget allocated per category for the specified month and currency scope.
      *
+     * @param totals          the summary figures to record the budgets in
      * @param monthEnum       the month to evaluate
      * @param bank            the bank to filter by (nullable)
      * @param displayCurrency the display currency
      * @param currency        the currency filter
      * @param isConvertAll    whether to include and convert all currencies
-     * @return a map of {@link Category} to allocated budget
      */
     //@@author kevinlokewy
-    private Map<Category, Float> calculateBudgetByCategory(
+    private void calculateBudgetByCategory(SummaryTotals totals,
             Month monthEnum, Bank bank, Currency displayCurrency, Currency currency, boolean isConvertAll) {
-        Map<Category, Float> budgetByCategory = new HashMap<>();
-
         for (Category cat : Category.values()) {
-            float budget = calculateBudgetForCategory(cat, monthEnum, bank, displayCurrency, currency, isConvertAll);
-            budgetByCategory.put(cat, budget);
+            totals.setBudget(cat, calculateBudgetForCategory(cat, monthEnum, bank, displayCurrency, currency,
+                    isConvertAll));
         }
-
-        return budgetByCategory;
     }
 
     /**
@@ -225,9 +273,9 @@ public class Summary {
      */
 
     //@@author kevinlokewy
-    private float calculateBudgetForCategory(Category category, Month monthEnum, Bank bank,
-                                             Currency displayCurrency, Currency currency, boolean isConvertAll) {
-        float budget = 0f;
+    private long calculateBudgetForCategory(Category category, Month monthEnum, Bank bank,
+                                            Currency displayCurrency, Currency currency, boolean isConvertAll) {
+        long budget = 0;
 
         if (bank == null) {  // logged out, multiple banks
             for (Bank b : User.getBanks()) {
@@ -258,72 +306,77 @@ public class Summary {
         return budget;
     }
 
+    /**
+     * Calculates the total budget for a specific category over a range of months. Budgets are set per
+     * month of the year, so each month's budget counts once for every time that month is in the range.
+     */
+    //@@author kevinlokewy
+    private long calculateBudgetForRange(Category category, MonthRange range, Bank bank,
+                                         Currency displayCurrency, Currency currency, boolean isConvertAll) {
+        long budget = 0;
+
+        for (Month monthEnum : Month.values()) {
+            int count = range.countOf(monthEnum);
+            if (count > 0) {
+                budget += count * calculateBudgetForCategory(category, monthEnum, bank, displayCurrency, currency,
+                        isConvertAll);
+            }
+        }
+
+        return budget;
+    }
+
     /**
      * Helper method to compute budget values depending on user context (bank, currency, conversion).
      */
     //@@author kevinlokewy
 
-    private float calculateBudgetAmount(
+    private long calculateBudgetAmount(
             Budget bgt, Bank b, Bank bank, Currency displayCurrency, Currency currency, boolean isConvertAll) {
         if (bank != null) {
             return calculateLoggedInBudget(bgt, b, bank);
         }
 
         if (isConvertAll) {
-            return convertBudgets(0f, bgt, displayCurrency);
+            return convertBudgets(0, bgt, displayCurrency);
         }
 
         if (b.getCurrency() == currency) {
-            return displayCurrencyBudget(0f, bgt);
+            return displayCurrencyBudget(0, bgt);
         }
 
-        return 0f;
+        return 0;
     }
 
     /**
      * Returns the applicable budget for the logged-in user’s current bank.
      */
     //@@author kevinlokewy
-    private float calculateLoggedInBudget(Budget bgt, Bank b, Bank bank) {
+    private long calculateLoggedInBudget(Budget bgt, Bank b, Bank bank) {
         if (b == bank) {
-            return displayCurrencyBudget(0f, bgt);
+            return displayCurrencyBudget(0, bgt);
         }
-        return 0f;
-    }
-
-    //@@author kevinlokewy
-    private static void getAllTransactions(Bank b, List<Transaction> monthlyTransactions, Month monthEnum) {
-        monthlyTransactions.addAll(b.getTransactions().stream()
-                .filter(t -> t.getDate().getMonth() == monthEnum)
-                .toList());
+        return 0;
     }
 
     /**
-     * Appends all transactions of a specific month from a bank to a shared list.
+     * Returns all transactions of a specific month from a bank. Selecting through storage only
+     * reads the stored segments of that month if the bank's transactions are not loaded, and
+     * otherwise reads the rows in the bank's bitmap of that month.
      */
     //@@author kevinlokewy
-    private static List<Transaction> getBankTransactions(Bank bank, Month monthEnum) {
-        return bank.getTransactions().stream()
-                .filter(t -> t.getDate().getMonth() == monthEnum)
-                .collect(Collectors.toList());
-    }
-
-    //@@author kevinlokewy
-    private static float getTotalSpend(Transaction t, float spent, Currency displayCurrency) {
-        spent += t.getValue() * Currency.getExchangeRateToSGD(t.getCurrency())
-                / Currency.getExchangeRateToSGD(displayCurrency);
-        return spent;
+    private List<Transaction> getBankTransactions(Bank bank, Month monthEnum) {
+        return storage.selectTransactionsOf(bank, null, monthEnum, TransactionColumns.ANY_YEAR);
     }
 
     //@@author kevinlokewy
-    private static float displayCurrencyBudget(float budget, Budget bgt) {
+    private static long displayCurrencyBudget(long budget, Budget bgt) {
         budget += bgt.getBudget();
         return budget;
     }
 
     //@@author kevinlokewy
-    private static float convertBudgets(float remainingAmount, Budget bgt, Currency displayCurrency) {
-        return remainingAmount * Currency.getExchangeRateToSGD(bgt.getCurrency())
-                / Currency.getExchangeRateToSGD(displayCurrency);
+    private static long convertBudgets(long remainingAmount, Budget bgt, Currency displayCurrency) {
+        return Money.convert(remainingAmount, bgt.getCurrency(), displayCurrency);
     }
 }
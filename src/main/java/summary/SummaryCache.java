@@ -0,0 +1,101 @@
+package summary;
+
+import bank.Bank;
+import utils.Currency;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most recently rendered summaries, so a summary asked for again is printed without
+ * being worked out again.
+ * <p>
+ * A summary is looked up by its scope, month or range of months and conversion flag, and is only
+ * returned if every bank it covered is still in scope and none has changed since: each entry
+ * remembers the {@link Bank#getModificationCount() modification count} of its banks, which moves on
+ * every added or deleted transaction, budget change and ATM operation. The least recently used entry
+ * is dropped once the cache is full.
+ * </p>
+ */
+final class SummaryCache {
+    private final Map<Key, Entry> entries;
+
+    /**
+     * @param capacity The most summaries to keep.
+     */
+    SummaryCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Identifies a summary.
+     *
+     * @param bankId       The id of the bank summarised, or -1 if the summary is not of one bank.
+     * @param currency     The currency the summary is of, or shown in.
+     * @param period       The month as it was given, since the summary shows it that way, or for a
+     *                     {@link MonthRange} its title and the months it covers.
+     * @param isConvertAll Whether all currencies are converted into the display currency.
+     */
+    record Key(int bankId, Currency currency, String period, boolean isConvertAll) {
+    }
+
+    private record Entry(List<Bank> banks, long[] modificationCounts, String output) {
+    }
+
+    /**
+     * Returns the rendered summary for a key, or {@code null} if there is none or the banks in scope
+     * have changed since it was rendered.
+     *
+     * @param banks The banks now in scope of the summary.
+     */
+    synchronized String get(Key key, List<Bank> banks) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!isCurrent(entry, banks)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.output();
+    }
+
+    /**
+     * Remembers a rendered summary with the current modification counts of its banks. It should be
+     * called after the summary is worked out, since that can load the banks' transactions.
+     */
+    synchronized void put(Key key, List<Bank> banks, String output) {
+        entries.put(key, new Entry(List.copyOf(banks), modificationCounts(banks), output));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static boolean isCurrent(Entry entry, List<Bank> banks) {
+        if (entry.banks().size() != banks.size()) {
+            return false;
+        }
+        for (int i = 0; i < banks.size(); i++) {
+            Bank bank = banks.get(i);
+            if (bank != entry.banks().get(i) || bank.getModificationCount() != entry.modificationCounts()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] modificationCounts(List<Bank> banks) {
+        long[] counts = new long[banks.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = banks.get(i).getModificationCount();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,121 @@
+package summary;
+
+import transaction.Transaction;
+import utils.Category;
+import utils.Currency;
+import utils.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The figures of one monthly summary, held in primitive arrays indexed by {@link Category#ordinal()}.
+ * <p>
+ * {@link Summary} adds the spending and budget of each category, and
+ * {@link #addTransactions(List, Currency, boolean)} takes listed transactions in a single pass,
+ * working out the value each is shown with. The figures of several banks can be worked out
+ * separately, even on different threads, and then {@link #merge(SummaryTotals) merged}; the
+ * transaction lists of the banks are kept as they are rather than copied into one list.
+ * {@link ui.OutputManager#printSummary} then renders the figures as they are, without going back to
+ * the transactions or boxing any amount. All amounts are in minor units of the display currency.
+ * </p>
+ */
+public final class SummaryTotals {
+    private static final int CATEGORY_COUNT = Category.values().length;
+
+    private final long[] spentByCategory = new long[CATEGORY_COUNT];
+    private final long[] budgetByCategory = new long[CATEGORY_COUNT];
+    private long totalSpent;
+    private final List<List<Transaction>> transactionParts = new ArrayList<>();
+    private final List<long[]> displayValueParts = new ArrayList<>();
+    private int transactionCount;
+
+    /**
+     * Visits a transaction listed in a summary.
+     */
+    @FunctionalInterface
+    public interface TransactionVisitor {
+        /**
+         * @param index        The position of the transaction in the listing, from 0.
+         * @param transaction  The transaction.
+         * @param displayValue The value the transaction is shown with.
+         */
+        void visit(int index, Transaction transaction, long displayValue);
+    }
+
+    void addSpent(Category category, long spent) {
+        spentByCategory[category.ordinal()] += spent;
+        totalSpent += spent;
+    }
+
+    void setBudget(Category category, long budget) {
+        budgetByCategory[category.ordinal()] = budget;
+    }
+
+    /**
+     * Adds transactions to the end of the listing, converting each value to the display currency
+     * if all currencies are converted.
+     */
+    void addTransactions(List<Transaction> transactions, Currency displayCurrency, boolean isConvertAll) {
+        long[] displayValues = new long[transactions.size()];
+        for (int i = 0; i < displayValues.length; i++) {
+            Transaction t = transactions.get(i);
+            displayValues[i] = isConvertAll
+                    ? Money.convert(t.getValue(), t.getCurrency(), displayCurrency)
+                    : t.getValue();
+        }
+        transactionParts.add(transactions);
+        displayValueParts.add(displayValues);
+        transactionCount += displayValues.length;
+    }
+
+    /**
+     * Adds the spending and listed transactions of other figures to these, after the transactions
+     * already listed.
+     */
+    void merge(SummaryTotals other) {
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            spentByCategory[i] += other.spentByCategory[i];
+        }
+        totalSpent += other.totalSpent;
+        transactionParts.addAll(other.transactionParts);
+        displayValueParts.addAll(other.displayValueParts);
+        transactionCount += other.transactionCount;
+    }
+
+    public long getSpent(Category category) {
+        return spentByCategory[category.ordinal()];
+    }
+
+    public long getBudget(Category category) {
+        return budgetByCategory[category.ordinal()];
+    }
+
+    /**
+     * Returns the spending of all categories together.
+     */
+    public long getTotalSpent() {
+        return totalSpent;
+    }
+
+    /**
+     * Returns the number of transactions listed in the summary.
+     */
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Visits the listed transactions in order.
+     */
+    public void forEachTransaction(TransactionVisitor visitor) {
+        int index = 0;
+        for (int part = 0; part < transactionParts.size(); part++) {
+            List<Transaction> transactions = transactionParts.get(part);
+            long[] displayValues = displayValueParts.get(part);
+            for (int i = 0; i < displayValues.length; i++) {
+                visitor.visit(index++, transactions.get(i), displayValues[i]);
+            }
+        }
+    }
+}
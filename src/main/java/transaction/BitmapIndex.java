@@ -0,0 +1,158 @@
+package transaction;
+
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Bitmaps of the rows of a {@link TransactionColumns} with each category, each currency, and each
+ * month of each year.
+ * <p>
+ * A query on several of these fields, such as the food transactions of March 2025, ANDs the bitmaps of
+ * the requested values and visits the rows left, without reading any other row. Like
+ * {@link SortedRowIndex}, the bitmaps are built the first time they are used and from then on kept
+ * current by the store.
+ * </p>
+ */
+final class BitmapIndex {
+    private final TransactionColumns transactions;
+    private final RowBitmap[] byCategory = new RowBitmap[Category.values().length];
+    private final RowBitmap[] byCurrency = new RowBitmap[Currency.values().length];
+    private final Map<Integer, RowBitmap> byMonth = new HashMap<>();
+    private boolean isBuilt;
+
+    BitmapIndex(TransactionColumns transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Visits the rows with all the given field values, in row order. A {@code null} value does not
+     * restrict the rows.
+     *
+     * @param category The category of the rows, or {@code null}.
+     * @param currency The currency of the rows, or {@code null}.
+     * @param month    The month of the rows, or {@code null}.
+     * @param year     The year of the rows, used only with a month, or {@link TransactionColumns#ANY_YEAR}
+     *                 for that month of every year.
+     * @param action   Receives the position of each row.
+     */
+    void forEachRow(Category category, Currency currency, Month month, int year, IntConsumer action) {
+        ensureBuilt();
+        RowBitmap rows = null;
+        if (category != null) {
+            rows = and(rows, byCategory[category.ordinal()]);
+        }
+        if (currency != null) {
+            rows = and(rows, byCurrency[currency.ordinal()]);
+        }
+        if (month != null) {
+            rows = and(rows, monthRows(month, year));
+        }
+        if (rows == null) {
+            for (int row = 0; row < transactions.size(); row++) {
+                action.accept(row);
+            }
+            return;
+        }
+        rows.forEach(action);
+    }
+
+    private RowBitmap monthRows(Month month, int year) {
+        if (year != TransactionColumns.ANY_YEAR) {
+            return byMonth.getOrDefault(monthKey(month, year), new RowBitmap());
+        }
+        RowBitmap rows = new RowBitmap();
+        for (Map.Entry<Integer, RowBitmap> entry : byMonth.entrySet()) {
+            if (Date.unpackMonth(entry.getKey() * 100 + 1) == month) {
+                rows.or(entry.getValue());
+            }
+        }
+        return rows;
+    }
+
+    private static RowBitmap and(RowBitmap rows, RowBitmap other) {
+        return rows == null ? other : rows.and(other);
+    }
+
+    private void ensureBuilt() {
+        if (isBuilt) {
+            return;
+        }
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new RowBitmap();
+        }
+        for (int i = 0; i < byCurrency.length; i++) {
+            byCurrency[i] = new RowBitmap();
+        }
+        for (int row = 0; row < transactions.size(); row++) {
+            add(row);
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Records a row inserted into the store, after its fields have been written. Rows at and after
+     * its position have moved one position down.
+     */
+    void inserted(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        if (row < transactions.size() - 1) {
+            forEachBitmap(bitmap -> bitmap.insertGap(row));
+        }
+        add(row);
+    }
+
+    /**
+     * Records that a row is about to be removed from the store, while its fields can still be read.
+     * Rows after it will move one position up.
+     */
+    void removing(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        forEachBitmap(bitmap -> bitmap.removeGap(row));
+        byMonth.values().removeIf(RowBitmap::isEmpty);
+    }
+
+    /**
+     * Forgets every row, after the store has been cleared.
+     */
+    void clear() {
+        byMonth.clear();
+        isBuilt = false;
+    }
+
+    private void add(int row) {
+        byCategory[transactions.getCategory(row).ordinal()].set(row);
+        byCurrency[transactions.getCurrency(row).ordinal()].set(row);
+        byMonth.computeIfAbsent(monthKey(transactions.getMonth(row), transactions.getYear(row)),
+                key -> new RowBitmap()).set(row);
+    }
+
+    private void forEachBitmap(Consumer<RowBitmap> action) {
+        for (RowBitmap bitmap : byCategory) {
+            action.accept(bitmap);
+        }
+        for (RowBitmap bitmap : byCurrency) {
+            action.accept(bitmap);
+        }
+        for (RowBitmap bitmap : byMonth.values()) {
+            action.accept(bitmap);
+        }
+    }
+
+    /**
+     * Orders months chronologically, the same way {@link Date#getKey()} orders dates.
+     */
+    private static int monthKey(Month month, int year) {
+        return Date.pack(1, month, year) / 100;
+    }
+}
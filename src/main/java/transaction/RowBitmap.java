@@ -0,0 +1,129 @@
+package transaction;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of row positions stored as a bitmap, one bit per row, that can follow rows as they move.
+ * <p>
+ * Unlike {@link java.util.BitSet}, it can open or close a gap at a row, moving every later bit by
+ * one position, so it stays aligned with a store whose rows shift when a row is inserted or removed.
+ * Both take one pass over the words from that row on.
+ * </p>
+ */
+final class RowBitmap {
+    private static final int WORD_BITS = 64;
+
+    private long[] words = new long[1];
+
+    void set(int row) {
+        int word = row >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+        }
+        words[word] |= 1L << row;
+    }
+
+    void clear(int row) {
+        int word = row >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << row);
+        }
+    }
+
+    boolean get(int row) {
+        int word = row >>> 6;
+        return word < words.length && (words[word] & 1L << row) != 0;
+    }
+
+    /**
+     * Opens a clear bit at a row, moving the bits at and after it one position up.
+     */
+    void insertGap(int row) {
+        int word = row >>> 6;
+        if (word >= words.length) {
+            return;
+        }
+        if (words[words.length - 1] < 0) {
+            words = Arrays.copyOf(words, words.length + 1);
+        }
+        for (int i = words.length - 1; i > word; i--) {
+            words[i] = words[i] << 1 | words[i - 1] >>> (WORD_BITS - 1);
+        }
+        long low = (1L << row) - 1;
+        words[word] = words[word] & low | (words[word] & ~low) << 1;
+    }
+
+    /**
+     * Drops the bit of a row, moving the bits after it one position down.
+     */
+    void removeGap(int row) {
+        int word = row >>> 6;
+        if (word >= words.length) {
+            return;
+        }
+        long low = (1L << row) - 1;
+        words[word] = words[word] & low | words[word] >>> 1 & ~low;
+        for (int i = word; i < words.length - 1; i++) {
+            words[i] |= words[i + 1] << (WORD_BITS - 1);
+            words[i + 1] >>>= 1;
+        }
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of rows in the set.
+     */
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a new bitmap of the rows in both this bitmap and the other.
+     */
+    RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        result.words = Arrays.copyOf(words, Math.min(words.length, other.words.length));
+        for (int i = 0; i < result.words.length; i++) {
+            result.words[i] &= other.words[i];
+        }
+        return result;
+    }
+
+    /**
+     * Adds the rows of another bitmap to this one.
+     */
+    void or(RowBitmap other) {
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Visits the rows in the set in ascending order.
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept(i * WORD_BITS + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package transaction;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * The rows of a {@link TransactionColumns} ordered by a key of each row, rows with equal keys in row order.
+ * <p>
+ * The index is sorted the first time it is used, and from then on kept current by the store as rows
+ * are inserted, removed and replaced, so a range of keys is found with a binary search and visited
+ * without looking at any row outside it. Until it is first used, adding rows costs nothing extra,
+ * so loading a bank does not pay for indexes nobody queries.
+ * </p>
+ */
+final class SortedRowIndex {
+    private final IntToLongFunction keys;
+    private int[] rows = new int[0];
+    private int size;
+    private boolean isBuilt;
+
+    /**
+     * Creates an index over the rows of a store.
+     *
+     * @param keys Returns the key of a row, read from the store's columns.
+     */
+    SortedRowIndex(IntToLongFunction keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Sorts the index if it has not been used since the store was created or cleared.
+     *
+     * @param rowCount The number of rows in the store.
+     */
+    void ensureBuilt(int rowCount) {
+        if (isBuilt) {
+            return;
+        }
+        long[] rowKeys = new long[rowCount];
+        int[] sorted = new int[Math.max(rowCount, 16)];
+        for (int row = 0; row < rowCount; row++) {
+            rowKeys[row] = keys.applyAsLong(row);
+            sorted[row] = row;
+        }
+        int[] buffer = new int[rowCount];
+        for (int width = 1; width < rowCount; width *= 2) {
+            for (int low = 0; low < rowCount; low += 2 * width) {
+                merge(rowKeys, sorted, buffer, low, Math.min(low + width, rowCount),
+                        Math.min(low + 2 * width, rowCount));
+            }
+            System.arraycopy(buffer, 0, sorted, 0, rowCount);
+        }
+        rows = sorted;
+        size = rowCount;
+        isBuilt = true;
+    }
+
+    private static void merge(long[] rowKeys, int[] from, int[] to, int low, int middle, int high) {
+        int left = low;
+        int right = middle;
+        for (int i = low; i < high; i++) {
+            if (right >= high || left < middle && rowKeys[from[left]] <= rowKeys[from[right]]) {
+                to[i] = from[left++];
+            } else {
+                to[i] = from[right++];
+            }
+        }
+    }
+
+    /**
+     * Records a row inserted into the store, after its fields have been written. Rows at and after
+     * its position have moved one position down.
+     */
+    void inserted(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        if (row < size) {
+            for (int i = 0; i < size; i++) {
+                if (rows[i] >= row) {
+                    rows[i]++;
+                }
+            }
+        }
+        int position = positionOf(keys.applyAsLong(row), row);
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        rows[position] = row;
+        size++;
+    }
+
+    /**
+     * Records that a row is about to be removed from the store, while its fields can still be read.
+     * Rows after it will move one position up.
+     */
+    void removing(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        int position = positionOf(keys.applyAsLong(row), row);
+        System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+        size--;
+        for (int i = 0; i < size; i++) {
+            if (rows[i] > row) {
+                rows[i]--;
+            }
+        }
+    }
+
+    /**
+     * Forgets every row, after the store has been cleared.
+     */
+    void clear() {
+        rows = new int[0];
+        size = 0;
+        isBuilt = false;
+    }
+
+    /**
+     * Visits the rows whose keys lie between two bounds, in key order. The index must have been built.
+     *
+     * @param min    The smallest key to visit, inclusive.
+     * @param max    The largest key to visit, inclusive.
+     * @param action Receives the position of each row.
+     */
+    void forEachInRange(long min, long max, IntConsumer action) {
+        for (int i = positionOf(min, 0); i < size; i++) {
+            int row = rows[i];
+            if (keys.applyAsLong(row) > max) {
+                return;
+            }
+            action.accept(row);
+        }
+    }
+
+    /**
+     * Visits the rows with the largest keys, from the largest down. The index must have been built.
+     *
+     * @param count  The number of rows to visit at most.
+     * @param action Receives the position of each row.
+     */
+    void forEachLargest(int count, IntConsumer action) {
+        for (int i = size - 1; i >= Math.max(size - count, 0); i--) {
+            action.accept(rows[i]);
+        }
+    }
+
+    /**
+     * Returns the first position whose entry is not ordered before the given key and row.
+     */
+    private int positionOf(long key, int row) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = keys.applyAsLong(rows[middle]);
+            if (middleKey < key || middleKey == key && rows[middle] < row) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,137 @@
+package transaction;
+
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of the values of the rows of a {@link TransactionColumns}, by month, category and currency.
+ * <p>
+ * The store adds each row's value as the row is added and subtracts it as the row is removed, so a
+ * total is read in constant time however many rows the store holds. Totals are kept per currency
+ * and in minor units of that currency; {@link #getTotal(Month, int, Category, Currency)} reads one.
+ * </p>
+ * <p>
+ * The totals of each month of the year across all years are kept too, so a month of every year is
+ * also a single read. The totals of each whole year are kept as well, so
+ * {@link #getTotal(Month, int, Month, int, Category, Currency)} reads a range of months spanning
+ * several years with one read per whole year and one per month of the partial years at either end.
+ * </p>
+ */
+public final class SpendingTotals {
+    private static final int CURRENCY_COUNT = Currency.values().length;
+    private static final int CELLS = Category.values().length * CURRENCY_COUNT;
+
+    private final Map<Integer, long[]> totalsByMonth = new HashMap<>();
+    private final Map<Integer, long[]> totalsByYear = new HashMap<>();
+    private final long[][] totalsByMonthOfYear = new long[Month.values().length][CELLS];
+    private int lastMonthKey = -1;
+    private long[] lastTotals;
+
+    /**
+     * Adds a value to the total of its month, category and currency.
+     *
+     * @param dateKey The {@link Date#getKey() key} of the date of the value.
+     */
+    void add(int dateKey, Category category, Currency currency, long value) {
+        int cell = cell(category, currency);
+        totalsOf(dateKey / 100)[cell] += value;
+        totalsByYear.computeIfAbsent(Date.unpackYear(dateKey), key -> new long[CELLS])[cell] += value;
+        totalsByMonthOfYear[Date.unpackMonth(dateKey).ordinal()][cell] += value;
+    }
+
+    /**
+     * Subtracts a value added before from the total of its month, category and currency.
+     *
+     * @param dateKey The {@link Date#getKey() key} of the date of the value.
+     */
+    void subtract(int dateKey, Category category, Currency currency, long value) {
+        int cell = cell(category, currency);
+        totalsOf(dateKey / 100)[cell] -= value;
+        totalsByYear.computeIfAbsent(Date.unpackYear(dateKey), key -> new long[CELLS])[cell] -= value;
+        totalsByMonthOfYear[Date.unpackMonth(dateKey).ordinal()][cell] -= value;
+    }
+
+    void clear() {
+        totalsByMonth.clear();
+        totalsByYear.clear();
+        for (long[] totals : totalsByMonthOfYear) {
+            Arrays.fill(totals, 0);
+        }
+        lastMonthKey = -1;
+        lastTotals = null;
+    }
+
+    /**
+     * Returns the total value of the rows of a month, category and currency.
+     *
+     * @param month    The month of the rows.
+     * @param year     The year of the rows, or {@link TransactionColumns#ANY_YEAR} for that month of every year.
+     * @param category The category of the rows.
+     * @param currency The currency of the rows.
+     * @return The total, in minor units of the currency.
+     */
+    public long getTotal(Month month, int year, Category category, Currency currency) {
+        int cell = cell(category, currency);
+        if (year != TransactionColumns.ANY_YEAR) {
+            long[] totals = totalsByMonth.get(Date.pack(1, month, year) / 100);
+            return totals == null ? 0 : totals[cell];
+        }
+        return totalsByMonthOfYear[month.ordinal()][cell];
+    }
+
+    /**
+     * Returns the total value of the rows from the start of one month to the end of another.
+     *
+     * @param firstMonth The first month of the range.
+     * @param firstYear  The year of the first month.
+     * @param lastMonth  The last month of the range.
+     * @param lastYear   The year of the last month.
+     * @param category   The category of the rows.
+     * @param currency   The currency of the rows.
+     * @return The total, in minor units of the currency, or 0 if the last month is before the first.
+     */
+    public long getTotal(Month firstMonth, int firstYear, Month lastMonth, int lastYear,
+                         Category category, Currency currency) {
+        int cell = cell(category, currency);
+        int lastKey = Date.pack(1, lastMonth, lastYear) / 100;
+        long total = 0;
+        for (int key = Date.pack(1, firstMonth, firstYear) / 100; key <= lastKey; ) {
+            int year = key / 100;
+            int nextYearKey = (year + 1) * 100 + 1;
+            if (key % 100 == 1 && year * 100 + 12 <= lastKey) {
+                total += cellOf(totalsByYear.get(year), cell);
+                key = nextYearKey;
+            } else {
+                total += cellOf(totalsByMonth.get(key), cell);
+                key = key % 100 == 12 ? nextYearKey : key + 1;
+            }
+        }
+        return total;
+    }
+
+    private static long cellOf(long[] totals, int cell) {
+        return totals == null ? 0 : totals[cell];
+    }
+
+    /**
+     * Returns the totals of a month, remembering the last month used since rows usually arrive
+     * grouped by month.
+     */
+    private long[] totalsOf(int monthKey) {
+        if (monthKey != lastMonthKey) {
+            lastTotals = totalsByMonth.computeIfAbsent(monthKey, key -> new long[CELLS]);
+            lastMonthKey = monthKey;
+        }
+        return lastTotals;
+    }
+
+    private static int cell(Category category, Currency currency) {
+        return category.ordinal() * CURRENCY_COUNT + currency.ordinal();
+    }
+}
@@ -0,0 +1,89 @@
+package transaction;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every distinct transaction tag a small int id, shared by all banks.
+ * <p>
+ * Ledgers reuse a few hundred tags across all of their transactions, so stores keep the id of
+ * each tag instead of the tag itself, and every tag string is held once, here. Comparing the tags
+ * of two rows is then an int comparison. Ids are never reused or removed, and can be looked up
+ * from any thread.
+ * </p>
+ */
+public final class TagDictionary {
+    /** The id standing for a missing ({@code null}) tag. */
+    public static final int NO_TAG = -1;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] tags = new String[INITIAL_CAPACITY];
+    private static int size;
+
+    private TagDictionary() {
+    }
+
+    /**
+     * Returns the id of a tag, adding the tag to the dictionary if it is new.
+     *
+     * @param tag The tag, or {@code null}.
+     * @return The id of the tag, or {@link #NO_TAG} for {@code null}.
+     */
+    public static int idOf(String tag) {
+        if (tag == null) {
+            return NO_TAG;
+        }
+        Integer id = ids.get(tag);
+        return id != null ? id : add(tag);
+    }
+
+    private static synchronized int add(String tag) {
+        Integer id = ids.get(tag);
+        if (id != null) {
+            return id;
+        }
+        if (size == tags.length) {
+            tags = Arrays.copyOf(tags, size * 2);
+        }
+        tags[size] = tag;
+        ids.put(tag, size);
+        return size++;
+    }
+
+    /**
+     * Returns the id of a tag without adding it.
+     *
+     * @return The id of the tag, or {@link #NO_TAG} if it is {@code null} or not in the dictionary.
+     */
+    public static int find(String tag) {
+        if (tag == null) {
+            return NO_TAG;
+        }
+        return ids.getOrDefault(tag, NO_TAG);
+    }
+
+    /**
+     * Returns the tag with the given id.
+     *
+     * @param id An id returned by {@link #idOf(String)}.
+     * @return The tag, or {@code null} for {@link #NO_TAG}.
+     */
+    public static String tagOf(int id) {
+        return id == NO_TAG ? null : tags[id];
+    }
+
+    /**
+     * Returns the shared instance of a tag, adding it to the dictionary if it is new.
+     */
+    public static String intern(String tag) {
+        return tagOf(idOf(tag));
+    }
+
+    /**
+     * Returns the number of distinct tags, which is also one more than the largest id.
+     */
+    public static int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,321 @@
+package transaction;
+
+import utils.Category;
+import utils.Currency;
+import utils.Month;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * An inverted index from the words of the text describing each row of a {@link TransactionColumns} to the rows.
+ * <p>
+ * The text of a row is its {@link Transaction#toString()} form in lower case, such as
+ * {@code $4.5 | bubble tea(food) | 5th of january, 2025}, and a keyword matches a row if that text
+ * contains it anywhere, across words and separators. The words of the text are its runs of letters and
+ * digits, such as {@code 4}, {@code bubble}, {@code food} and {@code 5th}, and each word has a postings
+ * list of the rows whose text has it, in row order.
+ * </p>
+ * <p>
+ * The postings only narrow down the rows to check. Every run of letters and digits in the keyword lies
+ * within one word of a matching row, and a run with a separator on both sides is that whole word, so the
+ * rows listed under the words holding the run are the only candidates. The run with the fewest candidates
+ * is used, and only the text of those rows is formatted and checked with {@link String#contains(CharSequence)}.
+ * A keyword without letters or digits is checked against the text of every row.
+ * </p>
+ * <p>
+ * The words themselves are indexed by their trigrams, the runs of three characters they contain. A word
+ * holding a run of three or more characters contains every trigram of it, so only the words listed under
+ * the run's rarest trigram are checked. Shorter runs are checked against every word.
+ * </p>
+ * <p>
+ * Like {@link SortedRowIndex}, the index is built the first time it is used and from then on kept
+ * current by the store.
+ * </p>
+ */
+final class TokenIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final TransactionColumns transactions;
+    private final Map<String, Postings> postingsByWord = new HashMap<>();
+    private final Map<Long, List<Postings>> postingsByTrigram = new HashMap<>();
+    private boolean isBuilt;
+
+    TokenIndex(TransactionColumns transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Returns the lower-case text describing a transaction with the given fields, the
+     * {@link Transaction#toString()} form a keyword is matched against.
+     */
+    static String describe(Category category, long value, int day, Month month, int year, Currency currency,
+                           String tag) {
+        return Transaction.appendDescription(new StringBuilder(), category, value, day, month, year, currency, tag)
+                .toString().toLowerCase();
+    }
+
+    /**
+     * Visits the rows whose text contains the keyword, in row order.
+     *
+     * @param keyword The lower-case keyword.
+     * @param action  Receives the position of each row.
+     */
+    void forEachContaining(String keyword, IntConsumer action) {
+        List<Postings> candidates = null;
+        int candidateCount = Integer.MAX_VALUE;
+        int start = 0;
+        while ((start = nextWordStart(keyword, start)) < keyword.length()) {
+            int end = wordEnd(keyword, start);
+            ensureBuilt();
+            List<Postings> words = wordsHolding(keyword.substring(start, end),
+                    start > 0 && end < keyword.length());
+            int count = 0;
+            for (Postings postings : words) {
+                count += postings.size;
+            }
+            if (count < candidateCount) {
+                candidates = words;
+                candidateCount = count;
+            }
+            if (count == 0) {
+                return;
+            }
+            start = end;
+        }
+
+        if (candidates == null) {
+            for (int row = 0; row < transactions.size(); row++) {
+                if (describe(row).contains(keyword)) {
+                    action.accept(row);
+                }
+            }
+            return;
+        }
+        BitSet rows = new BitSet(transactions.size());
+        for (Postings postings : candidates) {
+            postings.addTo(rows);
+        }
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (describe(row).contains(keyword)) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Returns the postings of the words a run of letters and digits from a keyword can lie in.
+     *
+     * @param run       The run of letters and digits.
+     * @param isBounded Whether the run has a separator on both sides in the keyword, so it is a whole word.
+     */
+    private List<Postings> wordsHolding(String run, boolean isBounded) {
+        if (isBounded) {
+            Postings postings = postingsByWord.get(run);
+            return postings == null ? List.of() : List.of(postings);
+        }
+        Iterable<Postings> words = run.length() < GRAM_LENGTH ? postingsByWord.values() : rarestTrigramWords(run);
+        List<Postings> holding = new ArrayList<>();
+        for (Postings postings : words) {
+            if (postings.word.contains(run)) {
+                holding.add(postings);
+            }
+        }
+        return holding;
+    }
+
+    private List<Postings> rarestTrigramWords(String run) {
+        List<Postings> rarest = null;
+        for (int i = 0; i + GRAM_LENGTH <= run.length(); i++) {
+            List<Postings> words = postingsByTrigram.get(trigram(run, i));
+            if (words == null) {
+                return List.of();
+            }
+            if (rarest == null || words.size() < rarest.size()) {
+                rarest = words;
+            }
+        }
+        return rarest;
+    }
+
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    private static int nextWordStart(String text, int from) {
+        int position = from;
+        while (position < text.length() && !Character.isLetterOrDigit(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int wordEnd(String text, int start) {
+        int position = start;
+        while (position < text.length() && Character.isLetterOrDigit(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private void ensureBuilt() {
+        if (isBuilt) {
+            return;
+        }
+        for (int row = 0; row < transactions.size(); row++) {
+            add(row);
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Records a row inserted into the store, after its fields have been written. Rows at and after
+     * its position have moved one position down.
+     */
+    void inserted(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        if (row < transactions.size() - 1) {
+            for (Postings postings : postingsByWord.values()) {
+                postings.shift(row, 1);
+            }
+        }
+        add(row);
+    }
+
+    /**
+     * Records that a row is about to be removed from the store, while its fields can still be read.
+     * Rows after it will move one position up.
+     */
+    void removing(int row) {
+        if (!isBuilt) {
+            return;
+        }
+        forEachWord(describe(row), word -> {
+            Postings postings = postingsByWord.get(word);
+            if (postings != null) {
+                postings.remove(row);
+            }
+        });
+        Iterator<Postings> iterator = postingsByWord.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            if (postings.size == 0) {
+                iterator.remove();
+                forEachTrigram(postings.word, trigram -> postingsByTrigram.get(trigram).remove(postings));
+            } else {
+                postings.shift(row + 1, -1);
+            }
+        }
+    }
+
+    /**
+     * Forgets every row, after the store has been cleared.
+     */
+    void clear() {
+        postingsByWord.clear();
+        postingsByTrigram.clear();
+        isBuilt = false;
+    }
+
+    private void add(int row) {
+        forEachWord(describe(row), word -> postingsByWord.computeIfAbsent(word, this::newPostings).add(row));
+    }
+
+    private Postings newPostings(String word) {
+        Postings postings = new Postings(word);
+        forEachTrigram(word, trigram -> postingsByTrigram.computeIfAbsent(trigram, t -> new ArrayList<>())
+                .add(postings));
+        return postings;
+    }
+
+    private String describe(int row) {
+        return describe(transactions.getCategory(row), transactions.getValue(row), transactions.getDay(row),
+                transactions.getMonth(row), transactions.getYear(row), transactions.getCurrency(row),
+                transactions.getTag(row));
+    }
+
+    /**
+     * Passes each run of letters and digits of a text to the consumer. A word occurring more than once is
+     * passed each time.
+     */
+    private static void forEachWord(String text, Consumer<String> consumer) {
+        int start = 0;
+        while ((start = nextWordStart(text, start)) < text.length()) {
+            int end = wordEnd(text, start);
+            consumer.accept(text.substring(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * Passes each distinct trigram of a word to the consumer.
+     */
+    private static void forEachTrigram(String word, LongConsumer consumer) {
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            if (word.indexOf(word.substring(i, i + GRAM_LENGTH)) == i) {
+                consumer.accept(trigram(word, i));
+            }
+        }
+    }
+
+    /**
+     * The rows whose text has one word, in ascending order and without repeats.
+     */
+    private static final class Postings {
+        private final String word;
+        private int[] rows = new int[4];
+        private int size;
+
+        Postings(String word) {
+            this.word = word;
+        }
+
+        void add(int row) {
+            int position = Arrays.binarySearch(rows, 0, size, row);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            System.arraycopy(rows, position, rows, position + 1, size - position);
+            rows[position] = row;
+            size++;
+        }
+
+        void remove(int row) {
+            int position = Arrays.binarySearch(rows, 0, size, row);
+            if (position >= 0) {
+                System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Moves the rows at or after a position by the given offset.
+         */
+        void shift(int from, int offset) {
+            int position = Arrays.binarySearch(rows, 0, size, from);
+            for (int i = position >= 0 ? position : -position - 1; i < size; i++) {
+                rows[i] += offset;
+            }
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(rows[i]);
+            }
+        }
+    }
+}
@@ -4,19 +4,29 @@ import ui.FinanceException;
 import utils.Category;
 import utils.Currency;
 import utils.Date;
+import utils.Money;
+import utils.Month;
 
+import java.util.Objects;
+
+/**
+ * A transaction of a bank. Its value is an amount in minor units of its currency, as described by {@link Money}.
+ */
 public class Transaction {
-    private final float value;
+    private final long value;
     private final Category category;
     private final Date date;
     private final Currency currency;
     private final String tag;
 
-    public Transaction(float value, Category category, Date date, Currency currency, String tag)
+    public Transaction(long value, Category category, Date date, Currency currency, String tag)
             throws FinanceException {
         if (value < 0) {
             throw new FinanceException("Value must be positive");
         }
+        if (value > Money.MAX_AMOUNT) {
+            throw new FinanceException("Value must be at most " + Money.format(Money.MAX_AMOUNT));
+        }
         requireNonNull(category, "Category cannot be null");
         requireNonNull(date, "Date cannot be null");
         requireNonNull(currency, "Currency cannot be null");
@@ -27,6 +37,24 @@ public class Transaction {
         this.tag = tag;
     }
 
+    private Transaction(long value, Category category, int dateKey, Currency currency, String tag) {
+        this.value = value;
+        this.category = category;
+        this.date = Date.ofKey(dateKey);
+        this.currency = currency;
+        this.tag = tag;
+    }
+
+    /**
+     * Creates a transaction from fields that were validated when they were first stored, without
+     * validating them again.
+     *
+     * @param dateKey The {@link Date#getKey() key} of the date.
+     */
+    static Transaction ofStored(long value, Category category, int dateKey, Currency currency, String tag) {
+        return new Transaction(value, category, dateKey, currency, tag);
+    }
+
     private static void requireNonNull(Object obj, String message) {
         if (obj == null) {
             throw new IllegalArgumentException(message);
@@ -37,7 +65,10 @@ public class Transaction {
         return tag;
     }
 
-    public float getValue() {
+    /**
+     * Returns the value in minor units of the currency.
+     */
+    public long getValue() {
         return value;
     }
 
@@ -53,10 +84,41 @@ public class Transaction {
         return date;
     }
 
+    /**
+     * Transactions are equal if all their fields are, so a view created from stored fields equals
+     * the transaction that was stored.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Transaction t)) {
+            return false;
+        }
+        return value == t.value && category == t.category && date.equals(t.date)
+                && currency == t.currency && Objects.equals(tag, t.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, category, date, currency, tag);
+    }
+
     @Override
     public String toString() {
-        return this.currency.getSymbolSemiVerbose() + value +
-                " | " + this.tag + "(" + category + ")" +
-                " | " + date.getLongDate();
+        return appendDescription(new StringBuilder(), category, value, date.getDay(), date.getMonth(),
+                date.getYear(), currency, tag).toString();
+    }
+
+    /**
+     * Appends the {@link #toString()} form of a transaction given by its fields.
+     */
+    public static StringBuilder appendDescription(StringBuilder sb, Category category, long value, int day,
+                                                  Month month, int year, Currency currency, String tag) {
+        Money.appendPlain(sb.append(currency.getSymbolSemiVerbose()), value)
+                .append(" | ").append(tag).append("(").append(category).append(")")
+                .append(" | ");
+        return Date.appendLongDate(sb, day, month, year);
     }
 }
@@ -0,0 +1,323 @@
+package transaction;
+
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+/**
+ * The transactions of a bank, stored column by column.
+ * <p>
+ * Each field is kept in its own primitive array: values in minor units, category and currency ordinals, dates
+ * as their {@link Date#getKey() keys}, and tags as their {@link TagDictionary} ids. Scans such as
+ * {@link #matches(int, TransactionMatcher)} read the fields of a row straight out of the arrays,
+ * so they walk a few contiguous arrays instead of following a pointer per field.
+ * </p>
+ * <p>
+ * The store is also a {@code List<Transaction>}, so existing callers keep working: {@link #get(int)}
+ * creates a {@link Transaction} view of a row. Views are created on every call and are not stored,
+ * so two calls for the same row return equal-valued but distinct objects; {@link #getRowId(int)}
+ * identifies a row instead.
+ * </p>
+ * <p>
+ * The rows are also indexed by date and by value, so {@link #forEachRowBetween(Date, Date, IntConsumer)} and
+ * {@link #forEachRowCosting(long, long, IntConsumer)} visit a range of dates or values without scanning the rest
+ * of the store, and {@link #forEachRowContaining(String, IntConsumer)} looks a keyword up in an index of the
+ * words of the text describing each row. Bitmaps of the rows with each category, currency and month let
+ * {@link #forEachRowOf(Category, Currency, Month, int, IntConsumer)} combine conditions on those fields.
+ * Adding, removing and replacing rows keeps the indexes current, along with the running
+ * {@link #getSpendingTotals() totals} of the values of each month.
+ * </p>
+ */
+public class TransactionColumns extends AbstractList<Transaction> implements RandomAccess {
+    /** Stands for every year in {@link #forEachRowOf(Category, Currency, Month, int, IntConsumer)}. */
+    public static final int ANY_YEAR = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+    private byte[] currencies = new byte[INITIAL_CAPACITY];
+    private int[] dates = new int[INITIAL_CAPACITY];
+    private int[] tagColumn = new int[INITIAL_CAPACITY];
+    private long[] rowIds = new long[INITIAL_CAPACITY];
+    private int size;
+    private long nextRowId;
+    private final SortedRowIndex dateIndex = new SortedRowIndex(row -> dates[row]);
+    private final SortedRowIndex valueIndex = new SortedRowIndex(row -> values[row]);
+    private final TokenIndex textIndex = new TokenIndex(this);
+    private final BitmapIndex bitmapIndex = new BitmapIndex(this);
+    private final SpendingTotals spendingTotals = new SpendingTotals();
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a {@link Transaction} view of a row.
+     */
+    @Override
+    public Transaction get(int row) {
+        checkIndex(row, size);
+        return Transaction.ofStored(values[row], CATEGORIES[categories[row]], dates[row],
+                CURRENCIES[currencies[row]], getTag(row));
+    }
+
+    /**
+     * Appends a row with the given fields, which must form a valid transaction.
+     */
+    public void add(long value, Category category, int day, Month month, int year, Currency currency, String tag) {
+        insert(size, value, category, Date.pack(day, month, year), currency, tag);
+    }
+
+    @Override
+    public void add(int row, Transaction transaction) {
+        checkIndex(row, size + 1);
+        Date date = transaction.getDate();
+        insert(row, transaction.getValue(), transaction.getCategory(),
+                date.getKey(), transaction.getCurrency(),
+                transaction.getTag());
+    }
+
+    /**
+     * Replaces a row. The new row gets a new {@link #getRowId(int) row id}.
+     */
+    @Override
+    public Transaction set(int row, Transaction transaction) {
+        Transaction previous = get(row);
+        Date date = transaction.getDate();
+        dateIndex.removing(row);
+        valueIndex.removing(row);
+        textIndex.removing(row);
+        bitmapIndex.removing(row);
+        spendingTotals.subtract(dates[row], getCategory(row), getCurrency(row), values[row]);
+        write(row, transaction.getValue(), transaction.getCategory(),
+                date.getKey(), transaction.getCurrency(),
+                transaction.getTag());
+        dateIndex.inserted(row);
+        valueIndex.inserted(row);
+        textIndex.inserted(row);
+        bitmapIndex.inserted(row);
+        spendingTotals.add(dates[row], getCategory(row), getCurrency(row), values[row]);
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public Transaction remove(int row) {
+        Transaction removed = get(row);
+        dateIndex.removing(row);
+        valueIndex.removing(row);
+        textIndex.removing(row);
+        bitmapIndex.removing(row);
+        spendingTotals.subtract(dates[row], getCategory(row), getCurrency(row), values[row]);
+        int moved = size - row - 1;
+        System.arraycopy(values, row + 1, values, row, moved);
+        System.arraycopy(categories, row + 1, categories, row, moved);
+        System.arraycopy(currencies, row + 1, currencies, row, moved);
+        System.arraycopy(dates, row + 1, dates, row, moved);
+        System.arraycopy(tagColumn, row + 1, tagColumn, row, moved);
+        System.arraycopy(rowIds, row + 1, rowIds, row, moved);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        dateIndex.clear();
+        valueIndex.clear();
+        textIndex.clear();
+        bitmapIndex.clear();
+        spendingTotals.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns a counter that changes whenever a row is added, removed or replaced.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns the running totals of the values of the rows by month, category and currency.
+     */
+    public SpendingTotals getSpendingTotals() {
+        return spendingTotals;
+    }
+
+    /**
+     * Returns an id that stays with a row while it is stored, and is never reused for another row
+     * of this store. It tells whether the rows at some positions are still the same rows.
+     */
+    public long getRowId(int row) {
+        checkIndex(row, size);
+        return rowIds[row];
+    }
+
+    /**
+     * Returns the value of a row in minor units of its currency.
+     */
+    public long getValue(int row) {
+        return values[row];
+    }
+
+    public Category getCategory(int row) {
+        return CATEGORIES[categories[row]];
+    }
+
+    public Currency getCurrency(int row) {
+        return CURRENCIES[currencies[row]];
+    }
+
+    public int getDay(int row) {
+        return Date.unpackDay(dates[row]);
+    }
+
+    public Month getMonth(int row) {
+        return Date.unpackMonth(dates[row]);
+    }
+
+    public int getYear(int row) {
+        return Date.unpackYear(dates[row]);
+    }
+
+    public String getTag(int row) {
+        return TagDictionary.tagOf(tagColumn[row]);
+    }
+
+    /**
+     * Returns the {@link TagDictionary} id of the tag of a row.
+     */
+    public int getTagId(int row) {
+        return tagColumn[row];
+    }
+
+    /**
+     * Returns whether a row satisfies the matcher, reading its fields from the columns.
+     */
+    public boolean matches(int row, TransactionMatcher matcher) {
+        int date = dates[row];
+        return matcher.matches(CATEGORIES[categories[row]], values[row], Date.unpackDay(date), Date.unpackMonth(date),
+                Date.unpackYear(date), CURRENCIES[currencies[row]], getTag(row));
+    }
+
+    /**
+     * Visits the rows dated between two dates in date order, rows of the same date in the order they
+     * are stored. The rows are found through the date index, so rows outside the range are not read.
+     *
+     * @param start  The first date to visit, inclusive.
+     * @param end    The last date to visit, inclusive.
+     * @param action Receives the position of each row.
+     */
+    public void forEachRowBetween(Date start, Date end, IntConsumer action) {
+        dateIndex.ensureBuilt(size);
+        dateIndex.forEachInRange(start.getKey(), end.getKey(), action);
+    }
+
+    /**
+     * Visits the rows whose values lie between two amounts in order of value, rows of the same value in
+     * the order they are stored. Values are compared in minor units, whatever the currency of each row.
+     *
+     * @param min    The smallest value to visit, inclusive.
+     * @param max    The largest value to visit, inclusive.
+     * @param action Receives the position of each row.
+     */
+    public void forEachRowCosting(long min, long max, IntConsumer action) {
+        valueIndex.ensureBuilt(size);
+        valueIndex.forEachInRange(min, max, action);
+    }
+
+    /**
+     * Visits the rows with the largest values, from the largest down.
+     *
+     * @param count  The number of rows to visit at most.
+     * @param action Receives the position of each row.
+     */
+    public void forEachLargestRow(int count, IntConsumer action) {
+        valueIndex.ensureBuilt(size);
+        valueIndex.forEachLargest(count, action);
+    }
+
+    /**
+     * Visits the rows whose {@link Transaction#toString()} text contains the keyword, ignoring case, in
+     * the order they are stored; see {@link TransactionMatcher#containing}.
+     *
+     * @param keyword The lower-case keyword.
+     * @param action  Receives the position of each row.
+     */
+    public void forEachRowContaining(String keyword, IntConsumer action) {
+        textIndex.forEachContaining(keyword, action);
+    }
+
+    /**
+     * Visits the rows with all the given field values, in the order they are stored. The rows are found by
+     * ANDing the bitmaps of the values, so rows without them are not read. A {@code null} value does not
+     * restrict the rows.
+     *
+     * @param category The category of the rows, or {@code null}.
+     * @param currency The currency of the rows, or {@code null}.
+     * @param month    The month of the rows, or {@code null}.
+     * @param year     The year of the rows, used only with a month, or {@link #ANY_YEAR} for that month
+     *                 of every year.
+     * @param action   Receives the position of each row.
+     */
+    public void forEachRowOf(Category category, Currency currency, Month month, int year, IntConsumer action) {
+        bitmapIndex.forEachRow(category, currency, month, year, action);
+    }
+
+    private void insert(int row, long value, Category category, int date, Currency currency, String tag) {
+        if (size == values.length) {
+            grow();
+        }
+        int moved = size - row;
+        System.arraycopy(values, row, values, row + 1, moved);
+        System.arraycopy(categories, row, categories, row + 1, moved);
+        System.arraycopy(currencies, row, currencies, row + 1, moved);
+        System.arraycopy(dates, row, dates, row + 1, moved);
+        System.arraycopy(tagColumn, row, tagColumn, row + 1, moved);
+        System.arraycopy(rowIds, row, rowIds, row + 1, moved);
+        size++;
+        write(row, value, category, date, currency, tag);
+        dateIndex.inserted(row);
+        valueIndex.inserted(row);
+        textIndex.inserted(row);
+        bitmapIndex.inserted(row);
+        spendingTotals.add(dates[row], getCategory(row), getCurrency(row), values[row]);
+        modCount++;
+    }
+
+    private void write(int row, long value, Category category, int date, Currency currency, String tag) {
+        values[row] = value;
+        categories[row] = (byte) category.ordinal();
+        currencies[row] = (byte) currency.ordinal();
+        dates[row] = date;
+        tagColumn[row] = TagDictionary.idOf(tag);
+        rowIds[row] = nextRowId++;
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        values = Arrays.copyOf(values, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        tagColumn = Arrays.copyOf(tagColumn, capacity);
+        rowIds = Arrays.copyOf(rowIds, capacity);
+    }
+
+    private static void checkIndex(int row, int bound) {
+        if (row < 0 || row >= bound) {
+            throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + bound);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package transaction;
+
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.function.BiPredicate;
+
+/**
+ * A condition on the fields of a transaction.
+ * <p>
+ * Matchers are written against plain field values rather than {@link Transaction} objects,
+ * so the same condition can be evaluated against in-memory transactions or directly against
+ * stored records without creating a transaction for every row.
+ * </p>
+ */
+@FunctionalInterface
+public interface TransactionMatcher {
+    TransactionMatcher ALL = (category, value, day, month, year, currency, tag) -> true;
+
+    /**
+     * Returns whether a transaction with the given fields matches. The value is in minor units of the currency.
+     */
+    boolean matches(Category category, long value, int day, Month month, int year, Currency currency, String tag);
+
+    /**
+     * Evaluates this matcher against an in-memory transaction.
+     */
+    default boolean matches(Transaction transaction) {
+        Date date = transaction.getDate();
+        return matches(transaction.getCategory(), transaction.getValue(), date.getDay(), date.getMonth(),
+                date.getYear(), transaction.getCurrency(), transaction.getTag());
+    }
+
+    /**
+     * Returns whether a transaction of the given month could match. Storage uses this to skip
+     * the stored transactions of months that cannot match without reading them.
+     */
+    default boolean mayMatchMonth(Month month, int year) {
+        return true;
+    }
+
+    /**
+     * Returns a matcher that only matches transactions of the months accepted by {@code months}
+     * that also satisfy {@code matcher}, and that lets storage skip all other months.
+     *
+     * @param months  Accepts the month and year of transactions that may match.
+     * @param matcher The condition on the remaining fields.
+     */
+    static TransactionMatcher inMonths(BiPredicate<Month, Integer> months, TransactionMatcher matcher) {
+        return new TransactionMatcher() {
+            @Override
+            public boolean matches(Category category, long value, int day, Month month, int year,
+                                   Currency currency, String tag) {
+                return months.test(month, year) && matcher.matches(category, value, day, month, year, currency, tag);
+            }
+
+            @Override
+            public boolean mayMatchMonth(Month month, int year) {
+                return months.test(month, year);
+            }
+        };
+    }
+
+    /**
+     * Returns a matcher for transactions dated between two dates, inclusive, that lets storage
+     * skip the months outside them.
+     */
+    static TransactionMatcher between(Date start, Date end) {
+        int startKey = start.getKey();
+        int endKey = end.getKey();
+        int startMonth = startKey / 100;
+        int endMonth = endKey / 100;
+        return inMonths((month, year) -> {
+            int monthKey = Date.pack(1, month, year) / 100;
+            return monthKey >= startMonth && monthKey <= endMonth;
+        }, (category, value, day, month, year, currency, tag) -> {
+            int key = Date.pack(day, month, year);
+            return key >= startKey && key <= endKey;
+        });
+    }
+
+    /**
+     * Returns a matcher for transactions whose {@link Transaction#toString()} text contains the keyword,
+     * ignoring case, such as {@code 4.5}, {@code bubble tea} or {@code 5th of jan}.
+     *
+     * @param keyword The lower-case keyword.
+     */
+    static TransactionMatcher containing(String keyword) {
+        return (category, value, day, month, year, currency, tag) ->
+                TokenIndex.describe(category, value, day, month, year, currency, tag).contains(keyword);
+    }
+}
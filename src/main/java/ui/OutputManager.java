@@ -1,16 +1,16 @@
 package ui;
 
 import bank.Bank;
+import summary.SummaryTotals;
 import transaction.Transaction;
 import utils.Budget;
 import utils.Category;
 import utils.Currency;
+import utils.Money;
 import utils.Month;
 
 
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Handles all formatted outputs to the console for the Finance Manager application.
@@ -24,17 +24,18 @@ import java.util.Map;
  */
 
 public class OutputManager {
+    private static final int CATEGORY_WIDTH = 12;
 
     /**
      * Prints a summary of the user's recent activity
      *
+     * @param totals the figures of the summary, including the transactions of the month it lists
      * @return String representing the user's activity
      */
 
     //@@author kevinlokewy
-    public static String printSummary(String month, List<Transaction> transactions,
-                                      Map<Category, Float> spendingByCategory,
-                                      Map<Category, Float> budgetByCategory,
+    public static String printSummary(String month,
+                                      SummaryTotals totals,
                                       Currency displayCurrency,
                                       boolean isConvertAll) {
 
@@ -47,51 +48,56 @@ public class OutputManager {
         appendCurrencyInfo(displayCurrency, isConvertAll, strb);
 
         // --- Recent Transactions ---
-        appendRecentTransactions(transactions, displayCurrency, isConvertAll, strb);
+        appendRecentTransactions(totals, displayCurrency, strb);
 
         // --- Category Totals ---
-        appendCategoryTotals(spendingByCategory, budgetByCategory, displayCurrency, strb);
+        appendCategoryTotals(totals, displayCurrency, strb);
 
         // --- Total Spend ---
-        appendTotalSpend(transactions, displayCurrency, isConvertAll, strb);
+        displayMonthlySpending(displayCurrency, strb, totals.getTotalSpent());
 
         return strb.toString();
     }
 
-    //@@author kevinlokewy
-    private static void appendTotalSpend(
-            List<Transaction> transactions, Currency displayCurrency, boolean isConvertAll, StringBuilder strb) {
+    /**
+     * Prints a summary of the spending over a range of months, such as {@code JAN-JUN 2026}. Unlike
+     * {@link #printSummary}, it lists no transactions, only the totals of each category.
+     *
+     * @param title  the title of the range
+     * @param totals the figures of the summary
+     * @return String representing the user's spending over the range
+     */
+    public static String printRangeSummary(String title,
+                                           SummaryTotals totals,
+                                           Currency displayCurrency,
+                                           boolean isConvertAll) {
+        StringBuilder strb = new StringBuilder();
 
-        float totalSpend = 0f;
-        for (Transaction t : transactions) {
-            if (isConvertAll) {
-                totalSpend += convertToSGD(displayCurrency,t);
-            } else {
-                totalSpend += t.getValue();
-            }
-        }
-        displayMonthlySpending(displayCurrency, strb, totalSpend);
+        appendCentreTitle(title, strb);
+        appendCurrencyInfo(displayCurrency, isConvertAll, strb);
+        appendCategoryTotals(totals, displayCurrency, strb);
+
+        strb.append("\nTotal spend over this period: ").append(displayCurrency.getSymbol());
+        Money.append(strb, totals.getTotalSpent()).append("\n");
+
+        return strb.toString();
     }
 
     //@@author kevinlokewy
     private static StringBuilder displayMonthlySpending(
-            Currency displayCurrency, StringBuilder strb, float totalSpend) {
+            Currency displayCurrency, StringBuilder strb, long totalSpend) {
 
-        return strb.append("\nTotal spend this month: ")
-                .append(displayCurrency.getSymbol())
-                .append(String.format("%.2f", totalSpend))
-                .append("\n");
+        strb.append("\nTotal spend this month: ").append(displayCurrency.getSymbol());
+        return Money.append(strb, totalSpend).append("\n");
     }
 
     //@@author kevinlokewy
-    private static void appendCategoryTotals(
-            Map<Category, Float> spendingByCategory, Map<Category, Float> budgetByCategory,
-            Currency displayCurrency, StringBuilder strb) {
+    private static void appendCategoryTotals(SummaryTotals totals, Currency displayCurrency, StringBuilder strb) {
 
         strb.append("\n--- Category Totals (Spent / Budget) ---\n");
         for (Category cat : Category.values()) {
-            float spent = spendingByCategory.getOrDefault(cat, 0f);
-            float budget = budgetByCategory.getOrDefault(cat, 0f);
+            long spent = totals.getSpent(cat);
+            long budget = totals.getBudget(cat);
 
             formatSpendingAndBudget(displayCurrency, strb, cat, spent, budget);
 
@@ -104,64 +110,40 @@ public class OutputManager {
 
     //@@author kevinlokewy
     private static StringBuilder formatSpendingAndBudget(
-            Currency displayCurrency, StringBuilder strb, Category cat, float spent, float budget) {
-        return strb.append(String.format("%-12s : %s%.2f / %s%.2f",
-                cat.name(),
-                displayCurrency.getSymbol(), spent,
-                displayCurrency.getSymbol(), budget));
+            Currency displayCurrency, StringBuilder strb, Category cat, long spent, long budget) {
+        strb.append(cat.name());
+        for (int width = cat.name().length(); width < CATEGORY_WIDTH; width++) {
+            strb.append(' ');
+        }
+        strb.append(" : ").append(displayCurrency.getSymbol());
+        Money.append(strb, spent).append(" / ").append(displayCurrency.getSymbol());
+        return Money.append(strb, budget);
     }
 
     //@@author kevinlokewy
     private static void appendRecentTransactions(
-            List<Transaction> transactions, Currency displayCurrency, boolean isConvertAll, StringBuilder strb) {
+            SummaryTotals totals, Currency displayCurrency, StringBuilder strb) {
         strb.append("--- Recent Transactions ---\n");
-        if (transactions.isEmpty()) {
+        if (totals.getTransactionCount() == 0) {
             strb.append("No transactions this month.\n");
         } else {
-            for (int i = 0; i < transactions.size(); i++) {
-                Transaction t = transactions.get(i);
-                float convertedValue;
-
-                if (isConvertAll) {
-                    convertedValue = convertToSGD(displayCurrency, t);
-                } else {
-                    convertedValue = t.getValue();
-                }
-
-                formatTransactions(displayCurrency, strb, i, convertedValue, t);
-            }
+            totals.forEachTransaction((i, t, displayValue) ->
+                    formatTransactions(displayCurrency, strb, i, displayValue, t));
         }
     }
 
-    /**
-     * Converts a transaction's value to SGD relative to the display currency.
-     *
-     * @param displayCurrency the target display currency
-     * @param t               the transaction to convert
-     * @return converted value in display currency
-     */
-
-    //@@author kevinlokewy
-    private static float convertToSGD(Currency displayCurrency, Transaction t) {
-        float convertedValue;
-        convertedValue = t.getValue()
-                * Currency.getExchangeRateToSGD(t.getCurrency())
-                / Currency.getExchangeRateToSGD(displayCurrency);
-        return convertedValue;
-    }
-
     /**
      * Formats a single transaction for display.
      */
 
     //@@author kevinlokewy
     private static void formatTransactions(
-            Currency displayCurrency, StringBuilder strb, int i, float convertedValue, Transaction t) {
+            Currency displayCurrency, StringBuilder strb, int i, long convertedValue, Transaction t) {
         strb.append("[")
                 .append(i + 1)
                 .append("] ")
-                .append(displayCurrency.getSymbol())
-                .append(String.format("%.2f", convertedValue))
+                .append(displayCurrency.getSymbol());
+        Money.append(strb, convertedValue)
                 .append(" spent on ")
                 .append(t.getCategory().name())
                 .append(" on ")
@@ -209,8 +191,8 @@ public class OutputManager {
                     strb.append("\n  ")
                             .append(category.name().toLowerCase())
                             .append(": ")
-                            .append(budget.getCurrency().getSymbol())
-                            .append(budget.getBudget());
+                            .append(budget.getCurrency().getSymbol());
+                    Money.appendPlain(strb, budget.getBudget());
 
                     isFound = true;
                     break;
@@ -232,22 +214,16 @@ public class OutputManager {
                 .append(keyword)
                 .append("':");
 
-        boolean isFound = false;
-
         for (Transaction t : transactions) {
-            if (t.getCategory().name().toLowerCase().contains(keyword)
-                    || t.toString().toLowerCase().contains(keyword)) {
-                strb.append("\n  ")
-                        .append(t.getTag()).append("(")
-                        .append(t.getCategory()).append(") | ")
-                        .append(t.getDate().getLongDate()).append(" | ")
-                        .append(t.getValue()).append(" ")
-                        .append(t.getCurrency());
-                isFound = true;
-            }
+            strb.append("\n  ")
+                    .append(t.getTag()).append("(")
+                    .append(t.getCategory()).append(") | ")
+                    .append(t.getDate().getLongDate()).append(" | ");
+            Money.appendPlain(strb, t.getValue()).append(" ")
+                    .append(t.getCurrency());
         }
 
-        if (!isFound) {
+        if (transactions.isEmpty()) {
             strb.append("\n  No matching transactions found.");
         }
 
@@ -270,8 +246,8 @@ public class OutputManager {
             strb.append("\n  ")
                     .append(t.getTag()).append("(")
                     .append(t.getCategory()).append(") | ")
-                    .append(t.getDate().getLongDate()).append(" | ")
-                    .append(t.getValue()).append(" ")
+                    .append(t.getDate().getLongDate()).append(" | ");
+            Money.appendPlain(strb, t.getValue()).append(" ")
                     .append(t.getCurrency());
         }
 
@@ -322,7 +298,7 @@ public class OutputManager {
     //@@author kevinlokewy
     private static void formatBankSummary(Bank b, StringBuilder sb) {
         Currency c = b.getCurrency();
-        String balanceStr = String.format("%.2f", b.getBalance());
+        String balanceStr = Money.format(b.getBalance());
 
         sb.append("ID: ").append(b.getId()).append(" | ");
 
@@ -365,7 +341,7 @@ public class OutputManager {
 
             sb.append("Currently logged into bank ID: ").append(currBank.getId()).append("\n")
                     .append("Balance: ");
-            formatBalance(sb, c, String.format("%.2f", currBank.getBalance()));
+            formatBalance(sb, c, Money.format(currBank.getBalance()));
             printMessage(sb.toString());
         }
     }
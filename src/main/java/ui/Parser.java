@@ -13,6 +13,7 @@ import commands.LoginCommand;
 import commands.LogoutCommand;
 import commands.SearchCommand;
 import commands.SummaryCommand;
+import commands.SyncCommand;
 import commands.ListRecentTransactionsCommand;
 import commands.ListBanksCommand;
 import commands.ATM;
@@ -175,6 +176,12 @@ public class Parser {
             }
             showLoggedBank = false;
             break;
+        case "sync":
+        case "flush":
+            logger.info("Executing 'sync' command");
+            cmd = new SyncCommand();
+            showLoggedBank = false;
+            break;
         case "chcp":
             cmd = new ChcpCommand();
             showLoggedBank = false;
@@ -39,7 +39,7 @@ public class User {
      */
     public static void addBank(Bank bank) {
         banks.add(bank);
-        storage.saveBanks(banks);
+        storage.appendBank(bank);
     }
 
     public static ArrayList<Bank> getBanks() {
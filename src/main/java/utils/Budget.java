@@ -4,13 +4,14 @@ import bank.Bank;
 
 public class Budget {
     private final Category category;
-    private float balance = 0.0F;
-    private float initialAmount = 0.0F;
+    private long balance = 0;           // Amounts are in minor units of the currency
+    private long initialAmount = 0;
     private final Currency currency;
     private final Month month;
     private final Bank bank;
+    private long version;
 
-    public Budget(Category category, float initialAmount, Currency currency, Month month, Bank bank) {
+    public Budget(Category category, long initialAmount, Currency currency, Month month, Bank bank) {
         this.category = category;
         this.initialAmount = initialAmount;
         this.balance = initialAmount; // initialize balance
@@ -22,13 +23,13 @@ public class Budget {
     /**
      * Gets the amount remaining in the user's budget for this category
      *
-     * @return remaining space in budget
+     * @return remaining space in budget, in minor units of its currency
      */
-    public float getRemainingAmount() {
+    public long getRemainingAmount() {
         return balance;
     }
 
-    public float getBudget() {
+    public long getBudget() {
         return initialAmount;
     }
 
@@ -48,8 +49,19 @@ public class Budget {
         return category;
     }
 
-    public void setBudget(float amount) {
+    /**
+     * Returns a counter that changes whenever the budgeted amount changes.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setBudget(long amount) {
         this.initialAmount = amount;
         this.balance = amount;
+        version++;
+        if (bank != null) {
+            bank.markBudgetChanged();
+        }
     }
 }
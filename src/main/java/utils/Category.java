@@ -12,7 +12,7 @@ public enum Category {
     private Budget budget;
 
     // call this after all enums are created
-    public void initBudget(float amount, Currency currency, Month month) {
+    public void initBudget(long amount, Currency currency, Month month) {
         this.budget = new Budget(this, amount, currency, month, User.getCurrBank());
     }
 
@@ -20,7 +20,7 @@ public enum Category {
         return budget;
     }
 
-    public void setBudget(float amount) {
+    public void setBudget(long amount) {
         if (budget == null) {
             throw new IllegalStateException("Budget not initialized for " + this);
         }
@@ -1,19 +1,37 @@
 package utils;
 
+/**
+ * A calendar date.
+ * <p>
+ * Besides its fields, a date holds a {@link #getKey() key} that packs it into a single int of the form
+ * yyyymmdd, so dates are compared and ordered with one integer comparison, and stores that keep dates
+ * as keys can compare them without creating a {@code Date}. {@link #of(int, Month, int)} returns a
+ * shared instance for each date, so the many transactions of a ledger that fall on the same day do
+ * not each hold their own copy.
+ * </p>
+ */
 public class Date {
-    private static final int MAX_PARTS_LENGTH = 2;
-    //  private static final int MIN_YEAR = 1900;
-    // private static final int MAX_YEAR = 2100;
+    public static final int MIN_YEAR = 1;
+    public static final int MAX_YEAR = 9999;
+    private static final int MIN_PARTS_LENGTH = 2;
+    private static final int MAX_PARTS_LENGTH = 3;
+    private static final int FIRST_CACHED_YEAR = 1970;
+    private static final int CACHED_YEARS = 200;
+    private static final int DAYS_PER_MONTH_SLOT = 31;
+    private static final Month[] MONTHS = Month.values();
+    private static final Date[][] cache = new Date[CACHED_YEARS][];
     final int day;
     final Month month;
     final int year;
+    private final int key;
 
     public Date(int day, Month month, int year) {
         if (month == null) {
             throw new IllegalArgumentException("Month cannot be null");
         }
-        if (year <= 0) {
-            throw new IllegalArgumentException("Year must be positive");
+        // Later years would overflow the packed key
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("Year must be between " + MIN_YEAR + " and " + MAX_YEAR);
         }
 
         int maxDay = getDaysInMonth(month, year);
@@ -24,6 +42,69 @@ public class Date {
         this.day = day;
         this.month = month;
         this.year = year;
+        this.key = pack(day, month, year);
+    }
+
+    /**
+     * Returns the date with the given fields, reusing a shared instance where there is one.
+     *
+     * @throws IllegalArgumentException If the fields do not form a valid date.
+     */
+    public static Date of(int day, Month month, int year) {
+        int yearSlot = year - FIRST_CACHED_YEAR;
+        if (yearSlot < 0 || yearSlot >= CACHED_YEARS || month == null || day < 1 || day > DAYS_PER_MONTH_SLOT) {
+            return new Date(day, month, year);
+        }
+        // Dates are immutable, so racing threads at worst create an extra instance of a year or date.
+        Date[] dates = cache[yearSlot];
+        if (dates == null) {
+            dates = new Date[MONTHS.length * DAYS_PER_MONTH_SLOT];
+            cache[yearSlot] = dates;
+        }
+        int slot = month.ordinal() * DAYS_PER_MONTH_SLOT + day - 1;
+        Date date = dates[slot];
+        if (date == null) {
+            date = new Date(day, month, year);
+            dates[slot] = date;
+        }
+        return date;
+    }
+
+    /**
+     * Returns the date packed into the given {@link #getKey() key}.
+     */
+    public static Date ofKey(int key) {
+        return of(unpackDay(key), unpackMonth(key), unpackYear(key));
+    }
+
+    /**
+     * Packs a date into a single sortable int of the form yyyymmdd.
+     */
+    public static int pack(int day, Month month, int year) {
+        return year * 10000 + (month.ordinal() + 1) * 100 + day;
+    }
+
+    /**
+     * Returns whether a key, such as one read from a file, packs a valid date.
+     */
+    public static boolean isValidKey(int key) {
+        int monthNumber = key / 100 % 100;
+        int year = unpackYear(key);
+        int day = unpackDay(key);
+        return key > 0 && monthNumber >= 1 && monthNumber <= MONTHS.length && year >= MIN_YEAR && year <= MAX_YEAR
+                && day >= 1 && day <= getDaysInMonth(MONTHS[monthNumber - 1], year);
+    }
+
+    public static int unpackDay(int key) {
+        return key % 100;
+    }
+
+    public static Month unpackMonth(int key) {
+        return MONTHS[key / 100 % 100 - 1];
+    }
+
+    public static int unpackYear(int key) {
+        return key / 10000;
     }
 
     private static int getDaysInMonth(Month month, int year) {
@@ -51,6 +132,13 @@ public class Date {
         return year;
     }
 
+    /**
+     * Returns this date packed into an int of the form yyyymmdd, which orders dates chronologically.
+     */
+    public int getKey() {
+        return key;
+    }
+
     public String getShortDate() {
         String dayStr = String.format("%02d", day);
         String monthStr = month.getNumber();
@@ -59,7 +147,15 @@ public class Date {
 
 
     public String getLongDate() {
-        return day + getDaySuffix(day) + " of " + month.getLongName() + ", " + year;
+        return appendLongDate(new StringBuilder(), day, month, year).toString();
+    }
+
+    /**
+     * Appends a date in the format of {@link #getLongDate()} without creating a {@code Date}.
+     */
+    public static StringBuilder appendLongDate(StringBuilder sb, int day, Month month, int year) {
+        return sb.append(day).append(getDaySuffix(day)).append(" of ").append(month.getLongName())
+                .append(", ").append(year);
     }
 
     public static String getDaySuffix(int day) {
@@ -75,23 +171,29 @@ public class Date {
     }
 
 
+    /**
+     * Parses a date in the format DD/MM, which falls in the current year, or DD/MM/YYYY.
+     *
+     * @throws IllegalArgumentException If the string is not a valid date.
+     */
     public static Date toDate(String str) {
         if (str == null || str.isEmpty()) {
             throw new IllegalArgumentException("Date string cannot be empty");
         }
 
         String[] parts = str.split("/");
-        if (parts.length != MAX_PARTS_LENGTH) {
-            throw new IllegalArgumentException("Invalid date format. Expected DD/MM");
+        if (parts.length < MIN_PARTS_LENGTH || parts.length > MAX_PARTS_LENGTH) {
+            throw new IllegalArgumentException("Invalid date format. Expected DD/MM or DD/MM/YYYY");
         }
 
         try {
             int day = Integer.parseInt(parts[0]);
             int monthNum = Integer.parseInt(parts[1]);
-            int year = java.time.LocalDate.now().getYear();
+            int year = parts.length == MAX_PARTS_LENGTH ? Integer.parseInt(parts[2])
+                    : java.time.LocalDate.now().getYear();
 
             Month month = Month.fromNumber(monthNum);
-            return new Date(day, month, year);
+            return of(day, month, year);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Date must contain only numbers: " + str);
         } catch (Exception e) {
@@ -99,23 +201,24 @@ public class Date {
         }
     }
 
-    public boolean isBefore(Date other) {
-        if (this.month.ordinal() < other.month.ordinal()) {
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
             return true;
         }
-        if (this.month.ordinal() > other.month.ordinal()) {
-            return false;
-        }
-        return this.day < other.day;
+        return other instanceof Date d && key == d.key;
+    }
+
+    @Override
+    public int hashCode() {
+        return key;
+    }
+
+    public boolean isBefore(Date other) {
+        return key < other.key;
     }
 
     public boolean isAfter(Date other) {
-        if (this.month.ordinal() > other.month.ordinal()) {
-            return true;
-        }
-        if (this.month.ordinal() < other.month.ordinal()) {
-            return false;
-        }
-        return this.day > other.day;
+        return key > other.key;
     }
 }
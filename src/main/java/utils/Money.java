@@ -0,0 +1,183 @@
+package utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic and formatting for amounts of money.
+ * <p>
+ * An amount is a {@code long} count of minor units, hundredths of its currency, held next to the
+ * {@link Currency} its owner already stores. Sums of amounts are therefore exact however many are
+ * added, and amounts are passed around, added and formatted without allocating anything.
+ * </p>
+ * <p>
+ * {@link #appendPlain(StringBuilder, long)} writes the short form used in storage, such as
+ * {@code 12.0} or {@code 5.25}, and {@link #append(StringBuilder, long)} the two-decimal form shown
+ * to the user. {@link #parse(CharSequence)} reads either, as well as amounts stored as floats.
+ * </p>
+ */
+public final class Money {
+    /** The number of minor units in one unit of a currency. */
+    public static final int SCALE = 100;
+    /**
+     * The largest amount accepted, 9,999,999,999,999.99. It leaves room to add up thousands of such
+     * amounts before a {@code long} could overflow.
+     */
+    public static final long MAX_AMOUNT = 999_999_999_999_999L;
+    private static final int FRACTION_DIGITS = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Parses a decimal amount into minor units. Digits beyond the second decimal place are rounded
+     * half up, so amounts stored as floats such as {@code 0.30000001} read back as the amount entered.
+     *
+     * @param text A decimal number, optionally signed and optionally in scientific notation.
+     * @return The amount in minor units.
+     * @throws NumberFormatException If the text is not a number, or its magnitude exceeds {@link #MAX_AMOUNT}.
+     */
+    public static long parse(CharSequence text) {
+        String string = text.toString();
+        return parse(string.toCharArray(), 0, string.length());
+    }
+
+    /**
+     * Parses a decimal amount held in part of a character array, like {@link #parse(CharSequence)}.
+     * Plain decimals are parsed without allocating.
+     *
+     * @param chars The characters to parse.
+     * @param start The index of the first character of the amount.
+     * @param end   The index after the last character of the amount.
+     * @return The amount in minor units.
+     * @throws NumberFormatException If the characters are not a number, or its magnitude exceeds {@link #MAX_AMOUNT}.
+     */
+    public static long parse(char[] chars, int start, int end) {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        boolean isNegative = start < end && chars[start] == '-';
+        int i = isNegative || start < end && chars[start] == '+' ? start + 1 : start;
+
+        long units = 0;
+        int digits = 0;
+        for (; i < end && isDigit(chars[i]); i++, digits++) {
+            units = units * 10 + (chars[i] - '0');
+            if (units > MAX_AMOUNT / SCALE) {
+                throw new NumberFormatException("Amount too large: " + new String(chars, start, end - start));
+            }
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && chars[i] == '.') {
+            for (i++; i < end && isDigit(chars[i]) && fractionDigits < FRACTION_DIGITS; i++) {
+                fraction = fraction * 10 + (chars[i] - '0');
+                fractionDigits++;
+                digits++;
+            }
+        }
+        if (i < end || digits == 0) {
+            return parseSlow(new String(chars, start, end - start));
+        }
+        for (; fractionDigits < FRACTION_DIGITS; fractionDigits++) {
+            fraction *= 10;
+        }
+        long amount = units * SCALE + fraction;
+        return isNegative ? -amount : amount;
+    }
+
+    /**
+     * Parses forms the fast path does not handle, such as extra decimal places or exponents.
+     */
+    private static long parseSlow(String text) {
+        BigDecimal amount = new BigDecimal(text).setScale(FRACTION_DIGITS, RoundingMode.HALF_UP)
+                .movePointRight(FRACTION_DIGITS);
+        if (amount.abs().compareTo(BigDecimal.valueOf(MAX_AMOUNT)) > 0) {
+            throw new NumberFormatException("Amount too large: " + text);
+        }
+        return amount.longValueExact();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Adds two amounts.
+     *
+     * @throws ArithmeticException If the sum exceeds {@link #MAX_AMOUNT}.
+     */
+    public static long add(long a, long b) {
+        long sum = Math.addExact(a, b);
+        if (Math.abs(sum) > MAX_AMOUNT) {
+            throw new ArithmeticException("Amount too large");
+        }
+        return sum;
+    }
+
+    /**
+     * Converts an amount between currencies at their exchange rates to SGD, rounding to the
+     * nearest minor unit.
+     */
+    public static long convert(long amount, Currency from, Currency to) {
+        if (from == to) {
+            return amount;
+        }
+        return Math.round(amount * (double) Currency.getExchangeRateToSGD(from)
+                / Currency.getExchangeRateToSGD(to));
+    }
+
+    /**
+     * Converts an amount stored as a float, in units of its currency, to minor units.
+     */
+    public static long fromFloat(float value) {
+        return Math.round((double) value * SCALE);
+    }
+
+    /**
+     * Appends an amount with exactly two decimal places, such as {@code 12.50}.
+     */
+    public static StringBuilder append(StringBuilder sb, long amount) {
+        appendUnits(sb, amount);
+        long fraction = Math.abs(amount % SCALE);
+        return sb.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Appends an amount with as few decimal places as it needs, but at least one, such as
+     * {@code 12.0} or {@code 12.5}. This is the form amounts are stored in.
+     */
+    public static StringBuilder appendPlain(StringBuilder sb, long amount) {
+        appendUnits(sb, amount);
+        long fraction = Math.abs(amount % SCALE);
+        sb.append((char) ('0' + fraction / 10));
+        if (fraction % 10 != 0) {
+            sb.append((char) ('0' + fraction % 10));
+        }
+        return sb;
+    }
+
+    private static void appendUnits(StringBuilder sb, long amount) {
+        if (amount < 0) {
+            sb.append('-');
+        }
+        sb.append(Math.abs(amount / SCALE)).append('.');
+    }
+
+    /**
+     * Returns an amount with exactly two decimal places.
+     */
+    public static String format(long amount) {
+        return append(new StringBuilder(), amount).toString();
+    }
+
+    /**
+     * Returns an amount in the form it is stored in.
+     */
+    public static String toPlainString(long amount) {
+        return appendPlain(new StringBuilder(), amount).toString();
+    }
+}
@@ -3,15 +3,18 @@ package bank;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import transaction.Transaction;
+import transaction.TransactionColumns;
 import ui.FinanceException;
 import user.User;
 import utils.Category;
 import utils.Date;
+import utils.Money;
 import utils.Month;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,21 +43,21 @@ public class BankTest {
     @Test
     public void bank_setBalance_success(){
         Bank currBank = User.getCurrBank();
-        float b1 = currBank.getBalance();
+        long b1 = currBank.getBalance();
         assertEquals(1000, b1);
         currBank.setBalance(110);
-        float b2 = currBank.getBalance();
+        long b2 = currBank.getBalance();
         assertEquals(110, b2);
     }
 
     @Test
     public void bank_setNegativeBalance_exceptionThrown(){
         Bank currBank = User.getCurrBank();
-        float b1 = currBank.getBalance();
+        long b1 = currBank.getBalance();
         assertThrows(IllegalArgumentException.class, () -> {
             currBank.setBalance(-10);
         });
-        float b2 = currBank.getBalance();
+        long b2 = currBank.getBalance();
         assertEquals(b1, b2);
     }
 
@@ -96,7 +99,7 @@ public class BankTest {
     @Test
     public void bank_addTransaction_success() throws FinanceException {
         Bank currBank = User.getCurrBank();
-        float value = 9.8f;
+        long value = 980;
         Category category = Category.FOOD;
         Date date = new Date(2, Month.APR, 2025);
         String tag = "Milo";
@@ -108,7 +111,7 @@ public class BankTest {
 
     @Test
     public void bank_addTransactionNegativeValue_failure() {
-        float value = -1 * 9.8f;
+        long value = -1 * 980;
         Category category = Category.FOOD;
         Date date = new Date(2, Month.APR, 2025);
         String tag = "Milo";
@@ -119,7 +122,7 @@ public class BankTest {
 
     @Test
     public void bank_addTransactionNullValues_failure(){
-        float value = 9.8f;
+        long value = 980;
         Category category = null;
         Date date = null;
         String tag = "Milo";
@@ -127,4 +130,59 @@ public class BankTest {
             new Transaction(value, category, date, null, tag);
         });
     }
+
+    @Test
+    public void bank_addAndDeleteTransactions_spendingTotalsFollow() throws FinanceException {
+        Bank currBank = User.getCurrBank();
+        currBank.addTransactionToBank(new Transaction(150, Category.FOOD, new Date(2, Month.APR, 2025), SGD, "A"));
+        currBank.addTransactionToBank(new Transaction(250, Category.FOOD, new Date(9, Month.APR, 2025), SGD, "B"));
+        currBank.addTransactionToBank(new Transaction(400, Category.FOOD, new Date(3, Month.APR, 2024), SGD, "C"));
+        currBank.addTransactionToBank(new Transaction(700, Category.TRANSPORT, new Date(2, Month.APR, 2025), JPY,
+                "D"));
+
+        currBank.deleteTransactionFromBank(0);
+
+        assertEquals(250, currBank.getSpending(Month.APR, 2025, Category.FOOD, SGD));
+        assertEquals(650, currBank.getSpending(Month.APR, TransactionColumns.ANY_YEAR, Category.FOOD, SGD));
+        assertEquals(700, currBank.getSpending(Month.APR, 2025, Category.TRANSPORT, JPY));
+        assertEquals(0, currBank.getSpending(Month.MAY, 2025, Category.FOOD, SGD));
+    }
+
+    @Test
+    public void bank_spendingOverRanges_matchesSumOfTransactions() throws FinanceException {
+        Bank currBank = User.getCurrBank();
+        Random random = new Random(25);
+        for (int i = 0; i < 300; i++) {
+            currBank.addTransactionToBank(new Transaction(random.nextInt(1000), Category.FOOD,
+                    new Date(1 + random.nextInt(28), Month.values()[random.nextInt(12)], 2022 + random.nextInt(5)),
+                    SGD, "T" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            currBank.deleteTransactionFromBank(random.nextInt(currBank.getTransactions().size()));
+        }
+
+        int[][] ranges = {{202201, 202612}, {202203, 202402}, {202305, 202305}, {202301, 202512}, {202411, 202601}};
+        for (int[] range : ranges) {
+            long expected = 0;
+            for (Transaction t : currBank.getTransactions()) {
+                int monthKey = t.getDate().getKey() / 100;
+                if (monthKey >= range[0] && monthKey <= range[1]) {
+                    expected += t.getValue();
+                }
+            }
+            assertEquals(expected, currBank.getSpending(Month.values()[range[0] % 100 - 1], range[0] / 100,
+                    Month.values()[range[1] % 100 - 1], range[1] / 100, Category.FOOD, SGD));
+        }
+    }
+
+    @Test
+    public void bank_deleteTransactionAtMaximumBalance_removesAndCapsBalance() throws FinanceException {
+        Bank bank = new Bank(1, SGD, Money.MAX_AMOUNT, 1.0f);
+        bank.addTransactionToBank(new Transaction(500, Category.FOOD, new Date(2, Month.APR, 2025), SGD, "A"));
+
+        bank.deleteTransactionFromBank(0);
+
+        assertEquals(0, bank.getTransactions().size());
+        assertEquals(Money.MAX_AMOUNT, bank.getBalance());
+    }
 }
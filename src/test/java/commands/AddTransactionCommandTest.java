@@ -30,7 +30,7 @@ public class AddTransactionCommandTest {
         User.getBudgets().clear();
 
         // Set up a test bank
-        Bank testBank = new Bank(1, Currency.SGD, 1000f, 1.0f);
+        Bank testBank = new Bank(1, Currency.SGD, 100000, 1.0f);
         User.addBank(testBank);
         User.setCurrBank(testBank);
         User.setIsLoggedIn(true);
@@ -44,7 +44,7 @@ public class AddTransactionCommandTest {
         assertEquals(1, User.getCurrBank().getTransactions().size());
         Transaction t = User.getCurrBank().getTransactions().get(0);
         assertEquals(Category.FOOD, t.getCategory());
-        assertEquals(10.5f, t.getValue());
+        assertEquals(1050, t.getValue());
     }
 
     @Test
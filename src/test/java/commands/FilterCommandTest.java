@@ -11,14 +11,18 @@ import utils.Currency;
 import utils.Date;
 import utils.Month;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FilterCommandTest {
     private static final Path TX_FILE = Path.of("transactions.txt");
@@ -32,26 +36,26 @@ class FilterCommandTest {
         User.getBudgets().clear();
 
         // Set up a test bank
-        bank0 = new Bank(0, Currency.SGD, 1000f, 1.0f);
+        bank0 = new Bank(0, Currency.SGD, 100000, 1.0f);
         User.addBank(bank0);
         User.setCurrBank(bank0);
         User.setIsLoggedIn(true);
 
         // Add test transactions
         Transaction t1 = new Transaction(
-                10.0f,
+                1000,
                 Category.FOOD,
                 new Date(1, Month.JAN, 2025),
                 Currency.SGD,
                 "Milo");
         Transaction t2 = new Transaction(
-                25.0f,
+                2500,
                 Category.ENTERTAINMENT,
                 new Date(2, Month.JAN, 2025),
                 Currency.SGD,
                 "Game");
         Transaction t3 = new Transaction(
-                5.0f,
+                500,
                 Category.FOOD,
                 new Date(5, Month.JAN, 2025),
                 Currency.SGD,
@@ -92,7 +96,7 @@ class FilterCommandTest {
         cmd.execute();
 
         long count = bank0.getTransactions().stream()
-                .filter(t -> t.getValue() >= 5 && t.getValue() <= 15)
+                .filter(t -> t.getValue() >= 500 && t.getValue() <= 1500)
                 .count();
 
         assertEquals(2, count);
@@ -111,6 +115,28 @@ class FilterCommandTest {
         assertEquals(2, count); // t1=Jan1, t2=Jan2
     }
 
+    @Test
+    void filterByDate_rangeAcrossYears_matchesByFullDate() throws FinanceException {
+        bank0.addTransactionToBank(new Transaction(300, Category.FOOD, new Date(31, Month.DEC, 2024),
+                Currency.SGD, "Eve"));
+        bank0.addTransactionToBank(new Transaction(300, Category.FOOD, new Date(1, Month.JAN, 2026),
+                Currency.SGD, "Later"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new FilterCommand(new ArrayList<>(List.of("date", "30/12/2024", "01/01/2025"))).execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String result = output.toString();
+        assertTrue(result.contains("Eve(FOOD)"));
+        assertTrue(result.contains("Milo(FOOD)"));
+        assertFalse(result.contains("Game"));
+        assertFalse(result.contains("Later"));
+    }
+
     @Test
     void filterByCategory_invalidCategory_throwsFinanceException() {
         assertThrows(FinanceException.class, () ->
@@ -169,4 +195,68 @@ class FilterCommandTest {
                 new FilterCommand(new ArrayList<>(List.of("date", "01-01", "02-01"))).execute()
         );
     }
+
+    @Test
+    void filterByDate_yearOutOfRange_throwsFinanceException() {
+        FinanceException e = assertThrows(FinanceException.class, () ->
+                new FilterCommand(new ArrayList<>(List.of("date", "01/01/2025", "01/01/300000"))).execute()
+        );
+        assertTrue(e.getMessage().startsWith("Error filtering by date"));
+    }
+
+    @Test
+    void filterTop_two_listsLargestFirstAfterDelete() throws FinanceException {
+        bank0.addTransactionToBank(new Transaction(4000, Category.FOOD, new Date(3, Month.JAN, 2025),
+                Currency.SGD, "Feast"));
+        new FilterCommand(new ArrayList<>(List.of("top", "1"))).execute();
+        bank0.deleteTransactionFromBank(3);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new FilterCommand(new ArrayList<>(List.of("top", "2"))).execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String result = output.toString();
+        assertTrue(result.indexOf("Game(ENTERTAINMENT)") < result.indexOf("Milo(FOOD)"));
+        assertTrue(result.contains("Game(ENTERTAINMENT)"));
+        assertFalse(result.contains("Feast"));
+        assertFalse(result.contains("Bread"));
+    }
+
+    @Test
+    void filterTop_invalidCount_throwsFinanceException() {
+        assertThrows(FinanceException.class, () ->
+                new FilterCommand(new ArrayList<>(List.of("top", "0"))).execute()
+        );
+
+        assertThrows(FinanceException.class, () ->
+                new FilterCommand(new ArrayList<>(List.of("top", "many"))).execute()
+        );
+    }
+
+    @Test
+    void filterCategory_withMonthAndYear_returnsOnlyThatMonth() throws FinanceException {
+        bank0.addTransactionToBank(new Transaction(700, Category.FOOD, new Date(3, Month.MAR, 2025),
+                Currency.SGD, "Soup"));
+        bank0.addTransactionToBank(new Transaction(700, Category.FOOD, new Date(3, Month.MAR, 2024),
+                Currency.SGD, "Noodles"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new FilterCommand(new ArrayList<>(List.of("category", "food", "mar", "2025"))).execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String result = output.toString();
+        assertTrue(result.contains("Soup(FOOD)"));
+        assertFalse(result.contains("Noodles"));
+        assertFalse(result.contains("Milo"));
+        assertThrows(FinanceException.class, () ->
+                new FilterCommand(new ArrayList<>(List.of("category", "food", "smarch"))).execute());
+    }
 }
@@ -0,0 +1,64 @@
+package commands;
+
+import bank.Bank;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.Transaction;
+import ui.FinanceException;
+import user.User;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListRecentTransactionsCommandTest {
+    private static final Path TX_FILE = Path.of("transactions.txt");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.deleteIfExists(TX_FILE);
+        User.initialise();
+
+        User.getBanks().clear();
+        User.getBudgets().clear();
+
+        Bank testBank = new Bank(1, Currency.SGD, 100000, 1.0f);
+        User.addBank(testBank);
+        User.setCurrBank(testBank);
+    }
+
+    @Test
+    public void execute_transactionWithCents_printsAmountWithDecimalPlaces() throws FinanceException {
+        User.getCurrBank().addTransactionToBank(new Transaction(450, Category.FOOD,
+                new Date(5, Month.JAN, 2025), Currency.SGD, "Kaya toast"));
+        User.getCurrBank().addTransactionToBank(new Transaction(1200, Category.TRANSPORT,
+                new Date(6, Month.JAN, 2025), Currency.SGD, "Taxi"));
+
+        String result = list();
+
+        assertTrue(result.contains("[1] SGD$4.50 spent on Kaya toast(FOOD) on 5th JAN, 2025"));
+        assertTrue(result.contains("[2] SGD$12.00 spent on Taxi(TRANSPORT)"));
+        assertFalse(result.contains("$450"));
+    }
+
+    private static String list() throws FinanceException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new ListRecentTransactionsCommand().execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+        return output.toString();
+    }
+}
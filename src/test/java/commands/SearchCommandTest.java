@@ -11,12 +11,16 @@ import utils.Currency;
 import utils.Date;
 import utils.Month;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -31,17 +35,17 @@ public class SearchCommandTest {
         User.getBanks().clear();
         User.getBudgets().clear();
 
-        Bank testBank = new Bank(1, Currency.SGD, 1000f, 1.0f);
+        Bank testBank = new Bank(1, Currency.SGD, 100000, 1.0f);
         User.addBank(testBank);
         User.setCurrBank(testBank);
 
         Bank currBank = User.getCurrBank();
 
-        currBank.addTransactionToBank(new Transaction(10.0f, Category.FOOD,
+        currBank.addTransactionToBank(new Transaction(1000, Category.FOOD,
                 new Date(5, Month.JAN, 2025), Currency.SGD, "Chicken Rice"));
-        currBank.addTransactionToBank(new Transaction(25.0f, Category.ENTERTAINMENT,
+        currBank.addTransactionToBank(new Transaction(2500, Category.ENTERTAINMENT,
                 new Date(10, Month.JAN, 2025), Currency.SGD, "Movie"));
-        currBank.addTransactionToBank(new Transaction(5.0f, Category.FOOD,
+        currBank.addTransactionToBank(new Transaction(500, Category.FOOD,
                 new Date(12, Month.JAN, 2025), Currency.SGD, "Bubble Tea"));
     }
 
@@ -53,7 +57,7 @@ public class SearchCommandTest {
         SearchCommand searchCommand = new SearchCommand(args);
         searchCommand.execute();
 
-        ArrayList<Transaction> txs = User.getCurrBank().getTransactions();
+        List<Transaction> txs = User.getCurrBank().getTransactions();
 
         boolean matchFound = txs.stream().anyMatch(
                 t -> t.getCategory().name().toLowerCase().contains("food")
@@ -73,4 +77,47 @@ public class SearchCommandTest {
         assertEquals("Too many arguments. Usage: search <keyword>", exception.getMessage());
 
     }
+
+    @Test
+    void searchCommand_tagWordAfterAddAndDelete_listsOnlyCurrentMatches() throws FinanceException {
+        Bank currBank = User.getCurrBank();
+        new SearchCommand(new ArrayList<>(List.of("rice"))).execute();
+        currBank.addTransactionToBank(new Transaction(800, Category.FOOD,
+                new Date(14, Month.JAN, 2025), Currency.SGD, "Duck Rice"));
+        currBank.deleteTransactionFromBank(0);
+
+        String result = search("RICE");
+
+        assertTrue(result.contains("Duck Rice(FOOD)"));
+        assertFalse(result.contains("Chicken Rice"));
+        assertTrue(search("january").contains("Movie(ENTERTAINMENT)"));
+        assertTrue(search("$5.0 |").contains("Bubble Tea(FOOD)"));
+        assertTrue(search("pizza").contains("No matching transactions found."));
+    }
+
+    @Test
+    void searchCommand_amountAndPhraseKeywords_matchTheWholeDescription() throws FinanceException {
+        User.getCurrBank().addTransactionToBank(new Transaction(450, Category.FOOD,
+                new Date(14, Month.JAN, 2025), Currency.SGD, "Kaya toast"));
+
+        assertTrue(search("4.5").contains("Kaya toast(FOOD)"));
+        assertFalse(search("4.5").contains("Movie"));
+        String phrase = search("bubble tea");
+        assertTrue(phrase.contains("Bubble Tea(FOOD)"));
+        assertFalse(phrase.contains("Chicken Rice"));
+        assertTrue(search("rice(fo").contains("Chicken Rice(FOOD)"));
+        assertTrue(search("10th of jan").contains("Movie(ENTERTAINMENT)"));
+    }
+
+    private static String search(String keyword) throws FinanceException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new SearchCommand(new ArrayList<>(List.of(keyword))).execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+        return output.toString();
+    }
 }
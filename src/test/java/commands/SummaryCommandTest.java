@@ -12,6 +12,7 @@ import utils.Category;
 import ui.FinanceException;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -33,10 +34,10 @@ public class SummaryCommandTest {
 
 
         // Add one bank and one budget for testing
-        Bank bank = new Bank(0, Currency.SGD, 1000f, 1.0f);
+        Bank bank = new Bank(0, Currency.SGD, 100000, 1.0f);
         User.getBanks().add(bank);
 
-        Budget budget = new Budget(Category.FOOD, 200f, Currency.SGD, Month.JAN, bank);
+        Budget budget = new Budget(Category.FOOD, 20000, Currency.SGD, Month.JAN, bank);
         User.getBudgets().add(budget);
     }
 
@@ -94,4 +95,22 @@ public class SummaryCommandTest {
 
         assertThrows(FinanceException.class, () -> cmd.execute());
     }
+
+    @Test
+    public void execute_rangesOfMonths_shouldNotThrow() {
+        for (String input : new String[] {"JAN-JUN 2026", "2025", "last 12 months", "FEB 2026 SGD", "2025 SGD"}) {
+            SummaryCommand cmd = new SummaryCommand(new ArrayList<>(List.of(input.split(" "))));
+
+            assertDoesNotThrow(() -> cmd.execute(), input);
+        }
+    }
+
+    @Test
+    public void execute_invalidRanges_shouldThrow() {
+        for (String input : new String[] {"JUN-JAN 2026", "JAN-FOO", "last 0 months", "last twelve months", "0"}) {
+            SummaryCommand cmd = new SummaryCommand(new ArrayList<>(List.of(input.split(" "))));
+
+            assertThrows(FinanceException.class, () -> cmd.execute(), input);
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the binary transaction format and its conversion to and from text.
+ */
+public class BinaryTransactionFileTest {
+    private static final String TEXT_FILE = "binary-test.txt";
+    private static final String BINARY_FILE = "binary-test.bin";
+    private static final List<String> LINES = List.of(
+            "0|lunch|FOOD|5.5|1|JAN|2025|SGD",
+            "0|lunch|FOOD|6.0|2|JAN|2025|SGD",
+            "1|bus|TRANSPORT|2.0|31|DEC|2024|JPY");
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(TEXT_FILE));
+        Files.deleteIfExists(Path.of(BINARY_FILE));
+    }
+
+    @Test
+    public void writeAndRead_validLines_roundTripInOrder() throws IOException {
+        TransactionFileConverter.writeBinary(Path.of(BINARY_FILE), 7, LINES);
+
+        List<String> lines = new ArrayList<>();
+        long generation = TransactionFileConverter.readBinary(Path.of(BINARY_FILE), lines);
+
+        assertEquals(7, generation);
+        assertEquals(LINES, lines);
+    }
+
+    @Test
+    public void textToBinaryToText_malformedLineSkipped() throws IOException {
+        List<String> input = new ArrayList<>(List.of("#gen 3"));
+        input.addAll(LINES);
+        input.add("0|broken|FOOD");
+        Files.write(Path.of(TEXT_FILE), input);
+
+        assertEquals(3, TransactionFileConverter.textToBinary(Path.of(TEXT_FILE), Path.of(BINARY_FILE)));
+        Files.delete(Path.of(TEXT_FILE));
+        assertEquals(3, TransactionFileConverter.binaryToText(Path.of(BINARY_FILE), Path.of(TEXT_FILE)));
+
+        List<String> expected = new ArrayList<>(List.of("#gen 3"));
+        expected.addAll(LINES);
+        assertEquals(expected, ChecksumsTest.readDataLines(Path.of(TEXT_FILE)));
+    }
+
+    @Test
+    public void decode_invalidMagic_throwsIOException() {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryTransactionFile.HEADER_SIZE);
+        assertThrows(IOException.class, () -> BinaryTransactionFile.decode(buffer, (bankId, tag, category,
+                value, day, month, year, currency) -> { }));
+    }
+
+    @Test
+    public void read_damagedSecondBlock_recordsOfFirstBlockKept() throws IOException {
+        List<String> input = new ArrayList<>();
+        for (int i = 0; i < BinaryTransactionFile.BLOCK_RECORDS + 10; i++) {
+            input.add("0|t" + i + "|FOOD|1.0|1|JAN|2025|SGD");
+        }
+        TransactionFileConverter.writeBinary(Path.of(BINARY_FILE), 2, input);
+        byte[] data = Files.readAllBytes(Path.of(BINARY_FILE));
+        data[data.length - BinaryTransactionFile.CHECKSUM_SIZE - 1] ^= 1;
+        Files.write(Path.of(BINARY_FILE), data);
+
+        List<String> lines = new ArrayList<>();
+        TransactionFileConverter.readBinary(Path.of(BINARY_FILE), lines);
+
+        assertEquals(input.subList(0, BinaryTransactionFile.BLOCK_RECORDS), lines);
+        assertEquals(BinaryTransactionFile.BLOCK_RECORDS, MappedTransactionFile.open(Path.of(BINARY_FILE))
+                .getRecordCount());
+    }
+
+    @Test
+    public void read_floatValuedFile_valuesReadInMinorUnits() throws IOException {
+        byte[] tag = "tea".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryTransactionFile.HEADER_SIZE + Short.BYTES + tag.length
+                + BinaryTransactionFile.FLOAT_RECORD_SIZE);
+        buffer.putInt(BinaryTransactionFile.MAGIC).putInt(BinaryTransactionFile.UNCHECKED_VERSION).putLong(4)
+                .putInt(1).putInt(1).putShort((short) tag.length).put(tag)
+                .putInt(0).put((byte) 0).put((byte) 4).putInt(20250102).putFloat(0.3f).putInt(0);
+        Files.write(Path.of(BINARY_FILE), buffer.array());
+
+        List<String> lines = new ArrayList<>();
+        TransactionFileConverter.readBinary(Path.of(BINARY_FILE), lines);
+
+        assertEquals(List.of("0|tea|FOOD|0.3|2|JAN|2025|SGD"), lines);
+        assertEquals(30, MappedTransactionFile.open(Path.of(BINARY_FILE)).getValue(0));
+    }
+}
@@ -0,0 +1,91 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for writing and verifying the block checksums of text snapshots.
+ */
+public class ChecksumsTest {
+    private static final Path SNAPSHOT = Path.of("checksums-test.txt");
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(SNAPSHOT);
+    }
+
+    /**
+     * Returns the lines of a snapshot without its checksum lines.
+     */
+    static List<String> readDataLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (!line.equals(Checksums.CHECKSUM_HEADER) && !line.startsWith(Checksums.BLOCK_PREFIX)) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void newReader_damagedSecondBlock_firstBlockSalvaged() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < Checksums.BLOCK_LINES * 3; i++) {
+            lines.add("0|t" + i + "|FOOD|1.0|1|JAN|2025|SGD");
+        }
+        Compactor.writeSnapshot(SNAPSHOT.toString(), 4, lines);
+        byte[] data = Files.readAllBytes(SNAPSHOT);
+        int secondBlock = new String(data).indexOf("|t" + Checksums.BLOCK_LINES + "|");
+        data[secondBlock + 2] = '9';
+        Files.write(SNAPSHOT, data);
+
+        List<String> salvaged = readAll(SNAPSHOT);
+
+        // The first block holds the two header lines and the first data lines
+        assertEquals(Checksums.BLOCK_LINES + 1, salvaged.size());
+        assertEquals("#gen 4", salvaged.get(0));
+        assertEquals(lines.subList(0, Checksums.BLOCK_LINES - 2), salvaged.subList(2, Checksums.BLOCK_LINES));
+    }
+
+    @Test
+    public void newReader_truncatedLastBlock_unverifiedTailDropped() throws IOException {
+        Compactor.writeSnapshot(SNAPSHOT.toString(), 1, List.of("0|SGD|100.0|1.0", "1|JPY|50.0|0.0085"));
+        byte[] data = Files.readAllBytes(SNAPSHOT);
+        Files.write(SNAPSHOT, new String(data).substring(0, data.length - 4).getBytes());
+
+        assertEquals(List.of(), readAll(SNAPSHOT));
+    }
+
+    @Test
+    public void newReader_snapshotWithoutChecksums_readInFull() throws IOException {
+        Files.write(SNAPSHOT, List.of("#gen 2", "0|SGD|100.0|1.0", "1|JPY|50.0|0.0085"));
+
+        assertEquals(List.of("#gen 2", "0|SGD|100.0|1.0", "1|JPY|50.0|0.0085"), readAll(SNAPSHOT));
+    }
+
+    private static List<String> readAll(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Checksums.newReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,102 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for folding journaled changes into snapshots.
+ */
+public class CompactorTest {
+    private static final String SNAPSHOT = "compactor-test.txt";
+    private static final String JOURNAL = "compactor-test.journal";
+    private static final String SEGMENTS = "compactor-test.*.g*.txt";
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(SNAPSHOT));
+        Files.deleteIfExists(Path.of(JOURNAL));
+        for (int generation = 1; generation < 10; generation++) {
+            Files.deleteIfExists(Path.of(JOURNAL + "." + generation));
+        }
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(Path.of("."), SEGMENTS)) {
+            for (Path segment : segments) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    @Test
+    public void compact_transactionRecords_foldedIntoSegmentPerBank() throws IOException {
+        SegmentedSnapshot snapshot = new SegmentedSnapshot(SNAPSHOT, ".txt", null);
+        Compactor.Store store = new Compactor.Store(snapshot, JOURNAL);
+        store.getJournal().append("A|0|lunch|FOOD|5.0|1|JAN|2025|SGD");
+        store.getJournal().append("A|1|bus|TRANSPORT|2.0|2|JAN|2025|SGD");
+        store.getJournal().append("A|0|movie|ENTERTAINMENT|12.0|3|JAN|2025|SGD");
+        store.getJournal().append("D|0|0");
+
+        new Compactor(List.of(store)).compact(store);
+
+        assertEquals(List.of("#gen 1", "#segment 0-2025-01 compactor-test.0-2025-01.g1.txt",
+                "#segment 1-2025-01 compactor-test.1-2025-01.g1.txt"), ChecksumsTest.readDataLines(Path.of(SNAPSHOT)));
+        assertEquals(List.of("#gen 1", "0|movie|ENTERTAINMENT|12.0|3|JAN|2025|SGD"),
+                ChecksumsTest.readDataLines(Path.of("compactor-test.0-2025-01.g1.txt")));
+        assertEquals(List.of("#gen 1", "1|bus|TRANSPORT|2.0|2|JAN|2025|SGD"),
+                ChecksumsTest.readDataLines(Path.of("compactor-test.1-2025-01.g1.txt")));
+        assertFalse(store.getJournal().hasPendingRecords());
+    }
+
+    @Test
+    public void compact_recordsForOneMonth_otherSegmentsUntouched() throws IOException {
+        Files.write(Path.of(SNAPSHOT), List.of("#gen 0",
+                "0|lunch|FOOD|5.0|1|JAN|2025|SGD",
+                "0|dinner|FOOD|9.0|4|FEB|2025|SGD",
+                "1|bus|TRANSPORT|2.0|2|JAN|2025|SGD"));
+        SegmentedSnapshot snapshot = new SegmentedSnapshot(SNAPSHOT, ".txt", null);
+        Compactor.Store store = new Compactor.Store(snapshot, JOURNAL);
+        Compactor compactor = new Compactor(List.of(store));
+        store.getJournal().append("A|0|movie|ENTERTAINMENT|12.0|3|JAN|2025|SGD");
+        compactor.compact(store);
+
+        store.getJournal().append("A|0|taxi|TRANSPORT|15.0|9|FEB|2025|SGD");
+        store.getJournal().append("D|0|2025|FEB|0");
+        compactor.compact(store);
+
+        assertEquals(List.of("#gen 2", "#segment 0-2025-01 compactor-test.0-2025-01.g1.txt",
+                "#segment 0-2025-02 compactor-test.0-2025-02.g2.txt",
+                "#segment 1-2025-01 compactor-test.1-2025-01.g1.txt"), ChecksumsTest.readDataLines(Path.of(SNAPSHOT)));
+        assertEquals(List.of("#gen 1", "0|lunch|FOOD|5.0|1|JAN|2025|SGD",
+                "0|movie|ENTERTAINMENT|12.0|3|JAN|2025|SGD"),
+                ChecksumsTest.readDataLines(Path.of("compactor-test.0-2025-01.g1.txt")));
+        assertEquals(List.of("#gen 2", "0|taxi|TRANSPORT|15.0|9|FEB|2025|SGD"),
+                ChecksumsTest.readDataLines(Path.of("compactor-test.0-2025-02.g2.txt")));
+        assertFalse(Files.exists(Path.of("compactor-test.0-2025-02.g1.txt")));
+    }
+
+    @Test
+    public void compact_upsertRecords_keepLatestPerKey() throws IOException {
+        Compactor.Store store = new Compactor.Store(SNAPSHOT, JOURNAL, 1);
+        store.getJournal().append("U|0|SGD|100.0|1.0");
+        store.getJournal().append("U|1|JPY|50.0|0.0085");
+        store.getJournal().append("U|0|SGD|80.0|1.0");
+
+        new Compactor(List.of(store)).compact(store);
+
+        assertEquals(List.of("#gen 1", "0|SGD|80.0|1.0", "1|JPY|50.0|0.0085"),
+                ChecksumsTest.readDataLines(Path.of(SNAPSHOT)));
+    }
+}
@@ -0,0 +1,67 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for appending to and recovering the journal.
+ */
+public class JournalTest {
+    private static final String JOURNAL = "journal-test.journal";
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(JOURNAL));
+    }
+
+    @Test
+    public void open_tornLastRecord_recordDiscardedBeforeNextAppend() throws IOException {
+        Files.writeString(Path.of(JOURNAL), "#gen 1\nU|0|SGD|1.0|1.0\nU|1|SG");
+
+        Journal journal = new Journal(JOURNAL);
+        journal.append("U|1|JPY|2.0|0.0085");
+
+        List<String> records = new ArrayList<>();
+        new Journal(JOURNAL).replay(0, records::add);
+        assertEquals(List.of("U|0|SGD|1.0|1.0", "U|1|JPY|2.0|0.0085"), records);
+    }
+
+    @Test
+    public void append_groupCommitFromManyThreads_everyRecordReplayed() throws InterruptedException {
+        Journal journal = new Journal(JOURNAL, Durability.GROUP_COMMIT, 5);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    journal.append("U|" + thread + "|" + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<String> records = new ArrayList<>();
+        new Journal(JOURNAL).replay(0, records::add);
+        assertEquals(100, records.size());
+        assertEquals(100, journal.getRecordCount());
+    }
+}
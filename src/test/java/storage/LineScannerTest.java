@@ -0,0 +1,75 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import utils.Category;
+import utils.Currency;
+import utils.Month;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for scanning delimiter-separated data lines.
+ */
+public class LineScannerTest {
+    @Test
+    public void nextLine_mixedLineEndings_readsEveryLine() throws IOException {
+        String longTag = "x".repeat(20000);
+        LineScanner scanner = new LineScanner(new StringReader("#gen 2\r\n0|" + longTag + "\n\n1|last"));
+
+        assertTrue(scanner.nextLine());
+        assertEquals("#gen 2", scanner.getLine());
+        assertTrue(scanner.nextLine());
+        assertEquals(0, scanner.nextInt());
+        assertEquals(longTag, scanner.nextString());
+        assertTrue(scanner.nextLine());
+        assertTrue(scanner.isEmpty());
+        assertTrue(scanner.nextLine());
+        assertEquals("1|last", scanner.getLine());
+        assertFalse(scanner.nextLine());
+    }
+
+    @Test
+    public void nextFields_transactionLine_parsedInOrder() {
+        LineScanner scanner = new LineScanner();
+        scanner.reset("A|0|lunch|food|10.5|12|APR|2025|SGD", 2);
+
+        assertEquals(8, scanner.getFieldCount());
+        assertEquals(0, scanner.nextInt());
+        assertEquals("lunch", scanner.nextString());
+        assertEquals(Category.FOOD, scanner.nextEnumIgnoreCase(Category.values()));
+        assertEquals(10.5f, scanner.nextFloat());
+        assertEquals(12, scanner.nextInt());
+        assertEquals(Month.APR, scanner.nextEnum(Month.values()));
+        assertEquals(2025, scanner.nextInt());
+        assertEquals(Currency.SGD, scanner.nextEnum(Currency.values()));
+        assertThrows(NumberFormatException.class, scanner::nextInt);
+    }
+
+    @Test
+    public void nextFloat_variousForms_sameAsParseFloat() {
+        String[] inputs = {"0.0", "0.1", "12.34", "-7.25", "0.0085", "1.0E10", "123456.78", "3.4028235E38", " 5 "};
+        LineScanner scanner = new LineScanner();
+        for (String input : inputs) {
+            scanner.reset(input);
+            assertEquals(Float.parseFloat(input), scanner.nextFloat(), input);
+        }
+    }
+
+    @Test
+    public void nextInvalidField_throwsIllegalArgumentException() {
+        LineScanner scanner = new LineScanner();
+        scanner.reset("12a|apr|1.2.3");
+
+        assertThrows(NumberFormatException.class, scanner::nextInt);
+        scanner.skipField();
+        assertThrows(IllegalArgumentException.class, () -> scanner.nextEnum(Month.values()));
+        scanner.skipField();
+        assertThrows(NumberFormatException.class, scanner::nextFloat);
+    }
+}
@@ -0,0 +1,77 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import transaction.Transaction;
+import transaction.TransactionColumns;
+import transaction.TransactionMatcher;
+import utils.Category;
+import utils.Currency;
+import utils.Month;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for scanning a memory-mapped binary transaction file.
+ */
+public class MappedTransactionFileTest {
+    private static final String BINARY_FILE = "mapped-test.bin";
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+        TransactionFileConverter.writeBinary(Path.of(BINARY_FILE), 4, List.of(
+                "0|lunch|FOOD|5.5|1|JAN|2025|SGD",
+                "1|bus|TRANSPORT|2.0|2|JAN|2025|JPY",
+                "0|movie|ENTERTAINMENT|12.0|3|FEB|2025|SGD"));
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(BINARY_FILE));
+    }
+
+    @Test
+    public void open_validFile_fieldsReadByRow() throws IOException {
+        MappedTransactionFile mapped = MappedTransactionFile.open(Path.of(BINARY_FILE));
+
+        assertEquals(4, mapped.getGeneration());
+        assertEquals(3, mapped.getRecordCount());
+        assertEquals(1, mapped.getBankId(1));
+        assertEquals(Category.TRANSPORT, mapped.getCategory(1));
+        assertEquals(Currency.JPY, mapped.getCurrency(1));
+        assertEquals(200, mapped.getValue(1));
+        assertEquals("bus", mapped.getTag(1));
+    }
+
+    @Test
+    public void select_monthMatcher_onlyMatchingRowsOfBank() throws IOException {
+        MappedTransactionFile mapped = MappedTransactionFile.open(Path.of(BINARY_FILE));
+
+        List<Transaction> selected = mapped.select(0, (category, value, day, month, year, currency, tag) ->
+                month == Month.FEB);
+
+        assertEquals(1, selected.size());
+        assertEquals("movie", selected.get(0).getTag());
+        assertEquals(2, mapped.select(0, TransactionMatcher.ALL).size());
+    }
+
+    @Test
+    public void addTotals_bank_onlyItsRowsAddedByMonth() throws IOException {
+        MappedTransactionFile mapped = MappedTransactionFile.open(Path.of(BINARY_FILE));
+        SegmentTotals totals = new SegmentTotals();
+
+        mapped.addTotals(0, totals);
+
+        assertEquals(550, totals.getTotal(Month.JAN, 2025, Category.FOOD, Currency.SGD));
+        assertEquals(1200, totals.getTotal(Month.FEB, TransactionColumns.ANY_YEAR, Category.ENTERTAINMENT,
+                Currency.SGD));
+        assertEquals(0, totals.getTotal(Month.JAN, 2025, Category.TRANSPORT, Currency.JPY));
+    }
+}
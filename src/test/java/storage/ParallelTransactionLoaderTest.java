@@ -0,0 +1,60 @@
+package storage;
+
+import bank.Bank;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.Currency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for loading a transaction file in parallel chunks.
+ */
+public class ParallelTransactionLoaderTest {
+    private static final String FILE = "parallel-test.txt";
+    private static final int TRANSACTION_COUNT = 5000;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(FILE));
+    }
+
+    @Test
+    public void load_manySmallChunks_transactionsKeepFileOrderPerBank() throws IOException {
+        List<String> lines = new ArrayList<>(List.of("#gen 9"));
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            lines.add(i % 3 + "|tag" + i + "|FOOD|" + i + ".5|" + (i % 28 + 1) + "|MAR|2025|SGD");
+            if (i % 1000 == 0) {
+                lines.add("0|broken");
+            }
+        }
+        Files.write(Path.of(FILE), lines);
+
+        List<Bank> banks = List.of(new Bank(0, Currency.SGD, 0, 1),
+                new Bank(1, Currency.SGD, 0, 1), new Bank(2, Currency.SGD, 0, 1));
+        long generation = ParallelTransactionLoader.load(Path.of(FILE), banks, new ForkJoinPool(4), 1024);
+
+        assertEquals(9, generation);
+        int loaded = 0;
+        for (Bank bank : banks) {
+            for (int i = 0; i < bank.getTransactions().size(); i++) {
+                assertEquals("tag" + (i * 3 + bank.getId()), bank.getTransactions().get(i).getTag());
+            }
+            loaded += bank.getTransactions().size();
+        }
+        assertEquals(TRANSACTION_COUNT, loaded);
+    }
+}
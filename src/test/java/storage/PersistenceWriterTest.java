@@ -0,0 +1,71 @@
+package storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for writing journal records on the background writer thread.
+ */
+public class PersistenceWriterTest {
+    private static final String SNAPSHOT = "writer-test.txt";
+    private static final String JOURNAL = "writer-test.journal";
+
+    @BeforeEach
+    public void setup() throws IOException {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(Path.of(SNAPSHOT));
+        Files.deleteIfExists(Path.of(JOURNAL));
+    }
+
+    @Test
+    public void coalesce_repeatedUpserts_onlyLatestPerKeyKept() {
+        Compactor.Store store = new Compactor.Store(SNAPSHOT, JOURNAL, 1);
+        List<PersistenceWriter.ChangeEvent> batch = List.of(
+                new PersistenceWriter.ChangeEvent(store, "0", "U|0|SGD|100.0|1.0"),
+                new PersistenceWriter.ChangeEvent(store, null, "A|0|lunch|FOOD|5.0|1|JAN|2025|SGD"),
+                new PersistenceWriter.ChangeEvent(store, "1", "U|1|JPY|50.0|0.0085"),
+                new PersistenceWriter.ChangeEvent(store, "0", "U|0|SGD|95.0|1.0"));
+
+        List<String> records = new ArrayList<>();
+        for (PersistenceWriter.ChangeEvent event : PersistenceWriter.coalesce(batch)) {
+            records.add(event.record());
+        }
+
+        assertEquals(List.of("A|0|lunch|FOOD|5.0|1|JAN|2025|SGD", "U|1|JPY|50.0|0.0085", "U|0|SGD|95.0|1.0"),
+                records);
+    }
+
+    @Test
+    public void flush_smallQueue_everyRecordWrittenInOrder() throws IOException {
+        Compactor.Store store = new Compactor.Store(SNAPSHOT, JOURNAL, 0);
+        List<Compactor.Store> written = new ArrayList<>();
+        PersistenceWriter writer = new PersistenceWriter(4, written::add);
+        List<String> expected = new ArrayList<>(List.of("#gen 1"));
+        for (int i = 0; i < 100; i++) {
+            writer.publish(new PersistenceWriter.ChangeEvent(store, null, "A|" + i));
+            expected.add("A|" + i);
+        }
+
+        writer.flush();
+
+        assertEquals(expected, Files.readAllLines(Path.of(JOURNAL)));
+        PersistenceWriter.Stats stats = writer.getStats();
+        assertEquals(100, stats.published());
+        assertEquals(100, stats.written());
+        assertEquals(0, stats.pending());
+        assertEquals(stats.batches(), written.size());
+    }
+}
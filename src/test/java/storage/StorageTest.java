@@ -4,7 +4,10 @@ import bank.Bank;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import summary.MonthRange;
+import summary.Summary;
 import transaction.Transaction;
+import transaction.TransactionMatcher;
 import user.User;
 import utils.Budget;
 import utils.Category;
@@ -13,14 +16,20 @@ import utils.Date;
 import utils.Month;
 import ui.FinanceException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 /**
@@ -30,6 +39,11 @@ public class StorageTest {
     private static final Path TX_FILE = Path.of("transactions.txt");
     private static final Path BUD_FILE = Path.of("budgets.txt");
     private static final Path BANK_FILE = Path.of("banks.txt");
+    private static final Path TX_JOURNAL_FILE = Path.of("transactions.journal");
+    private static final Path BUD_JOURNAL_FILE = Path.of("budgets.journal");
+    private static final Path BANK_JOURNAL_FILE = Path.of("banks.journal");
+    private static final String TX_SEGMENTS = "transactions.*.g*.txt";
+    private static final String TX_LEFTOVERS = "transactions.{journal.*,*.tmp}";
 
     private Storage storage;
 
@@ -41,6 +55,9 @@ public class StorageTest {
         Files.deleteIfExists(TX_FILE);
         Files.deleteIfExists(BUD_FILE);
         Files.deleteIfExists(BANK_FILE);
+        Files.deleteIfExists(TX_JOURNAL_FILE);
+        Files.deleteIfExists(BUD_JOURNAL_FILE);
+        Files.deleteIfExists(BANK_JOURNAL_FILE);
 
         User.initialise();
         // Initialize User static fields
@@ -56,12 +73,25 @@ public class StorageTest {
         Files.deleteIfExists(TX_FILE);
         Files.deleteIfExists(BUD_FILE);
         Files.deleteIfExists(BANK_FILE);
+        Files.deleteIfExists(TX_JOURNAL_FILE);
+        Files.deleteIfExists(BUD_JOURNAL_FILE);
+        Files.deleteIfExists(BANK_JOURNAL_FILE);
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(Path.of("."), TX_SEGMENTS)) {
+            for (Path segment : segments) {
+                Files.delete(segment);
+            }
+        }
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(Path.of("."), TX_LEFTOVERS)) {
+            for (Path leftover : leftovers) {
+                Files.delete(leftover);
+            }
+        }
     }
 
     //@@author kevinlokewy
     @Test
     public void saveAndLoadBanks_shouldPersistBanks() {
-        Bank bank = new Bank(0, Currency.THB, 100f, 0.04f);
+        Bank bank = new Bank(0, Currency.THB, 10000, 0.04f);
         User.getBanks().add(bank);
 
         storage.saveBanks(User.getBanks());
@@ -77,10 +107,10 @@ public class StorageTest {
     //@@author kevinlokewy
     @Test
     public void saveAndLoadTransactions_shouldPersistTransactions() throws FinanceException {
-        Bank bank = new Bank(0, Currency.THB, 100f, 0.04f);
+        Bank bank = new Bank(0, Currency.THB, 10000, 0.04f);
         User.getBanks().add(bank);
 
-        Transaction tx = new Transaction(50f, Category.FOOD, new Date(15, Month.JAN, 2025), Currency.THB, "Lunch");
+        Transaction tx = new Transaction(5000, Category.FOOD, new Date(15, Month.JAN, 2025), Currency.THB, "Lunch");
         bank.getTransactions().add(tx);
 
         storage.saveTransactions(User.getBanks());
@@ -101,10 +131,10 @@ public class StorageTest {
     //@@author kevinlokewy
     @Test
     public void saveAndLoadBudgets_shouldPersistBudgets() {
-        Bank bank = new Bank(0, Currency.THB, 100f, 0.04f);
+        Bank bank = new Bank(0, Currency.THB, 10000, 0.04f);
         User.getBanks().add(bank);
 
-        Budget budget = new Budget(Category.FOOD, 200f, Currency.THB, Month.JAN, bank);
+        Budget budget = new Budget(Category.FOOD, 20000, Currency.THB, Month.JAN, bank);
         bank.addBudgetToBank(budget);
         //User.getBudgets().add(budget);
 
@@ -123,4 +153,205 @@ public class StorageTest {
         assertEquals(budget.getMonth(), loadedBudget.getMonth());
         assertEquals(budget.getBank(), loadedBudget.getBank());
     }
+
+    @Test
+    public void appendTransactionAndDeletion_journaled_replayedOnLoad() throws FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        storage.saveTransactions(User.getBanks());
+
+        Transaction lunch = new Transaction(500, Category.FOOD, new Date(1, Month.MAR, 2025), Currency.SGD, "Lunch");
+        Transaction bus = new Transaction(200, Category.TRANSPORT, new Date(2, Month.MAR, 2025), Currency.SGD, "Bus");
+        storage.appendTransaction(bank, lunch);
+        storage.appendTransaction(bank, bus);
+        storage.appendTransactionDeletion(bank, 0, lunch);
+
+        storage.loadTransactions();
+
+        assertEquals(1, bank.getTransactions().size());
+        assertEquals("Bus", bank.getTransactions().get(0).getTag());
+    }
+
+    @Test
+    public void appendBank_unchangedBank_notJournaledAgain() throws IOException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+
+        storage.appendBank(bank);
+        storage.appendBank(bank);
+        storage.flush();
+        bank.setBalance(8000);
+        storage.appendBank(bank);
+        storage.flush();
+
+        assertEquals(List.of("#gen 1", "U|0|SGD|100.0|1.0", "U|0|SGD|80.0|1.0"),
+                Files.readAllLines(BANK_JOURNAL_FILE));
+    }
+
+    @Test
+    public void saveTransactions_oneBankChanged_onlyItsSegmentRewritten() throws IOException, FinanceException {
+        Bank first = new Bank(0, Currency.SGD, 10000, 1.0f);
+        Bank second = new Bank(1, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(first);
+        User.getBanks().add(second);
+        first.getTransactions().add(new Transaction(500, Category.FOOD, new Date(1, Month.MAR, 2025),
+                Currency.SGD, "Lunch"));
+        storage.saveTransactions(User.getBanks());
+
+        second.getTransactions().add(new Transaction(200, Category.TRANSPORT, new Date(2, Month.MAR, 2025),
+                Currency.SGD, "Bus"));
+        storage.saveTransactions(User.getBanks());
+
+        assertEquals(List.of("#gen 2", "#segment 0-2025-03 transactions.0-2025-03.g1.txt",
+                "#segment 1-2025-03 transactions.1-2025-03.g2.txt"), ChecksumsTest.readDataLines(TX_FILE));
+        first.getTransactions().clear();
+        second.getTransactions().clear();
+        storage.loadTransactions();
+        assertEquals("Lunch", first.getTransactions().get(0).getTag());
+        assertEquals("Bus", second.getTransactions().get(0).getTag());
+    }
+
+    @Test
+    public void selectTransactions_monthMatcherOnColdBank_onlyThatMonthRead() throws IOException, FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        bank.getTransactions().add(new Transaction(500, Category.FOOD, new Date(1, Month.MAR, 2025),
+                Currency.SGD, "Lunch"));
+        bank.getTransactions().add(new Transaction(200, Category.TRANSPORT, new Date(2, Month.APR, 2025),
+                Currency.SGD, "Bus"));
+        storage.saveTransactions(User.getBanks());
+        Files.delete(Path.of("transactions.0-2025-04.g1.txt"));
+        bank.getTransactions().clear();
+        storage.loadTransactions();
+
+        List<Transaction> march = storage.selectTransactions(bank, TransactionMatcher.inMonths((month, year) ->
+                month == Month.MAR && year == 2025, TransactionMatcher.ALL));
+
+        assertEquals(1, march.size());
+        assertEquals("Lunch", march.get(0).getTag());
+        assertFalse(bank.isTransactionsLoaded());
+    }
+
+    @Test
+    public void showMonthlySummary_coldBank_readsOnlyThatMonthAndStaysUnloaded() throws FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        bank.getTransactions().add(new Transaction(500, Category.FOOD, new Date(1, Month.MAR, 2025),
+                Currency.SGD, "Lunch"));
+        bank.getTransactions().add(new Transaction(200, Category.TRANSPORT, new Date(2, Month.APR, 2025),
+                Currency.SGD, "Bus"));
+        bank.getTransactions().add(new Transaction(300, Category.FOOD, new Date(9, Month.MAR, 2026),
+                Currency.SGD, "Dinner"));
+        storage.saveTransactions(User.getBanks());
+        bank.getTransactions().clear();
+        storage.loadTransactions();
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            new Summary(storage).showMonthlySummary("MAR", bank, Currency.SGD, false);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(output.toString().contains("Total spend this month: $8.00"), output.toString());
+        assertEquals(300, storage.getSpending(bank, Month.MAR, 2026, Category.FOOD, Currency.SGD));
+        assertEquals(0, storage.getSpending(bank, Month.APR, 2026, Category.TRANSPORT, Currency.SGD));
+        assertFalse(bank.isTransactionsLoaded());
+        assertEquals(200, bank.getSpending(Month.APR, 2025, Category.TRANSPORT, Currency.SGD));
+    }
+
+    @Test
+    public void showRangeSummary_coldBank_readsOnlyMonthsInRangeAndStaysUnloaded() throws FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        bank.getTransactions().add(new Transaction(500, Category.FOOD, new Date(1, Month.DEC, 2024),
+                Currency.SGD, "Lunch"));
+        bank.getTransactions().add(new Transaction(200, Category.TRANSPORT, new Date(2, Month.JAN, 2025),
+                Currency.SGD, "Bus"));
+        bank.getTransactions().add(new Transaction(300, Category.FOOD, new Date(9, Month.MAR, 2025),
+                Currency.SGD, "Dinner"));
+        storage.saveTransactions(User.getBanks());
+        bank.getTransactions().clear();
+        storage.loadTransactions();
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            new Summary(storage).showRangeSummary(MonthRange.lastMonths(3, Month.FEB, 2025), bank, Currency.SGD,
+                    false);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertTrue(output.toString().contains("Total spend over this period: $7.00"), output.toString());
+        assertEquals(300, storage.getSpending(bank, Month.JAN, 2025, Month.DEC, 2025, Category.FOOD,
+                Currency.SGD));
+        assertFalse(bank.isTransactionsLoaded());
+        assertEquals(1000, bank.getSpending(Month.JAN, 2024, Month.DEC, 2025, Category.FOOD, Currency.SGD)
+                + bank.getSpending(Month.JAN, 2025, Category.TRANSPORT, Currency.SGD));
+    }
+
+    @Test
+    public void newStorage_afterInterruptedCompaction_foldsSealedJournalAndDeletesStaleFiles()
+            throws IOException, FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        storage.appendTransaction(bank, new Transaction(500, Category.FOOD, new Date(1, Month.MAR, 2025),
+                Currency.SGD, "Lunch"));
+        storage.flush();
+        // A compaction killed after sealing the journal and writing part of its segments and manifest
+        Files.move(TX_JOURNAL_FILE, Path.of("transactions.journal.1"));
+        Files.writeString(Path.of("transactions.0-2025-03.g1.txt.tmp"), "partial");
+        Files.writeString(Path.of("transactions.0-2025-01.g1.txt"), "unlisted");
+        Files.writeString(Path.of("transactions.txt.tmp"), "partial");
+
+        storage = new Storage();
+
+        assertFalse(Files.exists(Path.of("transactions.journal.1")));
+        assertEquals(List.of("#gen 1", "#segment 0-2025-03 transactions.0-2025-03.g1.txt"),
+                ChecksumsTest.readDataLines(TX_FILE));
+        assertOnlyListedTransactionFiles();
+        storage.loadTransactions();
+        assertEquals("Lunch", bank.getTransactions().get(0).getTag());
+    }
+
+    @Test
+    public void close_duringCompaction_leavesOnlyListedFiles() throws IOException, FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 10000, 1.0f);
+        User.getBanks().add(bank);
+        int count = 600;
+        for (int i = 0; i < count; i++) {
+            storage.appendTransaction(bank, new Transaction(100 + i, Category.FOOD,
+                    new Date(i % 28 + 1, Month.values()[i % 12], 2025), Currency.SGD, "Item " + i));
+        }
+
+        storage.close();
+
+        assertFalse(ChecksumsTest.readDataLines(TX_FILE).isEmpty());
+        assertOnlyListedTransactionFiles();
+        bank.getTransactions().clear();
+        new Storage().loadTransactions();
+        assertEquals(count, bank.getTransactions().size());
+    }
+
+    /**
+     * Asserts that every transaction file in the working directory is the manifest, the active journal
+     * or a segment the manifest lists.
+     */
+    private static void assertOnlyListedTransactionFiles() throws IOException {
+        List<String> listed = new ArrayList<>(List.of(TX_FILE.toString(), TX_JOURNAL_FILE.toString()));
+        for (String line : ChecksumsTest.readDataLines(TX_FILE)) {
+            if (line.startsWith(SegmentedSnapshot.SEGMENT_HEADER)) {
+                listed.add(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of("."), "transactions.*")) {
+            for (Path file : files) {
+                assertTrue(listed.contains(file.getFileName().toString()), "Unlisted file " + file);
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package summary;
+
+import org.junit.jupiter.api.Test;
+import utils.Month;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the ranges of months summaries can cover.
+ */
+public class MonthRangeTest {
+    @Test
+    public void lastMonths_acrossYearEnd_startsInPreviousYear() {
+        MonthRange range = MonthRange.lastMonths(12, Month.FEB, 2026);
+
+        assertEquals(Month.MAR, range.getFirstMonth());
+        assertEquals(2025, range.getFirstYear());
+        assertEquals(Month.FEB, range.getLastMonth());
+        assertEquals(2026, range.getLastYear());
+        assertEquals("LAST 12 MONTHS", range.getTitle());
+    }
+
+    @Test
+    public void countOf_rangeOverTwoYears_countsEachOccurrence() {
+        MonthRange range = MonthRange.lastMonths(14, Month.APR, 2026);
+
+        assertEquals(2, range.countOf(Month.MAR));
+        assertEquals(2, range.countOf(Month.APR));
+        assertEquals(1, range.countOf(Month.MAY));
+        assertEquals(1, range.countOf(Month.FEB));
+        assertEquals(1, MonthRange.ofYear(2025).countOf(Month.DEC));
+        assertEquals(0, MonthRange.of(Month.JAN, Month.JUN, 2026).countOf(Month.JUL));
+    }
+
+    @Test
+    public void of_lastMonthBeforeFirst_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> MonthRange.of(Month.JUN, Month.JAN, 2026));
+    }
+}
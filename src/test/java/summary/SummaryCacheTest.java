@@ -0,0 +1,74 @@
+package summary;
+
+import bank.Bank;
+import org.junit.jupiter.api.Test;
+import transaction.Transaction;
+import ui.FinanceException;
+import utils.Budget;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the cache of rendered monthly summaries.
+ */
+public class SummaryCacheTest {
+    private static final SummaryCache.Key JANUARY = new SummaryCache.Key(0, Currency.SGD, "JAN", false);
+
+    @Test
+    public void get_bankChangedAfterPut_missesUntilPutAgain() throws FinanceException {
+        Bank bank = new Bank(0, Currency.SGD, 100000, 1.0f);
+        SummaryCache cache = new SummaryCache(4);
+
+        cache.put(JANUARY, List.of(bank), "first");
+        assertEquals("first", cache.get(JANUARY, List.of(bank)));
+
+        bank.addTransactionToBank(new Transaction(500, Category.FOOD, new Date(3, Month.JAN, 2025),
+                Currency.SGD, "Lunch"));
+        assertNull(cache.get(JANUARY, List.of(bank)));
+
+        cache.put(JANUARY, List.of(bank), "second");
+        bank.addBudgetToBank(new Budget(Category.FOOD, 10000, Currency.SGD, Month.JAN, bank));
+        assertNull(cache.get(JANUARY, List.of(bank)));
+
+        cache.put(JANUARY, List.of(bank), "third");
+        bank.setBalance(50000);
+        assertNull(cache.get(JANUARY, List.of(bank)));
+    }
+
+    @Test
+    public void get_differentBanksInScope_misses() {
+        Bank bank = new Bank(0, Currency.SGD, 100000, 1.0f);
+        Bank sameId = new Bank(0, Currency.SGD, 100000, 1.0f);
+        SummaryCache cache = new SummaryCache(4);
+
+        cache.put(JANUARY, List.of(bank), "summary");
+
+        assertNull(cache.get(JANUARY, List.of(sameId)));
+        assertNull(cache.get(JANUARY, List.of()));
+    }
+
+    @Test
+    public void put_overCapacity_dropsLeastRecentlyUsed() {
+        Bank bank = new Bank(0, Currency.SGD, 100000, 1.0f);
+        SummaryCache.Key february = new SummaryCache.Key(0, Currency.SGD, "FEB", false);
+        SummaryCache.Key march = new SummaryCache.Key(0, Currency.SGD, "MAR", false);
+        SummaryCache cache = new SummaryCache(2);
+
+        cache.put(JANUARY, List.of(bank), "january");
+        cache.put(february, List.of(bank), "february");
+        cache.get(JANUARY, List.of(bank));
+        cache.put(march, List.of(bank), "march");
+
+        assertEquals(2, cache.size());
+        assertEquals("january", cache.get(JANUARY, List.of(bank)));
+        assertNull(cache.get(february, List.of(bank)));
+        assertEquals("march", cache.get(march, List.of(bank)));
+    }
+}
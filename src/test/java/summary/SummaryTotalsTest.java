@@ -0,0 +1,58 @@
+package summary;
+
+import org.junit.jupiter.api.Test;
+import transaction.Transaction;
+import ui.FinanceException;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the primitive figures of a monthly summary.
+ */
+public class SummaryTotalsTest {
+    @Test
+    public void addSpent_severalCategories_totalFollows() {
+        SummaryTotals totals = new SummaryTotals();
+
+        totals.addSpent(Category.FOOD, 500);
+        totals.addSpent(Category.TRANSPORT, 300);
+        totals.addSpent(Category.FOOD, 200);
+        totals.setBudget(Category.FOOD, 1000);
+
+        assertEquals(700, totals.getSpent(Category.FOOD));
+        assertEquals(1000, totals.getTotalSpent());
+        assertEquals(1000, totals.getBudget(Category.FOOD));
+        assertEquals(0, totals.getBudget(Category.TRANSPORT));
+    }
+
+    @Test
+    public void merge_partialsOfTwoBanks_spendingAddedAndTransactionsListedInOrder() throws FinanceException {
+        Transaction padThai = new Transaction(10000, Category.FOOD, new Date(1, Month.JAN, 2025), Currency.THB,
+                "Pad thai");
+        Transaction kopi = new Transaction(250, Category.FOOD, new Date(2, Month.JAN, 2025), Currency.SGD, "Kopi");
+        SummaryTotals first = new SummaryTotals();
+        first.addSpent(Category.FOOD, 400);
+        first.addTransactions(List.of(padThai), Currency.SGD, true);
+        SummaryTotals second = new SummaryTotals();
+        second.addSpent(Category.FOOD, 250);
+        second.addTransactions(List.of(kopi), Currency.SGD, true);
+
+        SummaryTotals totals = new SummaryTotals();
+        totals.merge(first);
+        totals.merge(second);
+
+        List<String> listed = new ArrayList<>();
+        totals.forEachTransaction((index, transaction, displayValue) ->
+                listed.add(index + ":" + transaction.getTag() + ":" + displayValue));
+        assertEquals(List.of("0:Pad thai:400", "1:Kopi:250"), listed);
+        assertEquals(2, totals.getTransactionCount());
+        assertEquals(650, totals.getSpent(Category.FOOD));
+    }
+}
@@ -0,0 +1,44 @@
+package transaction;
+
+import org.junit.jupiter.api.Test;
+import ui.FinanceException;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the shared dictionary of transaction tags.
+ */
+public class TagDictionaryTest {
+    @Test
+    public void idOf_sameTag_sameIdAndSharedString() {
+        int id = TagDictionary.idOf("groceries");
+
+        assertEquals(id, TagDictionary.idOf(new String("groceries")));
+        assertEquals(id, TagDictionary.find("groceries"));
+        assertTrue(TagDictionary.intern(new String("groceries")) == TagDictionary.tagOf(id));
+    }
+
+    @Test
+    public void idOf_nullOrUnknownTag_noTag() {
+        assertEquals(TagDictionary.NO_TAG, TagDictionary.idOf(null));
+        assertEquals(TagDictionary.NO_TAG, TagDictionary.find("never-added-tag"));
+        assertNull(TagDictionary.tagOf(TagDictionary.NO_TAG));
+    }
+
+    @Test
+    public void columns_rowsOfDifferentBanks_shareTagIds() throws FinanceException {
+        TransactionColumns first = new TransactionColumns();
+        TransactionColumns second = new TransactionColumns();
+        first.add(100, Category.TRANSPORT, 1, Month.JAN, 2025, Currency.SGD, "grab");
+        second.add(new Transaction(200, Category.TRANSPORT, new Date(2, Month.JAN, 2025), Currency.SGD, "grab"));
+
+        assertEquals(first.getTagId(0), second.getTagId(0));
+        assertTrue(first.getTag(0) == second.get(0).getTag());
+    }
+}
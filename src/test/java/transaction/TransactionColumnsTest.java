@@ -0,0 +1,215 @@
+package transaction;
+
+import org.junit.jupiter.api.Test;
+import ui.FinanceException;
+import utils.Category;
+import utils.Currency;
+import utils.Date;
+import utils.Month;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the column-wise transaction store and its {@link Transaction} views.
+ */
+public class TransactionColumnsTest {
+    @Test
+    public void add_transactions_viewsEqualStoredTransactions() throws FinanceException {
+        Transaction lunch = new Transaction(550, Category.FOOD, new Date(1, Month.MAR, 2025), Currency.SGD, "Lunch");
+        Transaction bus = new Transaction(200, Category.TRANSPORT, new Date(29, Month.FEB, 2024), Currency.JPY, null);
+        TransactionColumns columns = new TransactionColumns();
+
+        columns.add(lunch);
+        columns.add(bus);
+
+        assertEquals(List.of(lunch, bus), columns);
+        assertEquals(Month.FEB, columns.getMonth(1));
+        assertEquals(2024, columns.getYear(1));
+        assertNull(columns.getTag(1));
+    }
+
+    @Test
+    public void remove_middleRow_laterRowsKeepTheirIds() {
+        TransactionColumns columns = new TransactionColumns();
+        for (int i = 0; i < 20; i++) {
+            columns.add(i, Category.FOOD, 1, Month.JAN, 2025, Currency.SGD, "t" + i);
+        }
+        long lastId = columns.getRowId(19);
+
+        columns.remove(3);
+
+        assertEquals(19, columns.size());
+        assertEquals("t4", columns.getTag(3));
+        assertEquals(lastId, columns.getRowId(18));
+    }
+
+    @Test
+    public void set_row_getsNewIdAndChangesModCount() throws FinanceException {
+        TransactionColumns columns = new TransactionColumns();
+        columns.add(100, Category.FOOD, 1, Month.JAN, 2025, Currency.SGD, "Lunch");
+        long id = columns.getRowId(0);
+        int modCount = columns.getModCount();
+
+        columns.set(0, new Transaction(300, Category.FOOD, new Date(1, Month.JAN, 2025), Currency.SGD, "Dinner"));
+
+        assertTrue(id != columns.getRowId(0));
+        assertTrue(modCount != columns.getModCount());
+        assertEquals("Dinner", columns.getTag(0));
+    }
+
+    @Test
+    public void matches_rowFields_evaluatedWithoutView() {
+        TransactionColumns columns = new TransactionColumns();
+        columns.add(1200, Category.ENTERTAINMENT, 3, Month.JUN, 2025, Currency.SGD, "Movie");
+
+        assertTrue(columns.matches(0, (category, value, day, month, year, currency, tag) ->
+                category == Category.ENTERTAINMENT && value == 1200 && month == Month.JUN && "Movie".equals(tag)));
+        assertFalse(columns.matches(0, (category, value, day, month, year, currency, tag) -> day != 3));
+    }
+
+    @Test
+    public void forEachRowBetween_afterAddsRemovesAndSets_visitsRangeInDateOrder() throws FinanceException {
+        Random random = new Random(16);
+        TransactionColumns columns = new TransactionColumns();
+        for (int i = 0; i < 300; i++) {
+            columns.add(i, Category.FOOD, 1 + random.nextInt(28), Month.values()[random.nextInt(12)],
+                    2024 + random.nextInt(3), Currency.SGD, null);
+        }
+        Date start = new Date(15, Month.MAR, 2025);
+        Date end = new Date(10, Month.AUG, 2025);
+        columns.forEachRowBetween(start, end, row -> { });
+
+        for (int i = 0; i < 100; i++) {
+            Transaction transaction = new Transaction(1000 + i, Category.FOOD, new Date(1 + random.nextInt(28),
+                    Month.values()[random.nextInt(12)], 2024 + random.nextInt(3)), Currency.SGD, null);
+            switch (i % 3) {
+            case 0:
+                columns.add(random.nextInt(columns.size() + 1), transaction);
+                break;
+            case 1:
+                columns.remove(random.nextInt(columns.size()));
+                break;
+            default:
+                columns.set(random.nextInt(columns.size()), transaction);
+                break;
+            }
+        }
+
+        List<Transaction> visited = new ArrayList<>();
+        columns.forEachRowBetween(start, end, row -> visited.add(columns.get(row)));
+        List<Transaction> expected = new ArrayList<>();
+        for (Transaction transaction : columns) {
+            if (!transaction.getDate().isBefore(start) && !transaction.getDate().isAfter(end)) {
+                expected.add(transaction);
+            }
+        }
+        expected.sort((a, b) -> Integer.compare(a.getDate().getKey(), b.getDate().getKey()));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void forEachRowContaining_partialAndShortKeywords_matchesRowsWhoseTextContainsThem() {
+        TransactionColumns columns = new TransactionColumns();
+        columns.add(500, Category.FOOD, 2, Month.MAR, 2025, Currency.SGD, "Groceries weekly");
+        columns.add(900, Category.TRANSPORT, 3, Month.MAR, 2025, Currency.SGD, "Taxi-home");
+        columns.add(700, Category.FOOD, 4, Month.APR, 2025, Currency.SGD, "groceRIES");
+
+        assertEquals(List.of(0, 2), rowsContaining(columns, "groc"));
+        assertEquals(List.of(1), rowsContaining(columns, "xi"));
+        assertEquals(List.of(2), rowsContaining(columns, "april"));
+        assertEquals(List.of(), rowsContaining(columns, "taxis"));
+        assertEquals(List.of(1), rowsContaining(columns, "xi-home(tr"));
+        assertEquals(List.of(1), rowsContaining(columns, "$9.0 |"));
+        assertEquals(List.of(0, 1), rowsContaining(columns, "of march, 2025"));
+
+        columns.remove(1);
+        columns.add(300, Category.TRANSPORT, 5, Month.APR, 2025, Currency.SGD, "taxidermy");
+
+        assertEquals(List.of(2), rowsContaining(columns, "taxi"));
+        assertEquals(List.of(), rowsContaining(columns, "home"));
+    }
+
+    @Test
+    public void forEachRowContaining_afterAddsAndRemoves_matchesSubstringOfText() {
+        Random random = new Random(19);
+        String[] tags = {"Bubble tea", "Chicken rice", "Kaya toast", "Bus to work", null};
+        TransactionColumns columns = new TransactionColumns();
+        for (int i = 0; i < 300; i++) {
+            columns.add(random.nextInt(5000), Category.values()[random.nextInt(Category.values().length)],
+                    1 + random.nextInt(28), Month.values()[random.nextInt(12)], 2024 + random.nextInt(2),
+                    random.nextBoolean() ? Currency.SGD : Currency.JPY, tags[random.nextInt(tags.length)]);
+            if (i % 4 == 3) {
+                columns.remove(random.nextInt(columns.size()));
+            }
+        }
+
+        for (String keyword : new String[] {"bubble tea", "a t", "4.5", "1.", "rice(food)", "th of may", "e", "zz",
+                " | kaya toast(", "(food) | 1", " of ", "$", " | "}) {
+            List<Integer> expected = new ArrayList<>();
+            for (int row = 0; row < columns.size(); row++) {
+                if (columns.get(row).toString().toLowerCase().contains(keyword)) {
+                    expected.add(row);
+                }
+            }
+            assertEquals(expected, rowsContaining(columns, keyword), keyword);
+        }
+    }
+
+    private static List<Integer> rowsContaining(TransactionColumns columns, String keyword) {
+        List<Integer> rows = new ArrayList<>();
+        columns.forEachRowContaining(keyword, rows::add);
+        return rows;
+    }
+
+    @Test
+    public void forEachRowOf_afterAddsRemovesAndSets_matchesCategoryCurrencyAndMonth() throws FinanceException {
+        Random random = new Random(20);
+        Category[] categories = Category.values();
+        TransactionColumns columns = new TransactionColumns();
+        for (int i = 0; i < 500; i++) {
+            columns.add(i, categories[random.nextInt(categories.length)], 1, Month.values()[random.nextInt(3)],
+                    2024 + random.nextInt(2), random.nextBoolean() ? Currency.SGD : Currency.JPY, null);
+        }
+        columns.forEachRowOf(Category.FOOD, null, null, TransactionColumns.ANY_YEAR, row -> { });
+
+        for (int i = 0; i < 150; i++) {
+            Transaction transaction = new Transaction(i, categories[random.nextInt(categories.length)],
+                    new Date(1, Month.values()[random.nextInt(3)], 2024 + random.nextInt(2)), Currency.SGD, null);
+            switch (i % 3) {
+            case 0:
+                columns.add(random.nextInt(columns.size() + 1), transaction);
+                break;
+            case 1:
+                columns.remove(random.nextInt(columns.size()));
+                break;
+            default:
+                columns.set(random.nextInt(columns.size()), transaction);
+                break;
+            }
+        }
+
+        List<Integer> foodInFeb2025 = new ArrayList<>();
+        columns.forEachRowOf(Category.FOOD, Currency.SGD, Month.FEB, 2025, foodInFeb2025::add);
+        List<Integer> foodInFeb = new ArrayList<>();
+        columns.forEachRowOf(Category.FOOD, null, Month.FEB, TransactionColumns.ANY_YEAR, foodInFeb::add);
+        List<Integer> expectedIn2025 = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.getCategory(row) == Category.FOOD && columns.getMonth(row) == Month.FEB) {
+                expected.add(row);
+                if (columns.getYear(row) == 2025 && columns.getCurrency(row) == Currency.SGD) {
+                    expectedIn2025.add(row);
+                }
+            }
+        }
+        assertEquals(expectedIn2025, foodInFeb2025);
+        assertEquals(expected, foodInFeb);
+    }
+}
@@ -33,8 +33,8 @@ public class ParserTest {
         User.getBudgets().clear();
 
         // Set up a test bank
-        Bank bank0 = new Bank(0, Currency.SGD, 1000f, 1.0f);
-        Bank bank1 = new Bank(1, Currency.SGD, 2000f, 1.0f);
+        Bank bank0 = new Bank(0, Currency.SGD, 100000, 1.0f);
+        Bank bank1 = new Bank(1, Currency.SGD, 200000, 1.0f);
         User.addBank(bank0);
         User.addBank(bank1);
         User.setCurrBank(bank0);
@@ -64,7 +64,7 @@ public class ParserTest {
         assertEquals(1, User.getCurrBank().getTransactions().size());
         Transaction t = User.getCurrBank().getTransactions().get(0);
         assertEquals(Category.FOOD, t.getCategory());
-        assertEquals(10.5f, t.getValue());
+        assertEquals(1050, t.getValue());
     }
 
     @Test
@@ -156,9 +156,9 @@ public class ParserTest {
 
     @Test
     public void parseCommand_depositWhenValidInput_success() throws FinanceException {
-        float prevBalance = User.getCurrBank().getBalance();
+        long prevBalance = User.getCurrBank().getBalance();
         Parser.parseCommand("deposit 200");
-        assertEquals(prevBalance + 200f, User.getCurrBank().getBalance(), 0.001);
+        assertEquals(prevBalance + 20000, User.getCurrBank().getBalance());
     }
 
     @Test
@@ -171,9 +171,9 @@ public class ParserTest {
 
     @Test
     public void parseCommand_withdrawWhenValidInput_success() throws FinanceException {
-        float prevBalance = User.getCurrBank().getBalance();
+        long prevBalance = User.getCurrBank().getBalance();
         Parser.parseCommand("withdraw 300");
-        assertEquals(prevBalance - 300f, User.getCurrBank().getBalance(), 0.001);
+        assertEquals(prevBalance - 30000, User.getCurrBank().getBalance());
     }
 
     @Test
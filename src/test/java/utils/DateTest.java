@@ -0,0 +1,65 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for date keys, ordering and parsing.
+ */
+public class DateTest {
+    @Test
+    public void isBefore_differentYears_comparedByYearFirst() {
+        Date december = new Date(31, Month.DEC, 2024);
+        Date january = new Date(1, Month.JAN, 2025);
+
+        assertTrue(december.isBefore(january));
+        assertFalse(december.isAfter(january));
+        assertTrue(january.isAfter(december));
+        assertFalse(january.isBefore(january));
+    }
+
+    @Test
+    public void getKey_date_packedAsYearMonthDay() {
+        Date date = new Date(9, Month.MAR, 2025);
+
+        assertEquals(20250309, date.getKey());
+        assertEquals(date, Date.ofKey(date.getKey()));
+        assertEquals(Month.MAR, Date.unpackMonth(date.getKey()));
+    }
+
+    @Test
+    public void of_sameFields_sharedInstance() {
+        assertTrue(Date.of(15, Month.JUN, 2025) == Date.of(15, Month.JUN, 2025));
+        assertEquals(new Date(15, Month.JUN, 1500), Date.of(15, Month.JUN, 1500));
+        assertThrows(IllegalArgumentException.class, () -> Date.of(30, Month.FEB, 2025));
+    }
+
+    @Test
+    public void toDate_withOrWithoutYear_parsed() {
+        assertEquals(new Date(1, Month.DEC, 2024), Date.toDate("01/12/2024"));
+        assertEquals(java.time.LocalDate.now().getYear(), Date.toDate("01/12").getYear());
+        assertThrows(IllegalArgumentException.class, () -> Date.toDate("01/12/2024/1"));
+    }
+
+    @Test
+    public void constructor_yearOutOfRange_throws() {
+        assertEquals(99991231, new Date(31, Month.DEC, Date.MAX_YEAR).getKey());
+        assertThrows(IllegalArgumentException.class, () -> new Date(1, Month.JAN, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Date(1, Month.JAN, Date.MAX_YEAR + 1));
+        assertThrows(IllegalArgumentException.class, () -> Date.of(1, Month.JAN, 300000));
+        assertThrows(IllegalArgumentException.class, () -> Date.toDate("01/01/300000"));
+    }
+
+    @Test
+    public void isValidKey_storedKeys_onlyRealDatesValid() {
+        assertTrue(Date.isValidKey(20240229));
+        assertFalse(Date.isValidKey(20250229));
+        assertFalse(Date.isValidKey(20251301));
+        assertFalse(Date.isValidKey(20250100));
+        assertFalse(Date.isValidKey(-72));
+    }
+}
@@ -0,0 +1,53 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for fixed-point money parsing, arithmetic and formatting.
+ */
+public class MoneyTest {
+    @Test
+    public void parse_variousForms_minorUnits() {
+        assertEquals(1250, Money.parse("12.5"));
+        assertEquals(1205, Money.parse(" 12.05 "));
+        assertEquals(1200, Money.parse("12"));
+        assertEquals(-725, Money.parse("-7.25"));
+        assertEquals(30, Money.parse("0.30000001"));
+        assertEquals(1_000_000_000_000L, Money.parse("1.0E10"));
+    }
+
+    @Test
+    public void parse_invalidOrTooLarge_throwsNumberFormatException() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+        assertThrows(NumberFormatException.class, () -> Money.parse("10000000000000"));
+    }
+
+    @Test
+    public void sum_manySmallAmounts_exact() {
+        long total = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            total = Money.add(total, Money.parse("0.10"));
+        }
+        assertEquals("100000.00", Money.format(total));
+    }
+
+    @Test
+    public void format_amounts_twoDecimalsAndPlainForm() {
+        assertEquals("12.50", Money.format(1250));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-3.00", Money.format(-300));
+        assertEquals("12.5", Money.toPlainString(1250));
+        assertEquals("12.0", Money.toPlainString(1200));
+        assertEquals("0.05", Money.toPlainString(5));
+    }
+
+    @Test
+    public void convert_betweenCurrencies_roundedToMinorUnit() {
+        assertEquals(1000, Money.convert(1000, Currency.SGD, Currency.SGD));
+        assertEquals(400, Money.convert(10000, Currency.THB, Currency.SGD));
+    }
+}